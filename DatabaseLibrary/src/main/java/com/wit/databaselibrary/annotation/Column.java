@@ -1,6 +1,7 @@
 package com.wit.databaselibrary.annotation;
 
 import com.wit.databaselibrary.model.ColumnType;
+import com.wit.databaselibrary.model.Storage;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -13,4 +14,17 @@ public @interface Column {
 	String columnName();
 
 	ColumnType columnType();
+
+	/**
+	 * Where the value of the column is kept, which may only be {@link Storage#EXTERNAL} for
+	 * {@link ColumnType#BLOB} columns.
+	 */
+	Storage storage() default Storage.INLINE;
+
+	/**
+	 * Whether the column is left out of the default projection, so that list queries do not
+	 * move its value through the cursor window.  The value of a deferred column is loaded on
+	 * demand through {@code Manager.loadDeferred(...)}.
+	 */
+	boolean deferred() default false;
 }
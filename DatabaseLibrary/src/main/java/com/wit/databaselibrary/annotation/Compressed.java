@@ -0,0 +1,23 @@
+package com.wit.databaselibrary.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Column} of type {@link com.wit.databaselibrary.model.ColumnType#STRING} or
+ * {@link com.wit.databaselibrary.model.ColumnType#BLOB} as compressed with DEFLATE.  Values
+ * smaller than {@link #minimumSize()} bytes are stored as they are, since compressing them rarely
+ * pays off.  Compressed values are stored with a header, so rows saved before the column was
+ * compressed still read correctly.  A compressed column cannot also be {@link FullText} or
+ * {@link com.wit.databaselibrary.model.Storage#EXTERNAL}.
+ */
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.FIELD )
+public @interface Compressed {
+	/**
+	 * The size, in bytes, from which values are compressed.
+	 */
+	int minimumSize() default 256;
+}
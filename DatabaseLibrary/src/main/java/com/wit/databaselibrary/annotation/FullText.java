@@ -0,0 +1,17 @@
+package com.wit.databaselibrary.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Column} of type {@link com.wit.databaselibrary.model.ColumnType#STRING} as
+ * searchable through full-text search.  The full-text columns of a table are indexed together in
+ * an FTS4 table, which is kept in sync with the table by triggers.  External content FTS4 tables
+ * require SQLite 3.7.9, which ships with Android 4.1.
+ */
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.FIELD )
+public @interface FullText {
+}
@@ -0,0 +1,39 @@
+package com.wit.databaselibrary.annotation;
+
+import com.wit.databaselibrary.model.Order;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an index, either on a {@link Column} field, where it indexes that column unless
+ * other columns are given, or in {@link Table#indexes()}, where the columns must be given.
+ */
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.FIELD )
+public @interface Index {
+	/**
+	 * The name of the index.  By default, it is made up of the table name and the column names.
+	 */
+	String name() default "";
+
+	/**
+	 * The indexed columns, in order.  By default, it is the column of the annotated field.
+	 */
+	String[] columnNames() default {};
+
+	/**
+	 * The order of each indexed column.  By default, every column is in ascending order.
+	 */
+	Order[] orders() default {};
+
+	boolean unique() default false;
+
+	/**
+	 * The WHERE clause of a partial index, excluding the WHERE itself.  By default, every row is
+	 * indexed.  Partial indexes require SQLite 3.8.0, which ships with Android 5.0.
+	 */
+	String where() default "";
+}
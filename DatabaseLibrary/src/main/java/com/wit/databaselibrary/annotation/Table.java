@@ -9,4 +9,9 @@ import java.lang.annotation.Target;
 @Target( ElementType.TYPE )
 public @interface Table {
 	String tableName();
+
+	/**
+	 * The indexes of the table, such as composite indexes, on top of those declared on fields.
+	 */
+	Index[] indexes() default {};
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.wit.databaselibrary.contentprovider;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Wraps a {@link Cursor} that was opened on a connection acquired through
+ * {@link SimpleContentProvider.SimpleDatabaseHelper#acquireReadableDatabase()}, and hands the
+ * connection back once the {@link Cursor} is closed.  A cursor keeps using its connection to fill
+ * the windows after the first one, so the connection cannot be handed back any earlier.  Queries
+ * that find every pooled connection held by open cursors run on the connection of the writer.
+ */
+class PooledConnectionCursor extends CursorWrapper {
+	private final SimpleContentProvider.SimpleDatabaseHelper simpleDatabaseHelper;
+	private final SQLiteDatabase sqLiteDatabase;
+	private boolean released = false;
+
+	/**
+	 * Creates a new {@link PooledConnectionCursor}.
+	 *
+	 * @param cursor The {@link Cursor} to wrap.
+	 * @param simpleDatabaseHelper The helper the connection was acquired from.
+	 * @param sqLiteDatabase The connection the {@link Cursor} was opened on.
+	 */
+	PooledConnectionCursor( final Cursor cursor,
+			final SimpleContentProvider.SimpleDatabaseHelper simpleDatabaseHelper,
+			final SQLiteDatabase sqLiteDatabase ) {
+		super( cursor );
+
+		this.simpleDatabaseHelper = simpleDatabaseHelper;
+		this.sqLiteDatabase = sqLiteDatabase;
+	}
+
+	@Override
+	public void close() {
+		try {
+			super.close();
+		} finally {
+			this.release();
+		}
+	}
+
+	/**
+	 * Hands the connection back, unless it has already been handed back.
+	 */
+	private void release() {
+		final boolean released;
+
+		synchronized ( this ) {
+			released = this.released;
+
+			this.released = true;
+		}
+
+		if ( !released ) {
+			this.simpleDatabaseHelper.releaseReadableDatabase( this.sqLiteDatabase );
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.wit.databaselibrary.contentprovider;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed-size pool of read-only connections to a database file.  Each connection is a separate
+ * {@link SQLiteDatabase}, so queries running on different connections do not wait on each other.
+ * When the database is in write-ahead logging mode, they also do not wait on the writer.
+ */
+public class ReadConnectionPool {
+	private final File databaseFile;
+	private final int size;
+	private final Deque<SQLiteDatabase> idleConnections = new ArrayDeque<SQLiteDatabase>();
+	private final List<SQLiteDatabase> connections = new ArrayList<SQLiteDatabase>();
+	private boolean closed = false;
+
+	/**
+	 * Creates a new {@link ReadConnectionPool}.  Connections are opened lazily, the first time
+	 * they are needed.
+	 *
+	 * @param databaseFile The database file to open read-only connections to.
+	 * @param size The maximum number of read-only connections to open.
+	 * @throws IllegalArgumentException The given size is less than 1.
+	 */
+	public ReadConnectionPool( final File databaseFile, final int size )
+			throws IllegalArgumentException {
+		if ( size < 1 ) {
+			throw new IllegalArgumentException( "The pool size must be at least 1, but was '" +
+					size + "'." );
+		}
+
+		this.databaseFile = databaseFile;
+		this.size = size;
+	}
+
+	/**
+	 * Returns an idle connection, opening a new one if the pool has not reached its size yet, or
+	 * waiting up to the given time for one to be released otherwise.  Since every open cursor
+	 * holds on to its connection, a caller that gives up should run its query elsewhere rather
+	 * than wait indefinitely.
+	 *
+	 * @param timeoutMillis The maximum number of milliseconds to wait for a connection.
+	 * @return A read-only connection, which must be handed back through
+	 * {@link #release(SQLiteDatabase)}, or {@code null} if none was released in time.
+	 * @throws IllegalStateException The pool has been closed, also while waiting, or the calling
+	 * thread was interrupted while waiting for a connection.
+	 */
+	public synchronized SQLiteDatabase acquire( final long timeoutMillis )
+			throws IllegalStateException {
+		final long deadlineNanos =
+				System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+		SQLiteDatabase connection = this.idleConnections.poll();
+
+		if ( connection == null ) {
+			connection = this.open();
+		}
+
+		long remainingNanos = deadlineNanos - System.nanoTime();
+
+		while ( connection == null && remainingNanos > 0 ) {
+			try {
+				TimeUnit.NANOSECONDS.timedWait( this, remainingNanos );
+			} catch ( final InterruptedException interruptedException ) {
+				Thread.currentThread().interrupt();
+
+				throw new IllegalStateException(
+						"Interrupted while waiting for a read-only connection.",
+						interruptedException );
+			}
+
+			if ( this.closed ) {
+				throw new IllegalStateException(
+						"The read-only connection pool has been closed." );
+			}
+
+			connection = this.idleConnections.poll();
+			remainingNanos = deadlineNanos - System.nanoTime();
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Closes all of the connections in this pool.  Connections that are still in use are closed
+	 * as soon as they are released, and threads waiting for a connection fail.
+	 */
+	public synchronized void close() {
+		this.closed = true;
+
+		this.notifyAll();
+
+		SQLiteDatabase connection = this.idleConnections.poll();
+
+		while ( connection != null ) {
+			connection.close();
+
+			connection = this.idleConnections.poll();
+		}
+	}
+
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Opens a new read-only connection if the pool has not reached its size yet.  Only called
+	 * while holding the lock of this pool.
+	 *
+	 * @return The newly opened connection, or {@code null} if the pool is already full.
+	 * @throws IllegalStateException The pool has been closed.
+	 */
+	private synchronized SQLiteDatabase open() throws IllegalStateException {
+		if ( this.closed ) {
+			throw new IllegalStateException( "The read-only connection pool has been closed." );
+		}
+
+		final SQLiteDatabase connection;
+
+		if ( this.connections.size() < this.size ) {
+			final String path = this.databaseFile.getPath();
+
+			connection = SQLiteDatabase.openDatabase( path, null,
+					SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS );
+
+			this.connections.add( connection );
+		} else {
+			connection = null;
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Hands the given connection back to this pool, so that it can be used by another query.
+	 *
+	 * @param connection The connection previously returned by {@link #acquire()}.
+	 */
+	public synchronized void release( final SQLiteDatabase connection ) {
+		if ( this.closed ) {
+			connection.close();
+		} else {
+			this.idleConnections.offer( connection );
+
+			this.notify();
+		}
+	}
+}
@@ -0,0 +1,403 @@
+package com.wit.databaselibrary.contentprovider;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.provider.BaseColumns;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.wit.databaselibrary.contentprovider.contract.Contract;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Brings the tables of a database in line with the {@link Contract}s that describe them.  A
+ * fingerprint of the schema of each {@link Contract} is stored in the database, so that a
+ * {@link Contract} whose schema has not changed costs nothing but reading the fingerprints.
+ * Otherwise, the columns of the table are compared with those of the {@link Contract}.  New
+ * columns are added in place.  Any other change rebuilds the table by copying its rows into a new
+ * table in batches of consecutive IDs, each batch in its own transaction, so that no single
+ * transaction grows with the size of the table.  A rebuild that is interrupted resumes where it
+ * left off the next time the database is opened.  Indexes, maintained counts, and full-text
+ * search tables are then recreated.
+ */
+public class SchemaMigrator {
+	/**
+	 * The name of the table holding the schema fingerprint of every {@link Contract}.
+	 */
+	public static final String SCHEMA_TABLE_NAME = "database_library_schema";
+	private static final String SCHEMA_TABLE_NAME_COLUMN = "table_name";
+	private static final String SCHEMA_FINGERPRINT_COLUMN = "fingerprint";
+
+	/**
+	 * The suffix of the name of the table that rows are copied from during a rebuild.
+	 */
+	private static final String MIGRATION_TABLE_SUFFIX = "_migration";
+
+	private final Set<? extends Contract<?>> contracts;
+	private final int batchSize;
+
+	/**
+	 * Creates a new {@link SchemaMigrator}.
+	 *
+	 * @param contracts The {@link Contract}s whose tables are stored in the database.
+	 * @param batchSize The maximum number of rows copied per transaction during a rebuild.
+	 * @throws IllegalArgumentException The given batch size is less than 1.
+	 */
+	public SchemaMigrator( final Set<? extends Contract<?>> contracts, final int batchSize )
+			throws IllegalArgumentException {
+		if ( batchSize < 1 ) {
+			throw new IllegalArgumentException( "The batch size must be at least 1, but was '" +
+					batchSize + "'." );
+		}
+
+		this.contracts = contracts;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Adds the columns of the given {@link Contract} that the table does not have yet.
+	 *
+	 * @param sqLiteDatabase The database to migrate.
+	 * @param contract The {@link Contract} of the table.
+	 * @param newColumnNames The names of the columns to add.
+	 */
+	private void addColumns( final SQLiteDatabase sqLiteDatabase, final Contract<?> contract,
+			final List<String> newColumnNames ) {
+		final Map<String, String> columnNamesToSqlTypes = contract.getColumnSqlTypes();
+
+		sqLiteDatabase.beginTransaction();
+
+		try {
+			for ( final String newColumnName : newColumnNames ) {
+				sqLiteDatabase.execSQL( "ALTER TABLE " + contract.getTableName() + " ADD COLUMN " +
+						newColumnName + " " + columnNamesToSqlTypes.get( newColumnName ) );
+			}
+
+			sqLiteDatabase.setTransactionSuccessful();
+		} finally {
+			sqLiteDatabase.endTransaction();
+		}
+	}
+
+	/**
+	 * Copies the rows that have not been copied yet from the migration table into the new table,
+	 * in batches of consecutive IDs, and then drops the migration table.
+	 *
+	 * @param sqLiteDatabase The database to migrate.
+	 * @param contract The {@link Contract} of the table being rebuilt.
+	 */
+	private void copyRows( final SQLiteDatabase sqLiteDatabase, final Contract<?> contract ) {
+		final String tableName = contract.getTableName();
+		final String migrationTableName = tableName + SchemaMigrator.MIGRATION_TABLE_SUFFIX;
+		final List<String> columnNames = new ArrayList<String>();
+		final Map<String, String> oldColumnNamesToSqlTypes =
+				SchemaMigrator.getColumnSqlTypes( sqLiteDatabase, migrationTableName );
+		final Map<String, String> newColumnNamesToSqlTypes = contract.getColumnSqlTypes();
+
+		for ( final String columnName : newColumnNamesToSqlTypes.keySet() ) {
+			if ( oldColumnNamesToSqlTypes.containsKey( columnName ) ) {
+				columnNames.add( columnName );
+			}
+		}
+
+		final String columnNamesString = TextUtils.join( ", ", columnNames );
+		final String copySqlString = "INSERT INTO " + tableName + " ( " + columnNamesString +
+				" ) SELECT " + columnNamesString + " FROM " + migrationTableName;
+		final long copiedRowCount = DatabaseUtils.queryNumEntries( sqLiteDatabase, tableName );
+		Long lastCopiedId = null;
+
+		if ( copiedRowCount > 0 ) {
+			lastCopiedId = DatabaseUtils.longForQuery( sqLiteDatabase,
+					"SELECT MAX( " + BaseColumns._ID + " ) FROM " + tableName, null );
+		}
+
+		boolean copied = false;
+
+		while ( !copied ) {
+			final String lowerBoundSqlString;
+			final List<String> lowerBoundArgs = new ArrayList<String>();
+
+			if ( lastCopiedId == null ) {
+				lowerBoundSqlString = "1";
+			} else {
+				lowerBoundSqlString = BaseColumns._ID + " > ?";
+				lowerBoundArgs.add( String.valueOf( lastCopiedId ) );
+			}
+
+			final List<String> batchEndArgs = new ArrayList<String>( lowerBoundArgs );
+
+			batchEndArgs.add( String.valueOf( this.batchSize - 1 ) );
+
+			final Cursor batchEndCursor = sqLiteDatabase.rawQuery( "SELECT " + BaseColumns._ID +
+					" FROM " + migrationTableName + " WHERE " + lowerBoundSqlString + " ORDER BY " +
+					BaseColumns._ID + " LIMIT 1 OFFSET ?",
+					batchEndArgs.toArray( new String[ batchEndArgs.size() ] ) );
+			Long batchEndId = null;
+
+			try {
+				if ( batchEndCursor.moveToFirst() ) {
+					batchEndId = batchEndCursor.getLong( 0 );
+				}
+			} finally {
+				batchEndCursor.close();
+			}
+
+			final List<String> copyArgs = new ArrayList<String>( lowerBoundArgs );
+			final String batchSqlString;
+
+			if ( batchEndId == null ) {
+				batchSqlString = copySqlString + " WHERE " + lowerBoundSqlString;
+				copied = true;
+			} else {
+				batchSqlString = copySqlString + " WHERE " + lowerBoundSqlString + " AND " +
+						BaseColumns._ID + " <= ?";
+				copyArgs.add( String.valueOf( batchEndId ) );
+			}
+
+			sqLiteDatabase.beginTransaction();
+
+			try {
+				sqLiteDatabase.execSQL( batchSqlString, copyArgs.toArray() );
+				sqLiteDatabase.setTransactionSuccessful();
+			} finally {
+				sqLiteDatabase.endTransaction();
+			}
+
+			lastCopiedId = batchEndId;
+		}
+
+		sqLiteDatabase.execSQL( "DROP TABLE " + migrationTableName );
+	}
+
+	/**
+	 * Creates the indexes, maintained counts, and full-text search table of the given
+	 * {@link Contract}, after dropping the generated triggers, full-text search table, and
+	 * redeclared indexes that may be left over from an older schema.
+	 *
+	 * @param sqLiteDatabase The database to migrate.
+	 * @param contract The {@link Contract} of the table.
+	 */
+	private void createDependents( final SQLiteDatabase sqLiteDatabase,
+			final Contract<?> contract ) {
+		final List<String> sqlStrings = new ArrayList<String>();
+		final Cursor triggerCursor = sqLiteDatabase.rawQuery(
+				"SELECT name FROM sqlite_master WHERE type = 'trigger' AND tbl_name = ?",
+				new String[]{ contract.getTableName() } );
+
+		try {
+			while ( triggerCursor.moveToNext() ) {
+				final String triggerName = triggerCursor.getString( 0 );
+
+				if ( contract.isGeneratedTrigger( triggerName ) ) {
+					sqlStrings.add( "DROP TRIGGER IF EXISTS " + triggerName );
+				}
+			}
+		} finally {
+			triggerCursor.close();
+		}
+
+		final Map<String, String> indexNamesToDefinitions = contract.getIndexDefinitions();
+		final Cursor indexCursor = sqLiteDatabase.rawQuery(
+				"SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND " +
+						"sql IS NOT NULL", new String[]{ contract.getTableName() } );
+
+		try {
+			while ( indexCursor.moveToNext() ) {
+				final String indexName = indexCursor.getString( 0 );
+				final String indexDefinition = indexNamesToDefinitions.get( indexName );
+
+				if ( indexDefinition != null &&
+						!indexDefinition.equals( indexCursor.getString( 1 ) ) ) {
+					sqlStrings.add( "DROP INDEX IF EXISTS " + indexName );
+				}
+			}
+		} finally {
+			indexCursor.close();
+		}
+
+		sqlStrings.addAll( contract.getDropFullTextSqlStrings() );
+		sqlStrings.addAll( contract.getCreateIndexSqlStrings() );
+		sqlStrings.addAll( contract.getCreateMaintainedCountSqlStrings() );
+		sqlStrings.addAll( contract.getCreateFullTextSqlStrings() );
+
+		sqLiteDatabase.beginTransaction();
+
+		try {
+			for ( final String sqlString : sqlStrings ) {
+				sqLiteDatabase.execSQL( sqlString );
+			}
+
+			this.recordFingerprint( sqLiteDatabase, contract );
+
+			sqLiteDatabase.setTransactionSuccessful();
+		} finally {
+			sqLiteDatabase.endTransaction();
+		}
+	}
+
+	/**
+	 * Reads the columns of the given table and their SQL types.
+	 *
+	 * @param sqLiteDatabase The database to look in.
+	 * @param tableName The name of the table.
+	 * @return The SQL type of each column, by column name, which is empty if the table does not
+	 * exist.
+	 */
+	private static Map<String, String> getColumnSqlTypes( final SQLiteDatabase sqLiteDatabase,
+			final String tableName ) {
+		final Map<String, String> columnNamesToSqlTypes = new LinkedHashMap<String, String>();
+		final Cursor cursor = sqLiteDatabase.rawQuery( "PRAGMA table_info( " + tableName + " )",
+				null );
+
+		try {
+			final int nameColumnIndex = cursor.getColumnIndexOrThrow( "name" );
+			final int typeColumnIndex = cursor.getColumnIndexOrThrow( "type" );
+
+			while ( cursor.moveToNext() ) {
+				final String columnName = cursor.getString( nameColumnIndex );
+				final String sqlType = cursor.getString( typeColumnIndex );
+
+				columnNamesToSqlTypes.put( columnName, sqlType );
+			}
+		} finally {
+			cursor.close();
+		}
+
+		return columnNamesToSqlTypes;
+	}
+
+	/**
+	 * Migrates the table of every {@link Contract} whose schema fingerprint has changed since the
+	 * last migration.  This must not be called inside a transaction.
+	 *
+	 * @param sqLiteDatabase The database to migrate.
+	 */
+	public void migrate( final SQLiteDatabase sqLiteDatabase ) {
+		this.createSchemaTable( sqLiteDatabase );
+
+		final Map<String, String> tableNamesToFingerprints = new HashMap<String, String>();
+		final Cursor cursor = sqLiteDatabase.query( SchemaMigrator.SCHEMA_TABLE_NAME,
+				new String[]{ SchemaMigrator.SCHEMA_TABLE_NAME_COLUMN,
+						SchemaMigrator.SCHEMA_FINGERPRINT_COLUMN }, null, null, null, null, null );
+
+		try {
+			while ( cursor.moveToNext() ) {
+				tableNamesToFingerprints.put( cursor.getString( 0 ), cursor.getString( 1 ) );
+			}
+		} finally {
+			cursor.close();
+		}
+
+		for ( final Contract<?> contract : this.contracts ) {
+			final String tableName = contract.getTableName();
+			final String fingerprint = contract.getSchemaFingerprint();
+
+			if ( !fingerprint.equals( tableNamesToFingerprints.get( tableName ) ) ) {
+				Log.i( SchemaMigrator.class.getSimpleName(),
+						"Migrating table '" + tableName + "' to its current schema." );
+
+				this.migrate( sqLiteDatabase, contract );
+			}
+		}
+	}
+
+	/**
+	 * Migrates the table of the given {@link Contract}, and everything created along with it.
+	 *
+	 * @param sqLiteDatabase The database to migrate.
+	 * @param contract The {@link Contract} of the table.
+	 */
+	private void migrate( final SQLiteDatabase sqLiteDatabase, final Contract<?> contract ) {
+		final String tableName = contract.getTableName();
+		final String migrationTableName = tableName + SchemaMigrator.MIGRATION_TABLE_SUFFIX;
+		final Map<String, String> existingColumnNamesToSqlTypes =
+				SchemaMigrator.getColumnSqlTypes( sqLiteDatabase, tableName );
+		final boolean rebuildInProgress =
+				!SchemaMigrator.getColumnSqlTypes( sqLiteDatabase, migrationTableName ).isEmpty();
+
+		if ( rebuildInProgress ) {
+			if ( existingColumnNamesToSqlTypes.isEmpty() ) {
+				sqLiteDatabase.execSQL( contract.getCreateTableSqlString() );
+			}
+
+			this.copyRows( sqLiteDatabase, contract );
+		} else if ( existingColumnNamesToSqlTypes.isEmpty() ) {
+			sqLiteDatabase.execSQL( contract.getCreateTableSqlString() );
+		} else {
+			final Map<String, String> columnNamesToSqlTypes = contract.getColumnSqlTypes();
+			final List<String> newColumnNames = new ArrayList<String>();
+			boolean additive = true;
+
+			for ( final Map.Entry<String, String> entry : existingColumnNamesToSqlTypes
+					.entrySet() ) {
+				final String sqlType = columnNamesToSqlTypes.get( entry.getKey() );
+
+				if ( sqlType == null || !sqlType.equalsIgnoreCase( entry.getValue() ) ) {
+					additive = false;
+				}
+			}
+
+			for ( final String columnName : columnNamesToSqlTypes.keySet() ) {
+				if ( !existingColumnNamesToSqlTypes.containsKey( columnName ) ) {
+					newColumnNames.add( columnName );
+				}
+			}
+
+			if ( additive ) {
+				if ( !newColumnNames.isEmpty() ) {
+					this.addColumns( sqLiteDatabase, contract, newColumnNames );
+				}
+			} else {
+				sqLiteDatabase.beginTransaction();
+
+				try {
+					sqLiteDatabase.execSQL(
+							"ALTER TABLE " + tableName + " RENAME TO " + migrationTableName );
+					sqLiteDatabase.execSQL( contract.getCreateTableSqlString() );
+					sqLiteDatabase.setTransactionSuccessful();
+				} finally {
+					sqLiteDatabase.endTransaction();
+				}
+
+				this.copyRows( sqLiteDatabase, contract );
+			}
+		}
+
+		this.createDependents( sqLiteDatabase, contract );
+	}
+
+	private void createSchemaTable( final SQLiteDatabase sqLiteDatabase ) {
+		sqLiteDatabase.execSQL( "CREATE TABLE IF NOT EXISTS " + SchemaMigrator.SCHEMA_TABLE_NAME +
+				" ( " + SchemaMigrator.SCHEMA_TABLE_NAME_COLUMN + " TEXT PRIMARY KEY, " +
+				SchemaMigrator.SCHEMA_FINGERPRINT_COLUMN + " TEXT )" );
+	}
+
+	private void recordFingerprint( final SQLiteDatabase sqLiteDatabase,
+			final Contract<?> contract ) {
+		sqLiteDatabase.execSQL( "INSERT OR REPLACE INTO " + SchemaMigrator.SCHEMA_TABLE_NAME +
+				" ( " + SchemaMigrator.SCHEMA_TABLE_NAME_COLUMN + ", " +
+				SchemaMigrator.SCHEMA_FINGERPRINT_COLUMN + " ) VALUES ( ?, ? )",
+				new Object[]{ contract.getTableName(), contract.getSchemaFingerprint() } );
+	}
+
+	/**
+	 * Records the schema fingerprint of every {@link Contract}, once their tables and everything
+	 * created along with them have just been created.
+	 *
+	 * @param sqLiteDatabase The database the tables were created in.
+	 */
+	public void recordFingerprints( final SQLiteDatabase sqLiteDatabase ) {
+		this.createSchemaTable( sqLiteDatabase );
+
+		for ( final Contract<?> contract : this.contracts ) {
+			this.recordFingerprint( sqLiteDatabase, contract );
+		}
+	}
+}
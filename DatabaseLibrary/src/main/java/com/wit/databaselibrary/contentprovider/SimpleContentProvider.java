@@ -9,24 +9,45 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.content.OperationApplicationException;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.MatrixCursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.database.sqlite.SQLiteQueryBuilder;
 import android.net.Uri;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.Process;
 import android.provider.BaseColumns;
 import android.support.annotation.CallSuper;
+import android.util.Log;
+import android.util.Pair;
 
 import com.wit.databaselibrary.contentprovider.contract.Contract;
 
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public abstract class SimpleContentProvider extends ContentProvider {
 	private final Set<Contract> contracts;
 	private SimpleDatabaseHelper simpleDatabaseHelper;
+	private FutureTask<SimpleDatabaseHelper> simpleDatabaseHelperFutureTask;
 
 	public SimpleContentProvider( final Set<Contract> contracts ) {
 		this.contracts = contracts;
@@ -49,7 +70,7 @@ public abstract class SimpleContentProvider extends ContentProvider {
 			final ArrayList<ContentProviderOperation> contentProviderOperations )
 			throws OperationApplicationException {
 		final SQLiteDatabase sqLiteDatabase =
-				this.simpleDatabaseHelper.getWritableDatabase();
+				this.getDatabaseHelper().getWritableDatabase();
 
 		sqLiteDatabase.beginTransaction();
 
@@ -73,6 +94,47 @@ public abstract class SimpleContentProvider extends ContentProvider {
 				.toArray( new ContentProviderResult[ contentProviderResults.size() ] );
 	}
 
+	/**
+	 * Starts and ends read transactions for {@link Contract#BEGIN_READ_METHOD} and
+	 * {@link Contract#END_READ_METHOD}.  A read transaction is tied to the calling thread, so it
+	 * is only available to callers in the same process, whose calls run on their own thread.
+	 *
+	 * @param method The method to call.
+	 * @param arg The argument of the method.
+	 * @param extras The extras of the method.
+	 * @return An empty {@link Bundle} for the read transaction methods, or the result of
+	 * {@link ContentProvider#call(String, String, Bundle)} otherwise.
+	 * @throws IllegalStateException A read transaction method was called from another process,
+	 * or no read transaction was started on the calling thread.
+	 */
+	@Override
+	public Bundle call( final String method, final String arg, final Bundle extras )
+			throws IllegalStateException {
+		final boolean readMethod = Contract.BEGIN_READ_METHOD.equals( method ) ||
+				Contract.END_READ_METHOD.equals( method );
+
+		if ( readMethod && Binder.getCallingPid() != Process.myPid() ) {
+			throw new IllegalStateException(
+					"Read transactions are only available in the process of the provider." );
+		}
+
+		final Bundle result;
+
+		if ( Contract.BEGIN_READ_METHOD.equals( method ) ) {
+			this.getDatabaseHelper().beginReadTransaction();
+
+			result = Bundle.EMPTY;
+		} else if ( Contract.END_READ_METHOD.equals( method ) ) {
+			this.getDatabaseHelper().endReadTransaction();
+
+			result = Bundle.EMPTY;
+		} else {
+			result = super.call( method, arg, extras );
+		}
+
+		return result;
+	}
+
 	protected abstract SimpleDatabaseHelper createDatabaseHelper();
 
 	@Override
@@ -81,10 +143,14 @@ public abstract class SimpleContentProvider extends ContentProvider {
 		final String authority = this.getAuthority();
 		final String tableName = this.getTableName( uri, authority );
 		final SQLiteDatabase sqLiteDatabase =
-				this.simpleDatabaseHelper.getWritableDatabase();
+				this.getDatabaseHelper().getWritableDatabase();
 		final int count =
 				sqLiteDatabase.delete( tableName, selection, selectionArgs );
 
+		if ( count > 0 ) {
+			this.notifyChange( uri );
+		}
+
 		return count;
 	}
 
@@ -167,7 +233,7 @@ public abstract class SimpleContentProvider extends ContentProvider {
 	public Uri insert( final Uri uri, ContentValues contentValues ) {
 		final Contract contract = this.getContractByMatchingObject( uri );
 		final SQLiteDatabase sqLiteDatabase =
-				this.simpleDatabaseHelper.getWritableDatabase();
+				this.getDatabaseHelper().getWritableDatabase();
 
 		if ( contentValues == null ) {
 			contentValues = new ContentValues();
@@ -188,10 +254,8 @@ public abstract class SimpleContentProvider extends ContentProvider {
 		if ( rowId > 0 ) {
 			final Uri contentUriWithAppendedId =
 					ContentUris.withAppendedId( uri, rowId );
-			final Context context = this.getContext();
-			final ContentResolver contentResolver = context.getContentResolver();
 
-			contentResolver.notifyChange( contentUriWithAppendedId, null );
+			this.notifyChange( contentUriWithAppendedId );
 
 			return contentUriWithAppendedId;
 		} else {
@@ -199,9 +263,113 @@ public abstract class SimpleContentProvider extends ContentProvider {
 		}
 	}
 
+	/**
+	 * Notifies any registered observers that the data behind the given {@link Uri} has changed.
+	 *
+	 * @param uri The {@link Uri} whose data has changed.
+	 */
+	private void notifyChange( final Uri uri ) {
+		final Context context = this.getContext();
+		final ContentResolver contentResolver = context.getContentResolver();
+
+		contentResolver.notifyChange( uri, null );
+	}
+
+	/**
+	 * Returns the {@link SimpleDatabaseHelper}, waiting for it to be created and for the database
+	 * to be opened if that is still happening in the background.
+	 *
+	 * @return The {@link SimpleDatabaseHelper}.
+	 */
+	private SimpleDatabaseHelper getDatabaseHelper() {
+		final FutureTask<SimpleDatabaseHelper> simpleDatabaseHelperFutureTask;
+
+		synchronized ( this ) {
+			simpleDatabaseHelperFutureTask = this.simpleDatabaseHelperFutureTask;
+		}
+
+		if ( simpleDatabaseHelperFutureTask != null ) {
+			boolean interrupted = false;
+			SimpleDatabaseHelper simpleDatabaseHelper = null;
+
+			while ( simpleDatabaseHelper == null ) {
+				try {
+					simpleDatabaseHelper = simpleDatabaseHelperFutureTask.get();
+				} catch ( final InterruptedException interruptedException ) {
+					interrupted = true;
+				} catch ( final ExecutionException executionException ) {
+					throw new IllegalStateException( "Unable to create the database helper.",
+							executionException.getCause() );
+				}
+			}
+
+			if ( interrupted ) {
+				Thread.currentThread().interrupt();
+			}
+
+			synchronized ( this ) {
+				this.simpleDatabaseHelper = simpleDatabaseHelper;
+				this.simpleDatabaseHelperFutureTask = null;
+			}
+		}
+
+		final SimpleDatabaseHelper simpleDatabaseHelper;
+
+		synchronized ( this ) {
+			simpleDatabaseHelper = this.simpleDatabaseHelper;
+		}
+
+		return simpleDatabaseHelper;
+	}
+
+	/**
+	 * Returns whether the database helper is created, and the database opened, on a background
+	 * thread started by {@link #onCreate()}, so that neither happens on the main thread while the
+	 * application launches.  The first operation on the provider waits for the database to be
+	 * open.
+	 *
+	 * @return Whether the database is opened on a background thread.
+	 */
+	protected boolean isDatabaseOpenedInBackground() {
+		return false;
+	}
+
 	@Override
 	public boolean onCreate() {
-		this.simpleDatabaseHelper = this.createDatabaseHelper();
+		if ( this.isDatabaseOpenedInBackground() ) {
+			final FutureTask<SimpleDatabaseHelper> simpleDatabaseHelperFutureTask =
+					new FutureTask<SimpleDatabaseHelper>( new Callable<SimpleDatabaseHelper>() {
+						@Override
+						public SimpleDatabaseHelper call() {
+							final SimpleDatabaseHelper simpleDatabaseHelper =
+									SimpleContentProvider.this.createDatabaseHelper();
+
+							try {
+								simpleDatabaseHelper.getWritableDatabase();
+							} catch ( final SQLiteException sqLiteException ) {
+								Log.e( SimpleContentProvider.class.getSimpleName(),
+										"Unable to open the database in the background.  It is " +
+												"opened again by the first operation.",
+										sqLiteException );
+							}
+
+							return simpleDatabaseHelper;
+						}
+					} );
+
+			synchronized ( this ) {
+				this.simpleDatabaseHelperFutureTask = simpleDatabaseHelperFutureTask;
+			}
+
+			final Thread thread = new Thread( simpleDatabaseHelperFutureTask,
+					SimpleContentProvider.class.getSimpleName() + "-open" );
+
+			thread.start();
+		} else {
+			synchronized ( this ) {
+				this.simpleDatabaseHelper = this.createDatabaseHelper();
+			}
+		}
 
 		return false;
 	}
@@ -210,11 +378,49 @@ public abstract class SimpleContentProvider extends ContentProvider {
 	public Cursor query( final Uri uri, final String[] projection,
 			final String selection, final String[] selectionArgs,
 			final String sortOrder ) {
+		final CancellationSignal cancellationSignal = null;
+		final Cursor cursor = this.query( uri, projection, selection, selectionArgs, sortOrder,
+				cancellationSignal );
+
+		return cursor;
+	}
+
+	/**
+	 * Runs a query that stops as soon as the given {@link CancellationSignal} is cancelled, which
+	 * also happens when the caller of {@link ContentResolver#query(Uri, String[], String,
+	 * String[], String, CancellationSignal)} cancels its own signal, even from another process.
+	 * SQLite interrupts the statement that is running, so that the connection is released right
+	 * away.  The framework only calls this directly from Jelly Bean onwards, and before that
+	 * {@link #query(Uri, String[], String, String[], String)} calls it without a signal, which
+	 * runs the query through the overloads that take none.
+	 *
+	 * @param uri The {@link Uri} being queried.
+	 * @param projection The columns to return.
+	 * @param selection The selection clause, or {@code null} if there is none.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param sortOrder The sort order, or {@code null} for the default one.
+	 * @param cancellationSignal The {@link CancellationSignal} of the query, or {@code null} if
+	 * it cannot be cancelled.
+	 * @return The {@link Cursor} with the results of the query.
+	 * @throws android.os.OperationCanceledException The query was cancelled.
+	 */
+	@Override
+	public Cursor query( final Uri uri, final String[] projection,
+			final String selection, final String[] selectionArgs,
+			final String sortOrder, final CancellationSignal cancellationSignal ) {
 		final String authority = this.getAuthority();
+		Contract matchingContract = null;
 		Map<String, String> projectionMap = null;
 
+		for ( final Contract<?> contract : this.contracts ) {
+			if ( contract.uriMatchesSearch( uri, authority ) ) {
+				return this.querySearch( uri, contract, selectionArgs, cancellationSignal );
+			}
+		}
+
 		for ( final Contract contract : this.contracts ) {
 			if ( contract.uriMatches( uri, authority ) ) {
+				matchingContract = contract;
 				projectionMap = contract.getProjectionMap();
 			}
 		}
@@ -225,6 +431,12 @@ public abstract class SimpleContentProvider extends ContentProvider {
 					SimpleContentProvider.class.getSimpleName() + " class?" );
 		}
 
+		if ( !matchingContract.uriMatchesObjectId( uri, authority ) &&
+				matchingContract.isMaintainedCount( projection, selection, selectionArgs ) ) {
+			return this.queryMaintainedCount( uri, matchingContract, selection,
+					cancellationSignal );
+		}
+
 		String newSelection;
 
 		if ( selection == null ) {
@@ -239,39 +451,470 @@ public abstract class SimpleContentProvider extends ContentProvider {
 		sqLiteQueryBuilder.setTables( tableName );
 		sqLiteQueryBuilder.setProjectionMap( projectionMap );
 
-		final SQLiteDatabase sqLiteDatabase =
-				this.simpleDatabaseHelper.getReadableDatabase();
-		final Cursor cursor =
-				sqLiteQueryBuilder.query( sqLiteDatabase, projection,
-						newSelection, selectionArgs, null, null, sortOrder );
+		final String groupBy = uri.getQueryParameter( Contract.GROUP_BY_PARAMETER );
+		final String having = uri.getQueryParameter( Contract.HAVING_PARAMETER );
+		final String limitParameter = uri.getQueryParameter( Contract.LIMIT_PARAMETER );
+		final String offsetParameter = uri.getQueryParameter( Contract.OFFSET_PARAMETER );
+		final String limit;
+
+		// SQLiteQueryBuilder takes an offset as "offset,limit".
+		if ( offsetParameter == null ) {
+			limit = limitParameter;
+		} else if ( limitParameter == null ) {
+			limit = offsetParameter + "," + Long.MAX_VALUE;
+		} else {
+			limit = offsetParameter + "," + limitParameter;
+		}
+
+		final SimpleDatabaseHelper simpleDatabaseHelper = this.getDatabaseHelper();
+		final SQLiteDatabase sqLiteDatabase = simpleDatabaseHelper.acquireReadableDatabase();
+		final Cursor cursor;
+
+		try {
+			final Cursor queryCursor;
+
+			if ( Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ) {
+				queryCursor = sqLiteQueryBuilder.query( sqLiteDatabase, projection, newSelection,
+						selectionArgs, groupBy, having, sortOrder, limit, cancellationSignal );
+			} else {
+				queryCursor = sqLiteQueryBuilder.query( sqLiteDatabase, projection, newSelection,
+						selectionArgs, groupBy, having, sortOrder, limit );
+			}
+
+			// Runs the query, so that a failure releases the connection right away.
+			queryCursor.getCount();
+
+			cursor = new PooledConnectionCursor( queryCursor, simpleDatabaseHelper,
+					sqLiteDatabase );
+		} catch ( final RuntimeException runtimeException ) {
+			simpleDatabaseHelper.releaseReadableDatabase( sqLiteDatabase );
+
+			throw runtimeException;
+		}
+
+		cursor.setNotificationUri( this.getContext().getContentResolver(),
+				uri.buildUpon().clearQuery().build() );
+
+		return cursor;
+	}
+
+	/**
+	 * Reads a count that is maintained by database triggers, instead of counting rows.
+	 *
+	 * @param uri The {@link Uri} being queried.
+	 * @param contract The {@link Contract} of the {@link Uri}.
+	 * @param selection The selection clause of the maintained count.
+	 * @param cancellationSignal The {@link CancellationSignal} of the query, or {@code null} if
+	 * it cannot be cancelled.
+	 * @return A {@link Cursor} with a single row holding the count.
+	 * @see Contract#addMaintainedCount(String)
+	 */
+	private Cursor queryMaintainedCount( final Uri uri, final Contract<?> contract,
+			final String selection, final CancellationSignal cancellationSignal ) {
+		final SimpleDatabaseHelper simpleDatabaseHelper = this.getDatabaseHelper();
+		final SQLiteDatabase sqLiteDatabase = simpleDatabaseHelper.acquireReadableDatabase();
+		final Cursor cursor;
+
+		try {
+			final String sql = Contract.getMaintainedCountQuerySqlString();
+			final String[] sqlArgs = contract.getMaintainedCountQueryArgs( selection );
+			final Cursor queryCursor;
+
+			if ( Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ) {
+				queryCursor = sqLiteDatabase.rawQuery( sql, sqlArgs, cancellationSignal );
+			} else {
+				queryCursor = sqLiteDatabase.rawQuery( sql, sqlArgs );
+			}
+
+			queryCursor.getCount();
+
+			cursor = new PooledConnectionCursor( queryCursor, simpleDatabaseHelper,
+					sqLiteDatabase );
+		} catch ( final RuntimeException runtimeException ) {
+			simpleDatabaseHelper.releaseReadableDatabase( sqLiteDatabase );
+
+			throw runtimeException;
+		}
 
 		cursor.setNotificationUri( this.getContext().getContentResolver(), uri );
 
 		return cursor;
 	}
 
+	/**
+	 * Runs a full-text search and ranks the matches.  Each match scores, for every phrase of the
+	 * query and every full-text column, the share of all the hits of the phrase in the column
+	 * that are in the match.
+	 *
+	 * @param uri The search {@link Uri}, with the maximum number of matches to return as its
+	 * {@link Contract#LIMIT_PARAMETER} query parameter.
+	 * @param contract The {@link Contract} of the {@link Uri}.
+	 * @param selectionArgs The full-text query, as the only element.
+	 * @param cancellationSignal The {@link CancellationSignal} of the query, or {@code null} if
+	 * it cannot be cancelled.
+	 * @return A {@link Cursor} with the {@link BaseColumns#_ID} of each match, best match first.
+	 * @throws IllegalArgumentException The full-text query is missing.
+	 */
+	private Cursor querySearch( final Uri uri, final Contract<?> contract,
+			final String[] selectionArgs, final CancellationSignal cancellationSignal )
+			throws IllegalArgumentException {
+		if ( selectionArgs == null || selectionArgs.length != 1 ) {
+			throw new IllegalArgumentException(
+					"A full-text search takes the full-text query as its only selection " +
+							"argument." );
+		}
+
+		final String limitString = uri.getQueryParameter( Contract.LIMIT_PARAMETER );
+		final int limit;
+
+		if ( limitString == null ) {
+			limit = Integer.MAX_VALUE;
+		} else {
+			limit = Integer.parseInt( limitString );
+		}
+
+		final List<Pair<Long, Double>> idsAndScores = new ArrayList<Pair<Long, Double>>();
+		final SQLiteDatabase sqLiteDatabase =
+				this.getDatabaseHelper().acquireReadableDatabase();
+
+		try {
+			final String sql = contract.getSearchSqlString();
+			final Cursor searchCursor;
+
+			if ( Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ) {
+				searchCursor = sqLiteDatabase.rawQuery( sql, selectionArgs, cancellationSignal );
+			} else {
+				searchCursor = sqLiteDatabase.rawQuery( sql, selectionArgs );
+			}
+
+			try {
+				while ( searchCursor.moveToNext() ) {
+					final long id = searchCursor.getLong( 0 );
+					final double score = SimpleContentProvider.score( searchCursor.getBlob( 1 ) );
+
+					idsAndScores.add( Pair.create( id, score ) );
+				}
+			} finally {
+				searchCursor.close();
+			}
+		} finally {
+			this.getDatabaseHelper().releaseReadableDatabase( sqLiteDatabase );
+		}
+
+		Collections.sort( idsAndScores, new Comparator<Pair<Long, Double>>() {
+			@Override
+			public int compare( final Pair<Long, Double> first, final Pair<Long, Double> second ) {
+				return Double.compare( second.second, first.second );
+			}
+		} );
+
+		final MatrixCursor cursor = new MatrixCursor( new String[]{ BaseColumns._ID } );
+
+		for ( int index = 0; index < idsAndScores.size() && index < limit; index++ ) {
+			cursor.addRow( new Object[]{ idsAndScores.get( index ).first } );
+		}
+
+		cursor.setNotificationUri( this.getContext().getContentResolver(),
+				contract.getContentUri( this.getAuthority() ) );
+
+		return cursor;
+	}
+
+	/**
+	 * Scores a full-text match from its {@code matchinfo} in the {@code "pcx"} format.
+	 *
+	 * @param matchInfo The {@code matchinfo} of the match.
+	 * @return The score of the match, where higher is better.
+	 */
+	private static double score( final byte[] matchInfo ) {
+		final IntBuffer matchInfoBuffer =
+				ByteBuffer.wrap( matchInfo ).order( ByteOrder.nativeOrder() ).asIntBuffer();
+		final int phraseCount = matchInfoBuffer.get( 0 );
+		final int columnCount = matchInfoBuffer.get( 1 );
+		double score = 0;
+
+		for ( int phrase = 0; phrase < phraseCount; phrase++ ) {
+			for ( int column = 0; column < columnCount; column++ ) {
+				final int offset = 2 + ( phrase * columnCount + column ) * 3;
+				final int hitsInRow = matchInfoBuffer.get( offset );
+				final int hitsInAllRows = matchInfoBuffer.get( offset + 1 );
+
+				if ( hitsInRow > 0 ) {
+					score += (double) hitsInRow / hitsInAllRows;
+				}
+			}
+		}
+
+		return score;
+	}
+
 	@Override
 	public int update( final Uri uri, final ContentValues contentValues,
 			final String selection, final String[] selectionArgs ) {
 		final SQLiteDatabase sqLiteDatabase =
-				this.simpleDatabaseHelper.getWritableDatabase();
+				this.getDatabaseHelper().getWritableDatabase();
 		final String authority = this.getAuthority();
 		final String tableName = this.getTableName( uri, authority );
 		final int count =
 				sqLiteDatabase.update( tableName, contentValues, selection,
 						selectionArgs );
 
+		if ( count > 0 ) {
+			this.notifyChange( uri );
+		}
+
 		return count;
 	}
 
 	public static class SimpleDatabaseHelper extends SQLiteOpenHelper {
+		private static final long READ_CONNECTION_TIMEOUT_MILLIS = 500;
+
 		private final Set<Contract> contracts;
+		private final File databaseFile;
+		private final int readConnectionPoolSize;
+		private ReadConnectionPool readConnectionPool;
+		private final ThreadLocal<Integer> readTransactionDepths = new ThreadLocal<Integer>();
 
 		public SimpleDatabaseHelper( final Context context, final String name, final int version,
 				final Set<Contract> contracts ) {
+			this( context, name, version, contracts, 0 );
+		}
+
+		/**
+		 * Creates a new {@link SimpleDatabaseHelper} that runs queries on a pool of read-only
+		 * connections, with the database in write-ahead logging mode, so that queries run in
+		 * parallel with each other and with the writer.  The pool is only used on Android 3.0
+		 * and above, where write-ahead logging is available, and for databases that are not
+		 * in-memory.
+		 *
+		 * @param context The {@link Context} used to open or create the database.
+		 * @param name The name of the database file, or {@code null} for an in-memory database.
+		 * @param version The version number of the database.
+		 * @param contracts The {@link Contract}s whose tables are stored in the database.
+		 * @param readConnectionPoolSize The maximum number of read-only connections to open, or 0
+		 * to run queries on the same connection as the writer.
+		 */
+		public SimpleDatabaseHelper( final Context context, final String name, final int version,
+				final Set<Contract> contracts, final int readConnectionPoolSize ) {
 			super( context, name, null, version );
 
 			this.contracts = contracts;
+
+			if ( name == null ) {
+				this.databaseFile = null;
+			} else {
+				this.databaseFile = context.getDatabasePath( name );
+			}
+
+			this.readConnectionPoolSize = readConnectionPoolSize;
+		}
+
+		/**
+		 * Returns a connection to run a query on.  The connection must be handed back through
+		 * {@link #releaseReadableDatabase(SQLiteDatabase)} once the query has been run.  Since
+		 * open cursors hold on to their pooled connections, a query that finds every pooled
+		 * connection still in use after a short wait runs on the connection of the writer
+		 * instead, rather than blocking its thread until a cursor is closed.
+		 *
+		 * @return The connection of the read transaction of the calling thread, if there is one,
+		 * a read-only connection from the pool, if the pool is enabled and one is free in time,
+		 * or the same connection as the writer otherwise.
+		 */
+		public SQLiteDatabase acquireReadableDatabase() {
+			final SQLiteDatabase sqLiteDatabase;
+
+			if ( this.isInReadTransaction() ) {
+				sqLiteDatabase = this.getWritableDatabase();
+			} else if ( this.isReadConnectionPoolEnabled() ) {
+				final ReadConnectionPool readConnectionPool = this.getReadConnectionPool();
+				final SQLiteDatabase pooledSqLiteDatabase = readConnectionPool
+						.acquire( SimpleDatabaseHelper.READ_CONNECTION_TIMEOUT_MILLIS );
+
+				if ( pooledSqLiteDatabase == null ) {
+					sqLiteDatabase = this.getWritableDatabase();
+				} else {
+					sqLiteDatabase = pooledSqLiteDatabase;
+				}
+			} else {
+				sqLiteDatabase = this.getReadableDatabase();
+			}
+
+			return sqLiteDatabase;
+		}
+
+		/**
+		 * Starts a read transaction on the calling thread, or joins the one already started.
+		 * Until it is ended, every query of the calling thread runs on the connection of the
+		 * writer, inside a single transaction that keeps other writers out, so that the queries
+		 * all see the same data, and do not acquire a connection each.  Readers on other
+		 * threads are only left running when {@link #isReadConnectionPoolEnabled()}, since
+		 * their read-only connections see the data as of before the transaction through
+		 * write-ahead logging; otherwise they share the connection of the writer, and wait for
+		 * the transaction to end like writers do.
+		 */
+		public void beginReadTransaction() {
+			final Integer depth = this.readTransactionDepths.get();
+
+			if ( depth == null ) {
+				final SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+
+				if ( Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB ) {
+					sqLiteDatabase.beginTransactionNonExclusive();
+				} else {
+					sqLiteDatabase.beginTransaction();
+				}
+
+				this.readTransactionDepths.set( 1 );
+			} else {
+				this.readTransactionDepths.set( depth + 1 );
+			}
+		}
+
+		@Override
+		public synchronized void close() {
+			super.close();
+
+			if ( this.readConnectionPool != null ) {
+				this.readConnectionPool.close();
+
+				this.readConnectionPool = null;
+			}
+		}
+
+		/**
+		 * Ends the read transaction of the calling thread, once it has been ended as many times
+		 * as it was started.
+		 *
+		 * @throws IllegalStateException No read transaction was started on the calling thread.
+		 */
+		public void endReadTransaction() throws IllegalStateException {
+			final Integer depth = this.readTransactionDepths.get();
+
+			if ( depth == null ) {
+				throw new IllegalStateException(
+						"No read transaction was started on the calling thread." );
+			}
+
+			if ( depth == 1 ) {
+				final SQLiteDatabase sqLiteDatabase = this.getWritableDatabase();
+
+				this.readTransactionDepths.remove();
+
+				// Commits, rather than rolls back, anything a read-through load saved meanwhile.
+				sqLiteDatabase.setTransactionSuccessful();
+				sqLiteDatabase.endTransaction();
+			} else {
+				this.readTransactionDepths.set( depth - 1 );
+			}
+		}
+
+		/**
+		 * Returns the pool of read-only connections, creating it if needed.  The writable
+		 * database is opened first, so that the database file exists, is up-to-date, and is in
+		 * write-ahead logging mode before any read-only connection is opened.
+		 *
+		 * @return The pool of read-only connections.
+		 */
+		private synchronized ReadConnectionPool getReadConnectionPool() {
+			if ( this.readConnectionPool == null ) {
+				this.getWritableDatabase();
+
+				this.readConnectionPool =
+						new ReadConnectionPool( this.databaseFile, this.readConnectionPoolSize );
+			}
+
+			return this.readConnectionPool;
+		}
+
+		private boolean isInReadTransaction() {
+			return this.readTransactionDepths.get() != null;
+		}
+
+		/**
+		 * Returns whether queries are run on a pool of read-only connections.
+		 *
+		 * @return Whether queries are run on a pool of read-only connections.
+		 */
+		public final boolean isReadConnectionPoolEnabled() {
+			return this.readConnectionPoolSize > 0 && this.databaseFile != null &&
+					Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB;
+		}
+
+		/**
+		 * Creates the full-text search tables and the triggers that keep them in sync, and
+		 * rebuilds their indexes.  Contracts whose table does not exist yet are skipped.
+		 *
+		 * @param sqLiteDatabase The database to create the full-text search tables in.
+		 * @see com.wit.databaselibrary.annotation.FullText
+		 */
+		protected final void createFullTextSearch( final SQLiteDatabase sqLiteDatabase ) {
+			for ( final Contract<?> contract : this.contracts ) {
+				if ( SimpleDatabaseHelper.tableExists( sqLiteDatabase, contract.getTableName() ) ) {
+					final List<String> sqlStrings = contract.getCreateFullTextSqlStrings();
+
+					for ( final String sqlString : sqlStrings ) {
+						sqLiteDatabase.execSQL( sqlString );
+					}
+				}
+			}
+		}
+
+		private SchemaMigrator createSchemaMigrator() {
+			final Set<Contract<?>> contracts = new LinkedHashSet<Contract<?>>();
+
+			for ( final Contract<?> contract : this.contracts ) {
+				contracts.add( contract );
+			}
+
+			return new SchemaMigrator( contracts, this.getMigrationBatchSize() );
+		}
+
+		/**
+		 * Creates the declared indexes that do not exist yet.  Contracts whose table does not
+		 * exist yet are skipped.
+		 *
+		 * @param sqLiteDatabase The database to create the indexes in.
+		 * @see com.wit.databaselibrary.annotation.Index
+		 */
+		protected final void createIndexes( final SQLiteDatabase sqLiteDatabase ) {
+			for ( final Contract<?> contract : this.contracts ) {
+				if ( SimpleDatabaseHelper.tableExists( sqLiteDatabase, contract.getTableName() ) ) {
+					final List<String> sqlStrings = contract.getCreateIndexSqlStrings();
+
+					for ( final String sqlString : sqlStrings ) {
+						sqLiteDatabase.execSQL( sqlString );
+					}
+				}
+			}
+		}
+
+		/**
+		 * Creates the triggers of every maintained count, and recounts them.  Contracts whose table
+		 * does not exist yet are skipped.
+		 *
+		 * @param sqLiteDatabase The database to create the maintained counts in.
+		 * @see Contract#addMaintainedCount(String)
+		 */
+		protected final void createMaintainedCounts( final SQLiteDatabase sqLiteDatabase ) {
+			for ( final Contract<?> contract : this.contracts ) {
+				if ( SimpleDatabaseHelper.tableExists( sqLiteDatabase, contract.getTableName() ) ) {
+					final List<String> sqlStrings = contract.getCreateMaintainedCountSqlStrings();
+
+					for ( final String sqlString : sqlStrings ) {
+						sqLiteDatabase.execSQL( sqlString );
+					}
+				}
+			}
+		}
+
+		/**
+		 * Returns the maximum number of rows copied per transaction when a table is rebuilt to
+		 * migrate it to its current schema.
+		 *
+		 * @return The maximum number of rows copied per transaction.
+		 */
+		protected int getMigrationBatchSize() {
+			return 1000;
 		}
 
 		@Override
@@ -280,11 +923,113 @@ public abstract class SimpleContentProvider extends ContentProvider {
 			for ( final Contract contract : this.contracts ) {
 				sqLiteDatabase.execSQL( contract.getCreateTableSqlString() );
 			}
+
+			this.createIndexes( sqLiteDatabase );
+			this.createMaintainedCounts( sqLiteDatabase );
+			this.createFullTextSearch( sqLiteDatabase );
+			this.createSchemaMigrator().recordFingerprints( sqLiteDatabase );
+		}
+
+		/**
+		 * Drops the indexes on the tables of the contracts that are no longer declared, or whose
+		 * declaration has changed.  Indexes created outside of
+		 * {@link com.wit.databaselibrary.annotation.Index} declarations are dropped too, so this
+		 * is not done automatically.  It is meant to be called from
+		 * {@link #onUpgrade(SQLiteDatabase, int, int)}.  The declared indexes are created again
+		 * by the migration in {@link #onOpen(SQLiteDatabase)}.
+		 *
+		 * @param sqLiteDatabase The database to drop the stale indexes from.
+		 */
+		protected final void dropStaleIndexes( final SQLiteDatabase sqLiteDatabase ) {
+			for ( final Contract<?> contract : this.contracts ) {
+				final Map<String, String> indexNamesToDefinitions = contract.getIndexDefinitions();
+				final Cursor cursor = sqLiteDatabase.rawQuery(
+						"SELECT name, sql FROM sqlite_master WHERE type = 'index' AND " +
+								"tbl_name = ? AND sql IS NOT NULL",
+						new String[]{ contract.getTableName() } );
+				final List<String> staleIndexNames = new ArrayList<String>();
+
+				try {
+					while ( cursor.moveToNext() ) {
+						final String indexName = cursor.getString( 0 );
+						final String indexDefinition = cursor.getString( 1 );
+
+						if ( !indexDefinition.equals( indexNamesToDefinitions.get( indexName ) ) ) {
+							staleIndexNames.add( indexName );
+						}
+					}
+				} finally {
+					cursor.close();
+				}
+
+				for ( final String staleIndexName : staleIndexNames ) {
+					sqLiteDatabase.execSQL( "DROP INDEX IF EXISTS " + staleIndexName );
+				}
+			}
+		}
+
+		@Override
+		@CallSuper
+		public void onOpen( final SQLiteDatabase sqLiteDatabase ) {
+			super.onOpen( sqLiteDatabase );
+
+			if ( this.isReadConnectionPoolEnabled() && !sqLiteDatabase.isReadOnly() ) {
+				sqLiteDatabase.enableWriteAheadLogging();
+			}
+
+			if ( !sqLiteDatabase.isReadOnly() ) {
+				this.createSchemaMigrator().migrate( sqLiteDatabase );
+			}
 		}
 
+		/**
+		 * Does nothing by default, since the tables of the contracts are migrated to their
+		 * current schema in {@link #onOpen(SQLiteDatabase)}, outside of the upgrade transaction,
+		 * whether or not the version number changed.  Data migrations that cannot be derived from
+		 * the contracts belong here.
+		 */
 		@Override
 		public void onUpgrade( final SQLiteDatabase sqLiteDatabase, final int oldVersion,
 				final int newVersion ) {
 		}
+
+		/**
+		 * Hands back a connection returned by {@link #acquireReadableDatabase()}, once nothing
+		 * uses it anymore, including the {@link Cursor}s opened on it.  The connection of the
+		 * writer, returned during a read transaction, is not part of the pool and is left open.
+		 *
+		 * @param sqLiteDatabase The connection to hand back.
+		 */
+		public void releaseReadableDatabase( final SQLiteDatabase sqLiteDatabase ) {
+			if ( this.isReadConnectionPoolEnabled() && sqLiteDatabase.isReadOnly() ) {
+				final ReadConnectionPool readConnectionPool;
+
+				synchronized ( this ) {
+					readConnectionPool = this.readConnectionPool;
+				}
+
+				if ( readConnectionPool == null ) {
+					sqLiteDatabase.close();
+				} else {
+					readConnectionPool.release( sqLiteDatabase );
+				}
+			}
+		}
+
+		/**
+		 * Returns whether the given table exists.
+		 *
+		 * @param sqLiteDatabase The database to look in.
+		 * @param tableName The name of the table.
+		 * @return Whether the given table exists.
+		 */
+		private static boolean tableExists( final SQLiteDatabase sqLiteDatabase,
+				final String tableName ) {
+			final long tableCount = DatabaseUtils.longForQuery( sqLiteDatabase,
+					"SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?",
+					new String[]{ tableName } );
+
+			return tableCount > 0;
+		}
 	}
 }
\ No newline at end of file
@@ -2,20 +2,36 @@ package com.wit.databaselibrary.contentprovider.contract;
 
 import android.content.ContentResolver;
 import android.content.UriMatcher;
+import android.database.DatabaseUtils;
 import android.net.Uri;
 import android.provider.BaseColumns;
+import android.text.TextUtils;
+import android.util.Pair;
 
 import com.wit.databaselibrary.annotation.Column;
+import com.wit.databaselibrary.annotation.Compressed;
+import com.wit.databaselibrary.annotation.FullText;
+import com.wit.databaselibrary.annotation.Index;
 import com.wit.databaselibrary.annotation.Table;
 import com.wit.databaselibrary.model.ColumnType;
 import com.wit.databaselibrary.model.DatabaseObject;
+import com.wit.databaselibrary.model.Order;
+import com.wit.databaselibrary.model.Storage;
 
+import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public abstract class Contract<T extends DatabaseObject> {
 	public static abstract class Columns implements BaseColumns {
@@ -25,6 +41,64 @@ public abstract class Contract<T extends DatabaseObject> {
 		public static final String VERSION = "version";
 	}
 
+	/**
+	 * The projection used to count objects.  A count with this projection, a maintained
+	 * selection clause, and no selection arguments is answered from the counters table.
+	 *
+	 * @see #addMaintainedCount(String)
+	 */
+	public static final String COUNT_PROJECTION = "count(*) AS " + BaseColumns._COUNT;
+
+	/**
+	 * The name of the table holding the maintained counts of every {@link Contract}.
+	 */
+	public static final String COUNTERS_TABLE_NAME = "database_library_counters";
+	private static final String COUNTERS_TABLE_NAME_COLUMN = "table_name";
+	private static final String COUNTERS_SELECTION_COLUMN = "selection";
+	private static final String COUNTERS_COUNT_COLUMN = "count";
+
+	/**
+	 * The name of the query parameter holding the maximum number of rows to return.
+	 */
+	public static final String LIMIT_PARAMETER = "limit";
+
+	/**
+	 * The name of the query parameter holding the number of rows to skip before returning rows.
+	 */
+	public static final String OFFSET_PARAMETER = "offset";
+
+	/**
+	 * The name of the query parameter holding the GROUP BY clause of a query, excluding the
+	 * GROUP BY itself.
+	 */
+	public static final String GROUP_BY_PARAMETER = "groupBy";
+
+	/**
+	 * The name of the query parameter holding the HAVING clause of a grouped query, excluding the
+	 * HAVING itself.  Its placeholders are bound after those of the selection clause.
+	 */
+	public static final String HAVING_PARAMETER = "having";
+
+	/**
+	 * The method passed to {@link android.content.ContentResolver#call(android.net.Uri, String,
+	 * String, android.os.Bundle)} to start a read transaction on the calling thread, in which
+	 * every query sees the same snapshot of the database until it is ended with
+	 * {@link #END_READ_METHOD}.
+	 */
+	public static final String BEGIN_READ_METHOD = "beginRead";
+
+	/**
+	 * The method passed to {@link android.content.ContentResolver#call(android.net.Uri, String,
+	 * String, android.os.Bundle)} to end the read transaction started on the calling thread with
+	 * {@link #BEGIN_READ_METHOD}.
+	 */
+	public static final String END_READ_METHOD = "endRead";
+
+	/**
+	 * The last path segment of the full-text search URI of a {@link Contract}.
+	 */
+	private static final String SEARCH_PATH_SEGMENT = "search";
+
 	private static List<Field> getAllFields( final Class<?> clazz ) {
 		final List<Field> fields = new ArrayList<>( Arrays.asList( clazz.getDeclaredFields() ) );
 		final Class<?> superclass = clazz.getSuperclass();
@@ -41,19 +115,52 @@ public abstract class Contract<T extends DatabaseObject> {
 	private final UriMatcher uriMatcher = new UriMatcher( UriMatcher.NO_MATCH );
 	private final int objectCode = 1;
 	private final int objectIdCode = 2;
+	private final int searchCode = 3;
 	private final Map<String, String> projectionMap = new HashMap<String, String>();
 	private final List<String> columnNames = new ArrayList<String>();
+	private final List<String> defaultColumnNames = new ArrayList<String>();
 	private final Class<T> databaseObjectClass;
-	private final String createTableSqlString;
+	private String createTableSqlString;
+	private Map<String, String> indexNamesToDefinitions;
+	private final List<String> fullTextColumnNames = new ArrayList<String>();
+	private final List<String> externalColumnNames = new ArrayList<String>();
+	private final Set<String> maintainedCountSelectionClauses = new LinkedHashSet<String>();
 	private boolean uriMatcherPrepared = false;
+	private boolean metadataPrepared = false;
 
+	/**
+	 * Creates a new {@link Contract}.  The metadata of the {@link DatabaseObject} class, such as
+	 * its columns and the SQL needed to create its table, is read through reflection the first
+	 * time it is needed rather than here, so that creating a {@link Contract} is cheap enough to
+	 * be done while the application launches.
+	 *
+	 * @param databaseObjectClass The {@link DatabaseObject} class described by this
+	 * {@link Contract}.
+	 */
 	public Contract( final Class<T> databaseObjectClass ) {
 		this.databaseObjectClass = databaseObjectClass;
+	}
+
+	/**
+	 * Declares a count that is kept up-to-date by database triggers, so that
+	 * {@code Manager.getCount} with exactly the same selection clause, and no selection
+	 * arguments, reads a single stored number instead of counting rows.  This must be called from
+	 * the constructor of the {@link Contract}.  The triggers and stored counts are created when
+	 * the database is created or upgraded.
+	 *
+	 * @param selectionClause The selection clause of the count, or {@code null} to count all
+	 * objects.  It may only refer to the columns of the table and must not contain placeholders.
+	 */
+	protected final void addMaintainedCount( final String selectionClause ) {
+		final String maintainedCountSelectionClause;
 
-		this.setupProjectionMap();
-		this.setupColumnNameList();
+		if ( selectionClause == null ) {
+			maintainedCountSelectionClause = "";
+		} else {
+			maintainedCountSelectionClause = selectionClause;
+		}
 
-		this.createTableSqlString = this.generateCreateTableSqlString();
+		this.maintainedCountSelectionClauses.add( maintainedCountSelectionClause );
 	}
 
 	public final String addSelectionById( final Uri uri, final String existingSelection ) {
@@ -97,29 +204,7 @@ public abstract class Contract<T extends DatabaseObject> {
 				createSqlStringBuilder.append( columnName );
 				createSqlStringBuilder.append( " " );
 
-				final String columnTypeString;
-
-				switch ( columnType ) {
-					case DATE:
-						columnTypeString = "INTEGER";
-
-						break;
-					case INTEGER:
-						columnTypeString = "INTEGER";
-
-						break;
-					case LONG:
-						columnTypeString = "INTEGER";
-
-						break;
-					case STRING:
-						columnTypeString = "TEXT";
-
-						break;
-					default:
-						throw new IllegalArgumentException( "Found unknown " +
-								"column type '" + columnType + "'." );
-				}
+				final String columnTypeString = Contract.getSqlType( columnType );
 
 				createSqlStringBuilder.append( columnTypeString );
 
@@ -145,10 +230,228 @@ public abstract class Contract<T extends DatabaseObject> {
 		return createSqlString;
 	}
 
+	/**
+	 * Generates the body of a trigger that adds to or subtracts from a maintained count, depending
+	 * on whether the given row satisfies the selection clause of the count.
+	 *
+	 * @param selectionClause The selection clause of the maintained count.
+	 * @param operator Either {@code "+"} or {@code "-"}.
+	 * @param row Either {@code "NEW"} or {@code "OLD"}.
+	 * @return The body of the trigger.
+	 */
+	private String generateCountTriggerBody( final String selectionClause, final String operator,
+			final String row ) {
+		final String tableName = this.getTableName();
+		final String predicate;
+
+		if ( selectionClause.isEmpty() ) {
+			predicate = "1";
+		} else {
+			predicate = selectionClause;
+		}
+
+		final String countTriggerBody = "BEGIN UPDATE " + Contract.COUNTERS_TABLE_NAME + " SET " +
+				Contract.COUNTERS_COUNT_COLUMN + " = " + Contract.COUNTERS_COUNT_COLUMN + " " +
+				operator + " (SELECT COUNT(*) FROM " + tableName + " WHERE " + BaseColumns._ID +
+				" = " + row + "." + BaseColumns._ID + " AND (" + predicate + ")) WHERE " +
+				Contract.COUNTERS_TABLE_NAME_COLUMN + " = " +
+				DatabaseUtils.sqlEscapeString( tableName ) + " AND " +
+				Contract.COUNTERS_SELECTION_COLUMN + " = " +
+				DatabaseUtils.sqlEscapeString( selectionClause ) + "; END";
+
+		return countTriggerBody;
+	}
+
+	/**
+	 * Generates the SQL definition of the given index, as SQLite stores it.
+	 *
+	 * @param index The {@link Index} to generate the definition of.
+	 * @param indexName The name of the index.
+	 * @param columnNames The indexed columns.
+	 * @return The SQL definition of the index.
+	 * @throws IllegalArgumentException The index refers to an unknown column, or has a different
+	 * number of orders than columns.
+	 */
+	private String generateIndexDefinition( final Index index, final String indexName,
+			final String[] columnNames ) throws IllegalArgumentException {
+		final Order[] orders = index.orders();
+
+		if ( orders.length != 0 && orders.length != columnNames.length ) {
+			throw new IllegalArgumentException( "Index '" + indexName + "' has '" +
+					orders.length + "' orders for '" + columnNames.length + "' columns." );
+		}
+
+		final StringBuilder indexDefinitionBuilder = new StringBuilder();
+
+		indexDefinitionBuilder.append( "CREATE " );
+
+		if ( index.unique() ) {
+			indexDefinitionBuilder.append( "UNIQUE " );
+		}
+
+		indexDefinitionBuilder.append( "INDEX " );
+		indexDefinitionBuilder.append( indexName );
+		indexDefinitionBuilder.append( " ON " );
+		indexDefinitionBuilder.append( this.getTableName() );
+		indexDefinitionBuilder.append( " ( " );
+
+		for ( int columnIndex = 0; columnIndex < columnNames.length; columnIndex++ ) {
+			final String columnName = columnNames[ columnIndex ];
+
+			if ( !this.projectionMap.containsKey( columnName ) ) {
+				throw new IllegalArgumentException( "Index '" + indexName +
+						"' refers to unknown column '" + columnName + "'." );
+			}
+
+			if ( columnIndex > 0 ) {
+				indexDefinitionBuilder.append( ", " );
+			}
+
+			indexDefinitionBuilder.append( columnName );
+
+			if ( orders.length != 0 ) {
+				indexDefinitionBuilder.append( " " );
+				indexDefinitionBuilder.append( orders[ columnIndex ].getKeyword() );
+			}
+		}
+
+		indexDefinitionBuilder.append( " )" );
+
+		final String where = index.where();
+
+		if ( !where.isEmpty() ) {
+			indexDefinitionBuilder.append( " WHERE " );
+			indexDefinitionBuilder.append( where );
+		}
+
+		final String indexDefinition = indexDefinitionBuilder.toString();
+
+		return indexDefinition;
+	}
+
+	/**
+	 * Generates the SQL definitions of the indexes declared with {@link Index} annotations, on
+	 * fields and in {@link Table#indexes()}.
+	 *
+	 * @return The SQL definitions of the indexes, by index name.
+	 * @throws IllegalArgumentException An index is invalid, or two indexes have the same name.
+	 */
+	private Map<String, String> generateIndexDefinitions() throws IllegalArgumentException {
+		final Map<String, String> indexNamesToDefinitions = new LinkedHashMap<String, String>();
+		final List<Pair<Index, String[]>> indexesAndColumnNames =
+				new ArrayList<Pair<Index, String[]>>();
+		final List<Field> declaredFields = Contract.getAllFields( this.databaseObjectClass );
+
+		for ( final Field declaredField : declaredFields ) {
+			final Column columnAnnotation = declaredField.getAnnotation( Column.class );
+			final Index indexAnnotation = declaredField.getAnnotation( Index.class );
+
+			if ( columnAnnotation != null && indexAnnotation != null ) {
+				final String[] columnNames;
+
+				if ( indexAnnotation.columnNames().length == 0 ) {
+					columnNames = new String[]{ columnAnnotation.columnName() };
+				} else {
+					columnNames = indexAnnotation.columnNames();
+				}
+
+				indexesAndColumnNames.add( Pair.create( indexAnnotation, columnNames ) );
+			}
+		}
+
+		final Table tableAnnotation = this.databaseObjectClass.getAnnotation( Table.class );
+
+		for ( final Index indexAnnotation : tableAnnotation.indexes() ) {
+			final String[] columnNames = indexAnnotation.columnNames();
+
+			indexesAndColumnNames.add( Pair.create( indexAnnotation, columnNames ) );
+		}
+
+		for ( final Pair<Index, String[]> indexAndColumnNames : indexesAndColumnNames ) {
+			final Index index = indexAndColumnNames.first;
+			final String[] columnNames = indexAndColumnNames.second;
+			final String indexName;
+
+			if ( columnNames.length == 0 ) {
+				throw new IllegalArgumentException( "Found an index on table '" +
+						this.getTableName() + "' without any columns." );
+			} else if ( index.name().isEmpty() ) {
+				indexName = this.getTableName() + "_" + TextUtils.join( "_", columnNames ) +
+						"_index";
+			} else {
+				indexName = index.name();
+			}
+
+			if ( indexNamesToDefinitions.containsKey( indexName ) ) {
+				throw new IllegalArgumentException( "Found more than one index named '" +
+						indexName + "'.  Give each of them a different name." );
+			}
+
+			indexNamesToDefinitions
+					.put( indexName, this.generateIndexDefinition( index, indexName, columnNames ) );
+		}
+
+		return indexNamesToDefinitions;
+	}
+
+	/**
+	 * Generates a trigger that keeps the full-text search table in sync with the table.
+	 *
+	 * @param suffix The suffix of the name of the trigger.
+	 * @param timeAndEvent When the trigger runs, such as {@code "AFTER INSERT"}.
+	 * @param row Either {@code "NEW"}, to index the row, or {@code "OLD"}, to unindex it.
+	 * @return The SQL statement that creates the trigger.
+	 */
+	private String generateFullTextTriggerSqlString( final String suffix,
+			final String timeAndEvent, final String row ) {
+		final String tableName = this.getTableName();
+		final String fullTextTableName = this.getFullTextTableName();
+		final StringBuilder sqlStringBuilder = new StringBuilder();
+
+		sqlStringBuilder.append( "CREATE TRIGGER " + fullTextTableName + suffix + " " +
+				timeAndEvent + " ON " + tableName + " BEGIN " );
+
+		if ( row.equals( "OLD" ) ) {
+			sqlStringBuilder.append( "DELETE FROM " + fullTextTableName + " WHERE docid = OLD." +
+					BaseColumns._ID );
+		} else {
+			sqlStringBuilder.append( "INSERT INTO " + fullTextTableName + " ( docid, " +
+					TextUtils.join( ", ", this.fullTextColumnNames ) + " ) VALUES ( NEW." +
+					BaseColumns._ID );
+
+			for ( final String fullTextColumnName : this.fullTextColumnNames ) {
+				sqlStringBuilder.append( ", NEW." + fullTextColumnName );
+			}
+
+			sqlStringBuilder.append( " )" );
+		}
+
+		sqlStringBuilder.append( "; END" );
+
+		final String sqlString = sqlStringBuilder.toString();
+
+		return sqlString;
+	}
+
 	public final List<String> getColumnNames() {
+		this.prepareMetadata();
+
 		return this.columnNames;
 	}
 
+	/**
+	 * Returns the names of the columns that are loaded by default, which are all of the columns
+	 * except the deferred ones.
+	 *
+	 * @return The names of the columns that are loaded by default.
+	 * @see Column#deferred()
+	 */
+	public final List<String> getDefaultColumnNames() {
+		this.prepareMetadata();
+
+		return this.defaultColumnNames;
+	}
+
 	public final String getContentType() {
 		final String tableName = this.getTableName();
 		final String contentType = ContentResolver.CURSOR_DIR_BASE_TYPE +
@@ -172,6 +475,63 @@ public abstract class Contract<T extends DatabaseObject> {
 		return contentUri;
 	}
 
+	/**
+	 * Returns the content URI to query to group the rows by the given columns.
+	 *
+	 * @param authority The authority string to use in the content URI.
+	 * @param groupByColumns The columns to group by, or an empty list to not group the rows.
+	 * @param havingClause The HAVING clause, excluding the HAVING itself, or {@code null} if
+	 * there is none.
+	 * @return The content URI to query to group the rows by the given columns.
+	 */
+	public Uri getContentUri( final String authority, final List<String> groupByColumns,
+			final String havingClause ) {
+		final Integer limit = null;
+		final Integer offset = null;
+		final Uri contentUri =
+				this.getContentUri( authority, groupByColumns, havingClause, limit, offset );
+
+		return contentUri;
+	}
+
+	/**
+	 * Returns the content URI to query to group the rows by the given columns, and to return a
+	 * window of the rows.
+	 *
+	 * @param authority The authority string to use in the content URI.
+	 * @param groupByColumns The columns to group by, or an empty list to not group the rows.
+	 * @param havingClause The HAVING clause, excluding the HAVING itself, or {@code null} if
+	 * there is none.
+	 * @param limit The maximum number of rows to return, or {@code null} if there is none.
+	 * @param offset The number of rows to skip, or {@code null} to not skip any.
+	 * @return The content URI to query.
+	 */
+	public Uri getContentUri( final String authority, final List<String> groupByColumns,
+			final String havingClause, final Integer limit, final Integer offset ) {
+		final Uri.Builder contentUriBuilder = this.getContentUri( authority ).buildUpon();
+
+		if ( limit != null ) {
+			contentUriBuilder.appendQueryParameter( Contract.LIMIT_PARAMETER,
+					String.valueOf( limit ) );
+		}
+
+		if ( offset != null ) {
+			contentUriBuilder.appendQueryParameter( Contract.OFFSET_PARAMETER,
+					String.valueOf( offset ) );
+		}
+
+		if ( !groupByColumns.isEmpty() ) {
+			contentUriBuilder.appendQueryParameter( Contract.GROUP_BY_PARAMETER,
+					TextUtils.join( ", ", groupByColumns ) );
+
+			if ( havingClause != null ) {
+				contentUriBuilder.appendQueryParameter( Contract.HAVING_PARAMETER, havingClause );
+			}
+		}
+
+		return contentUriBuilder.build();
+	}
+
 	public Uri getContentUri( final String authority, final long id ) {
 		final String contentUriString = this.getContentUriString( authority );
 		final Uri contentUri = Uri.parse( contentUriString + "/" + id );
@@ -201,9 +561,154 @@ public abstract class Contract<T extends DatabaseObject> {
 	 * DatabaseObject} associated with this {@link Contract}.
 	 */
 	public final String getCreateTableSqlString() {
+		this.prepareMetadata();
+
 		return this.createTableSqlString;
 	}
 
+	/**
+	 * Returns the SQL type of each column, as it appears in the CREATE TABLE statement.
+	 *
+	 * @return The SQL type of each column, by column name, in the order of the CREATE TABLE
+	 * statement.
+	 */
+	public final Map<String, String> getColumnSqlTypes() {
+		final Map<String, String> columnNamesToSqlTypes = new LinkedHashMap<String, String>();
+		final List<Field> declaredFields = Contract.getAllFields( this.databaseObjectClass );
+
+		for ( final Field declaredField : declaredFields ) {
+			final Column columnAnnotation = declaredField.getAnnotation( Column.class );
+
+			if ( columnAnnotation != null ) {
+				final String columnName = columnAnnotation.columnName();
+				final ColumnType columnType = columnAnnotation.columnType();
+
+				columnNamesToSqlTypes.put( columnName, Contract.getSqlType( columnType ) );
+			}
+		}
+
+		return columnNamesToSqlTypes;
+	}
+
+	/**
+	 * Returns the SQL statements needed to create the full-text search table of the
+	 * {@link FullText} columns and the triggers that keep it in sync, and to rebuild its index.
+	 * The statements can be run again on an existing database, as long as the table of this
+	 * {@link Contract} exists.
+	 *
+	 * @return The SQL statements needed to create the full-text search table, which are empty if
+	 * there are no {@link FullText} columns.
+	 */
+	public final List<String> getCreateFullTextSqlStrings() {
+		this.prepareMetadata();
+
+		final List<String> sqlStrings = new ArrayList<String>();
+
+		if ( this.hasFullTextColumns() ) {
+			final String tableName = this.getTableName();
+			final String fullTextTableName = this.getFullTextTableName();
+			final String[][] triggers = new String[][]{
+					{ "_before_update", "BEFORE UPDATE", "OLD" },
+					{ "_before_delete", "BEFORE DELETE", "OLD" },
+					{ "_after_update", "AFTER UPDATE", "NEW" },
+					{ "_after_insert", "AFTER INSERT", "NEW" } };
+
+			sqlStrings.add( "CREATE VIRTUAL TABLE IF NOT EXISTS " + fullTextTableName +
+					" USING fts4 ( content=\"" + tableName + "\", " +
+					TextUtils.join( ", ", this.fullTextColumnNames ) + " )" );
+
+			for ( final String[] trigger : triggers ) {
+				sqlStrings.add( "DROP TRIGGER IF EXISTS " + fullTextTableName + trigger[ 0 ] );
+				sqlStrings.add( this.generateFullTextTriggerSqlString( trigger[ 0 ], trigger[ 1 ],
+						trigger[ 2 ] ) );
+			}
+
+			sqlStrings.add( "INSERT INTO " + fullTextTableName + " ( " + fullTextTableName +
+					" ) VALUES ( 'rebuild' )" );
+		}
+
+		return sqlStrings;
+	}
+
+	/**
+	 * Returns the SQL statements needed to create the declared indexes that do not exist yet.
+	 *
+	 * @return The SQL statements needed to create the declared indexes.
+	 * @see Index
+	 */
+	public final List<String> getCreateIndexSqlStrings() {
+		this.prepareMetadata();
+
+		final List<String> createIndexSqlStrings = new ArrayList<String>();
+
+		for ( final String indexDefinition : this.indexNamesToDefinitions.values() ) {
+			createIndexSqlStrings
+					.add( indexDefinition.replaceFirst( " INDEX ", " INDEX IF NOT EXISTS " ) );
+		}
+
+		return createIndexSqlStrings;
+	}
+
+	/**
+	 * Returns the SQL statements needed to create the triggers and stored counts declared through
+	 * {@link #addMaintainedCount(String)}, recounting every maintained count.  The statements can
+	 * be run again on an existing database, as long as the table of this {@link Contract}
+	 * exists.
+	 *
+	 * @return The SQL statements needed to create the triggers and stored counts, which are
+	 * empty if no count is maintained.
+	 */
+	public final List<String> getCreateMaintainedCountSqlStrings() {
+		final List<String> sqlStrings = new ArrayList<String>();
+		final String tableName = this.getTableName();
+
+		if ( !this.maintainedCountSelectionClauses.isEmpty() ) {
+			sqlStrings.add( "CREATE TABLE IF NOT EXISTS " + Contract.COUNTERS_TABLE_NAME + " ( " +
+					Contract.COUNTERS_TABLE_NAME_COLUMN + " TEXT, " +
+					Contract.COUNTERS_SELECTION_COLUMN + " TEXT, " +
+					Contract.COUNTERS_COUNT_COLUMN + " INTEGER, PRIMARY KEY ( " +
+					Contract.COUNTERS_TABLE_NAME_COLUMN + ", " +
+					Contract.COUNTERS_SELECTION_COLUMN + " ) )" );
+		}
+
+		for ( final String selectionClause : this.maintainedCountSelectionClauses ) {
+			final String triggerNamePrefix =
+					tableName + "_count_" + Integer.toHexString( selectionClause.hashCode() );
+			final String predicate;
+
+			if ( selectionClause.isEmpty() ) {
+				predicate = "1";
+			} else {
+				predicate = selectionClause;
+			}
+
+			sqlStrings.add( "INSERT OR REPLACE INTO " + Contract.COUNTERS_TABLE_NAME + " ( " +
+					Contract.COUNTERS_TABLE_NAME_COLUMN + ", " +
+					Contract.COUNTERS_SELECTION_COLUMN + ", " + Contract.COUNTERS_COUNT_COLUMN +
+					" ) SELECT " + DatabaseUtils.sqlEscapeString( tableName ) + ", " +
+					DatabaseUtils.sqlEscapeString( selectionClause ) + ", COUNT(*) FROM " +
+					tableName + " WHERE " + predicate );
+
+			final String[][] triggers = new String[][]{
+					{ "_insert", "AFTER INSERT", "+", "NEW" },
+					{ "_delete", "BEFORE DELETE", "-", "OLD" },
+					{ "_update_old", "BEFORE UPDATE", "-", "OLD" },
+					{ "_update_new", "AFTER UPDATE", "+", "NEW" } };
+
+			for ( final String[] trigger : triggers ) {
+				final String triggerName = triggerNamePrefix + trigger[ 0 ];
+
+				sqlStrings.add( "DROP TRIGGER IF EXISTS " + triggerName );
+				sqlStrings.add( "CREATE TRIGGER " + triggerName + " " + trigger[ 1 ] + " ON " +
+						tableName + " " +
+						this.generateCountTriggerBody( selectionClause, trigger[ 2 ],
+								trigger[ 3 ] ) );
+			}
+		}
+
+		return sqlStrings;
+	}
+
 	/**
 	 * Extracts the ID from the given {@link Uri}.
 	 *
@@ -228,10 +733,240 @@ public abstract class Contract<T extends DatabaseObject> {
 		return id;
 	}
 
+	/**
+	 * Returns the SQL statements needed to drop the full-text search table and the triggers that
+	 * keep it in sync, whether or not there are {@link FullText} columns.
+	 *
+	 * @return The SQL statements needed to drop the full-text search table.
+	 */
+	public final List<String> getDropFullTextSqlStrings() {
+		final List<String> sqlStrings = new ArrayList<String>();
+		final String fullTextTableName = this.getFullTextTableName();
+
+		for ( final String suffix : new String[]{ "_before_update", "_before_delete",
+				"_after_update", "_after_insert" } ) {
+			sqlStrings.add( "DROP TRIGGER IF EXISTS " + fullTextTableName + suffix );
+		}
+
+		sqlStrings.add( "DROP TABLE IF EXISTS " + fullTextTableName );
+
+		return sqlStrings;
+	}
+
+	/**
+	 * Returns the names of the columns whose values are kept outside of the row.
+	 *
+	 * @return The names of the {@link Storage#EXTERNAL} columns.
+	 */
+	public final List<String> getExternalColumnNames() {
+		this.prepareMetadata();
+
+		return Collections.unmodifiableList( this.externalColumnNames );
+	}
+
+	private String getFullTextTableName() {
+		return this.getTableName() + "_fts";
+	}
+
+	/**
+	 * Returns the SQL definitions of the declared indexes, as SQLite stores them in
+	 * {@code sqlite_master}, by index name.
+	 *
+	 * @return The SQL definitions of the declared indexes, by index name.
+	 * @see Index
+	 */
+	public final Map<String, String> getIndexDefinitions() {
+		this.prepareMetadata();
+
+		return Collections.unmodifiableMap( this.indexNamesToDefinitions );
+	}
+
+	/**
+	 * Returns the SQL query that reads a maintained count, with the table name and selection
+	 * clause of the count as its two arguments.
+	 *
+	 * @return The SQL query that reads a maintained count.
+	 * @see #getMaintainedCountQueryArgs(String)
+	 */
+	public static String getMaintainedCountQuerySqlString() {
+		return "SELECT " + Contract.COUNTERS_COUNT_COLUMN + " AS " + BaseColumns._COUNT +
+				" FROM " + Contract.COUNTERS_TABLE_NAME + " WHERE " +
+				Contract.COUNTERS_TABLE_NAME_COLUMN + " = ? AND " +
+				Contract.COUNTERS_SELECTION_COLUMN + " = ?";
+	}
+
+	/**
+	 * Returns the arguments of {@link #getMaintainedCountQuerySqlString()} for the maintained
+	 * count with the given selection clause.
+	 *
+	 * @param selectionClause The selection clause of the maintained count, or {@code null} for
+	 * the count of all objects.
+	 * @return The arguments of {@link #getMaintainedCountQuerySqlString()}.
+	 */
+	public final String[] getMaintainedCountQueryArgs( final String selectionClause ) {
+		final String maintainedCountSelectionClause;
+
+		if ( selectionClause == null ) {
+			maintainedCountSelectionClause = "";
+		} else {
+			maintainedCountSelectionClause = selectionClause;
+		}
+
+		return new String[]{ this.getTableName(), maintainedCountSelectionClause };
+	}
+
+	/**
+	 * Returns the URI to query to run a full-text search over the {@link FullText} columns.  The
+	 * full-text query is passed in as the only selection argument, and the matching IDs are
+	 * returned best match first.
+	 *
+	 * @param authority The authority string to use in the URI.
+	 * @param limit The maximum number of IDs to return.
+	 * @return The URI to query to run a full-text search.
+	 */
+	public Uri getSearchUri( final String authority, final int limit ) {
+		final String contentUriString = this.getContentUriString( authority );
+		final Uri searchUri = Uri.parse( contentUriString + "/" + Contract.SEARCH_PATH_SEGMENT )
+				.buildUpon()
+				.appendQueryParameter( Contract.LIMIT_PARAMETER, String.valueOf( limit ) )
+				.build();
+
+		return searchUri;
+	}
+
+	/**
+	 * Returns the SQL query that runs a full-text search, with the full-text query as its only
+	 * argument.  Each row holds the ID of a match and its {@code matchinfo} in the
+	 * {@code "pcx"} format, for ranking.
+	 *
+	 * @return The SQL query that runs a full-text search.
+	 * @throws IllegalStateException There are no {@link FullText} columns.
+	 */
+	public final String getSearchSqlString() throws IllegalStateException {
+		if ( !this.hasFullTextColumns() ) {
+			throw new IllegalStateException( "Table '" + this.getTableName() +
+					"' does not have any full-text columns." );
+		}
+
+		final String fullTextTableName = this.getFullTextTableName();
+		final String searchSqlString = "SELECT docid AS " + BaseColumns._ID + ", matchinfo( " +
+				fullTextTableName + ", 'pcx' ) FROM " + fullTextTableName + " WHERE " +
+				fullTextTableName + " MATCH ?";
+
+		return searchSqlString;
+	}
+
+	/**
+	 * Returns a fingerprint of everything this {@link Contract} creates in the database: the
+	 * table, its indexes, its full-text search table, and its maintained counts.  It changes
+	 * whenever any of them is declared differently.
+	 *
+	 * @return A fingerprint of the schema of this {@link Contract}.
+	 */
+	public final String getSchemaFingerprint() {
+		this.prepareMetadata();
+
+		final StringBuilder schemaBuilder = new StringBuilder();
+
+		schemaBuilder.append( this.getCreateTableSqlString() );
+
+		for ( final String indexDefinition : this.indexNamesToDefinitions.values() ) {
+			schemaBuilder.append( '\n' );
+			schemaBuilder.append( indexDefinition );
+		}
+
+		for ( final String sqlString : this.getCreateFullTextSqlStrings() ) {
+			schemaBuilder.append( '\n' );
+			schemaBuilder.append( sqlString );
+		}
+
+		for ( final String sqlString : this.getCreateMaintainedCountSqlStrings() ) {
+			schemaBuilder.append( '\n' );
+			schemaBuilder.append( sqlString );
+		}
+
+		final String schemaFingerprint;
+
+		try {
+			final MessageDigest messageDigest = MessageDigest.getInstance( "SHA-1" );
+			final byte[] digest =
+					messageDigest.digest( schemaBuilder.toString().getBytes( "UTF-8" ) );
+			final StringBuilder schemaFingerprintBuilder = new StringBuilder();
+
+			for ( final byte digestByte : digest ) {
+				schemaFingerprintBuilder.append( String.format( "%02x", digestByte ) );
+			}
+
+			schemaFingerprint = schemaFingerprintBuilder.toString();
+		} catch ( final NoSuchAlgorithmException | UnsupportedEncodingException exception ) {
+			throw new IllegalStateException( "Unable to fingerprint the schema.", exception );
+		}
+
+		return schemaFingerprint;
+	}
+
 	public final Map<String, String> getProjectionMap() {
+		this.prepareMetadata();
+
 		return this.projectionMap;
 	}
 
+	/**
+	 * Returns the SQL type used to store columns of the given type.
+	 *
+	 * @param columnType The type of the column.
+	 * @return The SQL type used to store columns of the given type.
+	 * @throws IllegalArgumentException The given column type is unknown.
+	 */
+	private static String getSqlType( final ColumnType columnType )
+			throws IllegalArgumentException {
+		final String columnTypeString;
+
+		switch ( columnType ) {
+			case DATE:
+				columnTypeString = "INTEGER";
+
+				break;
+			case INTEGER:
+				columnTypeString = "INTEGER";
+
+				break;
+			case LONG:
+				columnTypeString = "INTEGER";
+
+				break;
+			case STRING:
+				columnTypeString = "TEXT";
+
+				break;
+			case BLOB:
+				columnTypeString = "BLOB";
+
+				break;
+			case BOOLEAN:
+				columnTypeString = "INTEGER";
+
+				break;
+			case DOUBLE:
+				columnTypeString = "REAL";
+
+				break;
+			case FLOAT:
+				columnTypeString = "REAL";
+
+				break;
+			case ENUM:
+				columnTypeString = "INTEGER";
+
+				break;
+			default:
+				throw new IllegalArgumentException( "Found unknown " +
+						"column type '" + columnType + "'." );
+		}
+
+		return columnTypeString;
+	}
+
 	public final String getTableName() {
 		final Table tableAnnotation = this.databaseObjectClass.getAnnotation( Table.class );
 		final String tableName = tableAnnotation.tableName();
@@ -239,6 +974,67 @@ public abstract class Contract<T extends DatabaseObject> {
 		return tableName;
 	}
 
+	/**
+	 * Returns whether a query with the given projection, selection clause, and selection
+	 * arguments is a count that is maintained by database triggers.
+	 *
+	 * @param projection The projection of the query.
+	 * @param selectionClause The selection clause of the query.
+	 * @param selectionArgs The selection arguments of the query.
+	 * @return Whether the query is a count that is maintained by database triggers.
+	 * @see #addMaintainedCount(String)
+	 */
+	public final boolean isMaintainedCount( final String[] projection,
+			final String selectionClause, final String[] selectionArgs ) {
+		final boolean maintainedCount;
+
+		if ( projection != null && projection.length == 1 &&
+				projection[ 0 ].equals( Contract.COUNT_PROJECTION ) &&
+				( selectionArgs == null || selectionArgs.length == 0 ) ) {
+			final String maintainedCountSelectionClause;
+
+			if ( selectionClause == null ) {
+				maintainedCountSelectionClause = "";
+			} else {
+				maintainedCountSelectionClause = selectionClause;
+			}
+
+			maintainedCount =
+					this.maintainedCountSelectionClauses.contains( maintainedCountSelectionClause );
+		} else {
+			maintainedCount = false;
+		}
+
+		return maintainedCount;
+	}
+
+	public final boolean hasExternalColumns() {
+		this.prepareMetadata();
+
+		return !this.externalColumnNames.isEmpty();
+	}
+
+	public final boolean hasFullTextColumns() {
+		this.prepareMetadata();
+
+		return !this.fullTextColumnNames.isEmpty();
+	}
+
+	/**
+	 * Returns whether the trigger with the given name was generated by this {@link Contract},
+	 * for a maintained count or for full-text search.
+	 *
+	 * @param triggerName The name of the trigger.
+	 * @return Whether the trigger with the given name was generated by this {@link Contract}.
+	 */
+	public final boolean isGeneratedTrigger( final String triggerName ) {
+		final String tableName = this.getTableName();
+		final boolean generatedTrigger = triggerName.startsWith( tableName + "_count_" ) ||
+				triggerName.startsWith( this.getFullTextTableName() + "_" );
+
+		return generatedTrigger;
+	}
+
 	/**
 	 * Returns whether the given {@link Uri} contains an ID.
 	 *
@@ -277,19 +1073,137 @@ public abstract class Contract<T extends DatabaseObject> {
 		this.columnNames.addAll( this.projectionMap.keySet() );
 	}
 
+	/**
+	 * Collects the names of the columns that are not deferred.
+	 *
+	 * @throws IllegalArgumentException The ID or version column is deferred.
+	 */
+	private void setupDefaultColumnNameList() throws IllegalArgumentException {
+		final List<Field> declaredFields = Contract.getAllFields( this.databaseObjectClass );
+		final Set<String> deferredColumnNames = new HashSet<String>();
+
+		for ( final Field declaredField : declaredFields ) {
+			final Column columnAnnotation = declaredField.getAnnotation( Column.class );
+
+			if ( columnAnnotation != null && columnAnnotation.deferred() ) {
+				final String columnName = columnAnnotation.columnName();
+
+				if ( columnName.equals( BaseColumns._ID ) ||
+						columnName.equals( Contract.Columns.VERSION ) ) {
+					throw new IllegalArgumentException( "Column '" + columnName +
+							"' cannot be deferred." );
+				}
+
+				deferredColumnNames.add( columnName );
+			}
+		}
+
+		for ( final String columnName : this.columnNames ) {
+			if ( !deferredColumnNames.contains( columnName ) ) {
+				this.defaultColumnNames.add( columnName );
+			}
+		}
+	}
+
+	/**
+	 * Collects the names of the {@link Storage#EXTERNAL} columns.
+	 *
+	 * @throws IllegalArgumentException An {@link Storage#EXTERNAL} column is not of type
+	 * {@link ColumnType#BLOB}.
+	 */
+	private void setupExternalColumnNameList() throws IllegalArgumentException {
+		final List<Field> declaredFields = Contract.getAllFields( this.databaseObjectClass );
+
+		for ( final Field declaredField : declaredFields ) {
+			final Column columnAnnotation = declaredField.getAnnotation( Column.class );
+
+			if ( columnAnnotation != null && columnAnnotation.storage() == Storage.EXTERNAL ) {
+				if ( columnAnnotation.columnType() != ColumnType.BLOB ) {
+					throw new IllegalArgumentException( "External column '" +
+							columnAnnotation.columnName() + "' must be of type '" +
+							ColumnType.BLOB + "', but was '" + columnAnnotation.columnType() +
+							"'." );
+				}
+
+				this.externalColumnNames.add( columnAnnotation.columnName() );
+			}
+		}
+	}
+
+	/**
+	 * Collects the names of the {@link FullText} columns.
+	 *
+	 * @throws IllegalArgumentException A {@link FullText} column is not of type
+	 * {@link ColumnType#STRING}.
+	 */
+	private void setupFullTextColumnNameList() throws IllegalArgumentException {
+		final List<Field> declaredFields = Contract.getAllFields( this.databaseObjectClass );
+
+		for ( final Field declaredField : declaredFields ) {
+			final Column columnAnnotation = declaredField.getAnnotation( Column.class );
+
+			if ( columnAnnotation != null && declaredField.isAnnotationPresent( FullText.class ) ) {
+				if ( columnAnnotation.columnType() != ColumnType.STRING ) {
+					throw new IllegalArgumentException( "Full-text column '" +
+							columnAnnotation.columnName() + "' must be of type '" +
+							ColumnType.STRING + "', but was '" + columnAnnotation.columnType() +
+							"'." );
+				}
+
+				this.fullTextColumnNames.add( columnAnnotation.columnName() );
+			}
+		}
+	}
+
+	/**
+	 * Reads the metadata of the {@link DatabaseObject} class, unless it has already been read.
+	 *
+	 * @throws IllegalArgumentException The {@link DatabaseObject} class is not a valid
+	 * definition of a table.
+	 */
+	private synchronized void prepareMetadata() throws IllegalArgumentException {
+		if ( !this.metadataPrepared ) {
+			this.setupProjectionMap();
+			this.setupColumnNameList();
+			this.setupDefaultColumnNameList();
+
+			this.createTableSqlString = this.generateCreateTableSqlString();
+			this.indexNamesToDefinitions = this.generateIndexDefinitions();
+
+			this.setupFullTextColumnNameList();
+			this.setupExternalColumnNameList();
+			this.validateCompressedColumns();
+
+			this.metadataPrepared = true;
+		}
+	}
+
 	private void prepareUriMatcher( final String authority ) {
 		final String tableName = this.getTableName();
 
 		this.uriMatcher.addURI( authority, tableName, this.objectCode );
 		this.uriMatcher.addURI( authority, tableName + "/#", this.objectIdCode );
+		this.uriMatcher.addURI( authority, tableName + "/" + Contract.SEARCH_PATH_SEGMENT,
+				this.searchCode );
 	}
 
 	public final boolean uriMatches( final Uri uri, final String authority ) {
 		return this.uriMatches( uri, true, true, authority );
 	}
 
-	private synchronized boolean uriMatches( final Uri uri, final boolean matchOnObjectCode,
+	private boolean uriMatches( final Uri uri, final boolean matchOnObjectCode,
 			final boolean matchOnObjectIdCode, final String authority ) {
+		final boolean matchOnSearchCode = false;
+		final boolean match =
+				this.uriMatches( uri, matchOnObjectCode, matchOnObjectIdCode, matchOnSearchCode,
+						authority );
+
+		return match;
+	}
+
+	private synchronized boolean uriMatches( final Uri uri, final boolean matchOnObjectCode,
+			final boolean matchOnObjectIdCode, final boolean matchOnSearchCode,
+			final String authority ) {
 		if ( !this.uriMatcherPrepared ) {
 			this.prepareUriMatcher( authority );
 			this.uriMatcherPrepared = true;
@@ -299,7 +1213,8 @@ public abstract class Contract<T extends DatabaseObject> {
 		final boolean match;
 
 		if ( ( matchOnObjectCode && ( matchResult == this.objectCode ) ) ||
-				( matchOnObjectIdCode && ( matchResult == this.objectIdCode ) ) ) {
+				( matchOnObjectIdCode && ( matchResult == this.objectIdCode ) ) ||
+				( matchOnSearchCode && ( matchResult == this.searchCode ) ) ) {
 			match = true;
 		} else {
 			match = false;
@@ -315,4 +1230,45 @@ public abstract class Contract<T extends DatabaseObject> {
 	public final boolean uriMatchesObjectId( final Uri uri, final String authority ) {
 		return this.uriMatches( uri, false, true, authority );
 	}
+
+	public final boolean uriMatchesSearch( final Uri uri, final String authority ) {
+		return this.uriMatches( uri, false, false, true, authority );
+	}
+
+	/**
+	 * Checks that every {@link Compressed} column can be compressed.
+	 *
+	 * @throws IllegalArgumentException A {@link Compressed} column is neither of type
+	 * {@link ColumnType#STRING} nor {@link ColumnType#BLOB}, or is also {@link FullText} or
+	 * {@link Storage#EXTERNAL}.
+	 */
+	private void validateCompressedColumns() throws IllegalArgumentException {
+		final List<Field> declaredFields = Contract.getAllFields( this.databaseObjectClass );
+
+		for ( final Field declaredField : declaredFields ) {
+			final Column columnAnnotation = declaredField.getAnnotation( Column.class );
+
+			if ( columnAnnotation != null &&
+					declaredField.isAnnotationPresent( Compressed.class ) ) {
+				final String columnName = columnAnnotation.columnName();
+				final ColumnType columnType = columnAnnotation.columnType();
+
+				if ( columnType != ColumnType.STRING && columnType != ColumnType.BLOB ) {
+					throw new IllegalArgumentException( "Compressed column '" + columnName +
+							"' must be of type '" + ColumnType.STRING + "' or '" + ColumnType.BLOB +
+							"', but was '" + columnType + "'." );
+				}
+
+				if ( declaredField.isAnnotationPresent( FullText.class ) ) {
+					throw new IllegalArgumentException( "Compressed column '" + columnName +
+							"' cannot be a full-text column." );
+				}
+
+				if ( columnAnnotation.storage() == Storage.EXTERNAL ) {
+					throw new IllegalArgumentException( "Compressed column '" + columnName +
+							"' cannot be an external column." );
+				}
+			}
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.wit.databaselibrary.model;
+
+/**
+ * An aggregate function computed by SQLite over the values of a column.
+ */
+public enum Aggregate {
+	/**
+	 * The average of the non-null values, or {@code null} if there are none.
+	 */
+	AVG("avg(%s)"),
+	/**
+	 * The number of distinct non-null values.
+	 */
+	COUNT_DISTINCT("count(DISTINCT %s)"),
+	/**
+	 * The largest value, or {@code null} if there are no non-null values.
+	 */
+	MAX("max(%s)"),
+	/**
+	 * The smallest value, or {@code null} if there are no non-null values.
+	 */
+	MIN("min(%s)"),
+	/**
+	 * The sum of the non-null values, which is 0 if there are none.
+	 */
+	SUM("total(%s)");
+
+	private final String expressionFormat;
+
+	private Aggregate( final String expressionFormat ) {
+		this.expressionFormat = expressionFormat;
+	}
+
+	/**
+	 * Returns the SQL expression that computes this aggregate over the given column.
+	 *
+	 * @param columnName The name of the column.
+	 * @return The SQL expression that computes this aggregate over the given column.
+	 */
+	public String getExpression( final String columnName ) {
+		return String.format( this.expressionFormat, columnName );
+	}
+}
\ No newline at end of file
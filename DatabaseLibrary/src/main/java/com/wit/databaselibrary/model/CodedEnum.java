@@ -0,0 +1,15 @@
+package com.wit.databaselibrary.model;
+
+/**
+ * Implemented by an {@code enum} stored in a {@link ColumnType#ENUM} column to store a stable
+ * code instead of its ordinal, so that its constants can be reordered, or new ones inserted,
+ * without changing the meaning of stored values.
+ */
+public interface CodedEnum {
+	/**
+	 * Returns the code stored for this constant, which must be unique within its {@code enum}.
+	 *
+	 * @return The code stored for this constant.
+	 */
+	int getCode();
+}
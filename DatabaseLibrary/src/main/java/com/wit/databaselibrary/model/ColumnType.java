@@ -1,5 +1,21 @@
 package com.wit.databaselibrary.model;
 
+/**
+ * The type of a column, which determines both the type of the field holding its value and the
+ * SQL type it is stored as.
+ * <ul>
+ * <li>{@link #BLOB}: {@code byte[]} or {@link java.nio.ByteBuffer}, stored as BLOB.</li>
+ * <li>{@link #BOOLEAN}: {@code boolean}, stored as INTEGER 0 or 1.</li>
+ * <li>{@link #DATE}: {@link java.util.Date}, stored as INTEGER milliseconds.</li>
+ * <li>{@link #DOUBLE}: {@code double}, stored as REAL.</li>
+ * <li>{@link #ENUM}: any {@code enum}, stored as INTEGER, either its {@link CodedEnum} code or
+ * its ordinal.</li>
+ * <li>{@link #FLOAT}: {@code float}, stored as REAL.</li>
+ * <li>{@link #INTEGER}: {@code int}, stored as INTEGER.</li>
+ * <li>{@link #LONG}: {@code long}, stored as INTEGER.</li>
+ * <li>{@link #STRING}: {@link String}, stored as TEXT.</li>
+ * </ul>
+ */
 public enum ColumnType {
-	DATE, INTEGER, LONG, STRING
+	DATE, INTEGER, LONG, STRING, BLOB, BOOLEAN, DOUBLE, FLOAT, ENUM
 }
\ No newline at end of file
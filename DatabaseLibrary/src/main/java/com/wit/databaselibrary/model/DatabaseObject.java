@@ -5,6 +5,9 @@ import android.provider.BaseColumns;
 import com.wit.databaselibrary.annotation.Column;
 import com.wit.databaselibrary.contentprovider.contract.Contract;
 
+import java.util.Collections;
+import java.util.Set;
+
 public class DatabaseObject {
 	/**
 	 * The unique identifier for this object.
@@ -18,6 +21,11 @@ public class DatabaseObject {
 	@Column( columnName = Contract.Columns.VERSION, columnType = ColumnType.LONG )
 	private Long version;
 
+	/**
+	 * The names of the deferred columns whose values have not been loaded into this object.
+	 */
+	private Set<String> unloadedColumnNames = Collections.emptySet();
+
 	/**
 	 * Creates a new {@link DatabaseObject}.
 	 */
@@ -46,6 +54,18 @@ public class DatabaseObject {
 		return this.id;
 	}
 
+	/**
+	 * Returns the names of the columns whose values have not been loaded into this object, because
+	 * they are deferred and were left out of the query that loaded it.  Their fields hold default
+	 * values, which are not written back when this object is saved.
+	 *
+	 * @return The names of the columns whose values have not been loaded.
+	 * @see Column#deferred()
+	 */
+	public Set<String> getUnloadedColumnNames() {
+		return this.unloadedColumnNames;
+	}
+
 	/**
 	 * Returns the version of this object, which is incremented every single time the object is
 	 * modified.
@@ -75,6 +95,16 @@ public class DatabaseObject {
 		return false;
 	}
 
+	/**
+	 * Sets the names of the columns whose values have not been loaded into this object.  This is
+	 * maintained by the {@link com.wit.databaselibrary.service.Manager} that loads the object.
+	 *
+	 * @param unloadedColumnNames The names of the columns whose values have not been loaded.
+	 */
+	public void setUnloadedColumnNames( final Set<String> unloadedColumnNames ) {
+		this.unloadedColumnNames = Collections.unmodifiableSet( unloadedColumnNames );
+	}
+
 	/**
 	 * Sets the numerical value used to determine which instance of an object is most up-to-date.
 	 *
@@ -0,0 +1,14 @@
+package com.wit.databaselibrary.model;
+
+/**
+ * Where the value of a {@link ColumnType#BLOB} column is kept.
+ * <ul>
+ * <li>{@link #INLINE}: in the row itself.</li>
+ * <li>{@link #EXTERNAL}: in a content-addressed file next to the database, with the row only
+ * holding a reference to it.  Values are read through a memory-mapped
+ * {@link java.nio.ByteBuffer}, so their bytes are only loaded when they are actually read.</li>
+ * </ul>
+ */
+public enum Storage {
+	INLINE, EXTERNAL
+}
\ No newline at end of file
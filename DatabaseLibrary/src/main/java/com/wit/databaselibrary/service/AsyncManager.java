@@ -0,0 +1,368 @@
+package com.wit.databaselibrary.service;
+
+import android.util.Pair;
+
+import com.wit.databaselibrary.model.DatabaseObject;
+import com.wit.databaselibrary.model.Order;
+import com.wit.databaselibrary.service.concurrent.NamedThreadFactory;
+import com.wit.databaselibrary.service.concurrent.PriorityExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the operations of a {@link Manager} in the background and returns a {@link Future} for
+ * each of them.  Reads run on a pool of threads, so independent reads run in parallel, while
+ * writes run one at a time on a separate thread, so they never hold up reads waiting for a
+ * thread.  Cancelling a {@link Future} before its operation starts skips the operation, and
+ * cancelling it with interruption while its operation runs interrupts the thread running it.
+ *
+ * @param <T> The type of {@link DatabaseObject} managed by the {@link Manager}.
+ */
+public class AsyncManager<T extends DatabaseObject> {
+	private final Manager<T> manager;
+	private final ExecutorService readExecutorService;
+	private final ExecutorService writeExecutorService;
+	private final boolean executorServicesOwned;
+
+	/**
+	 * Creates a new {@link AsyncManager} running on bounded thread pools.  Operations submitted
+	 * while a lane already has the given number of queued operations are rejected with a
+	 * {@link RejectedExecutionException}.
+	 *
+	 * @param manager The {@link Manager} whose operations are run.
+	 * @param numberOfReadThreads The number of threads reads run on.
+	 * @param maximumQueueSize The maximum number of operations queued in each lane.
+	 */
+	public AsyncManager( final Manager<T> manager, final int numberOfReadThreads,
+			final int maximumQueueSize ) {
+		this( manager,
+				AsyncManager.createExecutorService( AsyncManager.class.getSimpleName() + "-read",
+						numberOfReadThreads, maximumQueueSize ),
+				AsyncManager.createExecutorService( AsyncManager.class.getSimpleName() + "-write",
+						1, maximumQueueSize ), true );
+	}
+
+	/**
+	 * Creates a new {@link AsyncManager} running on the given {@link PriorityExecutor}, shared
+	 * with other {@link AsyncManager}s.  Reads run in its {@link PriorityExecutor.Lane#FOREGROUND}
+	 * lane, so they go ahead of queued writes, while writes run in its
+	 * {@link PriorityExecutor.Lane#BACKGROUND} lane, where large ones may be applied in slices.
+	 * The {@link PriorityExecutor} is not shut down by {@link #shutdown()}, since other
+	 * {@link AsyncManager}s may still be using it.
+	 *
+	 * @param manager The {@link Manager} whose operations are run.
+	 * @param priorityExecutor The {@link PriorityExecutor} operations run on.  It should allow a
+	 * single background thread, so that writes are applied in the order they were submitted.
+	 * @see Manager#getBackgroundWriteSliceSize()
+	 */
+	public AsyncManager( final Manager<T> manager, final PriorityExecutor priorityExecutor ) {
+		this( manager, priorityExecutor.getExecutorService( PriorityExecutor.Lane.FOREGROUND ),
+				priorityExecutor.getExecutorService( PriorityExecutor.Lane.BACKGROUND ), false );
+	}
+
+	/**
+	 * Creates a new {@link AsyncManager} running on the given {@link ExecutorService}s.  They
+	 * still belong to the caller, so they are not shut down by {@link #shutdown()}.
+	 *
+	 * @param manager The {@link Manager} whose operations are run.
+	 * @param readExecutorService The {@link ExecutorService} reads run on.
+	 * @param writeExecutorService The {@link ExecutorService} writes run on.  It should run one
+	 * operation at a time, so that writes are applied in the order they were submitted.
+	 */
+	public AsyncManager( final Manager<T> manager, final ExecutorService readExecutorService,
+			final ExecutorService writeExecutorService ) {
+		this( manager, readExecutorService, writeExecutorService, false );
+	}
+
+	/**
+	 * Creates a new {@link AsyncManager} running on the given {@link ExecutorService}s.
+	 *
+	 * @param manager The {@link Manager} whose operations are run.
+	 * @param readExecutorService The {@link ExecutorService} reads run on.
+	 * @param writeExecutorService The {@link ExecutorService} writes run on.
+	 * @param executorServicesOwned Whether the given {@link ExecutorService}s belong to this
+	 * {@link AsyncManager}, so that {@link #shutdown()} shuts them down.
+	 */
+	private AsyncManager( final Manager<T> manager, final ExecutorService readExecutorService,
+			final ExecutorService writeExecutorService, final boolean executorServicesOwned ) {
+		this.manager = manager;
+		this.readExecutorService = readExecutorService;
+		this.writeExecutorService = writeExecutorService;
+		this.executorServicesOwned = executorServicesOwned;
+	}
+
+	private static ExecutorService createExecutorService( final String namePrefix,
+			final int numberOfThreads, final int maximumQueueSize ) {
+		final ThreadPoolExecutor threadPoolExecutor =
+				new ThreadPoolExecutor( numberOfThreads, numberOfThreads, 0L,
+						TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>( maximumQueueSize ),
+						new NamedThreadFactory( namePrefix ) );
+
+		return threadPoolExecutor;
+	}
+
+	/**
+	 * Deletes the given {@link DatabaseObject} in the background.
+	 *
+	 * @param object The {@link DatabaseObject} to delete.
+	 * @return A {@link Future} with the number of {@link DatabaseObject}s that were deleted.
+	 * @see Manager#delete(DatabaseObject)
+	 */
+	public Future<Integer> delete( final T object ) {
+		return this.write( new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return AsyncManager.this.manager.delete( object );
+			}
+		} );
+	}
+
+	/**
+	 * Deletes the given {@link DatabaseObject}s in the background.
+	 *
+	 * @param objects The {@link DatabaseObject}s to delete.
+	 * @return A {@link Future} that completes once the {@link DatabaseObject}s are deleted.
+	 * @see Manager#delete(Collection)
+	 */
+	public Future<Void> delete( final Collection<T> objects ) {
+		return this.write( new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				AsyncManager.this.manager.delete( objects );
+
+				return null;
+			}
+		} );
+	}
+
+	/**
+	 * Deletes any {@link DatabaseObject} that satisfy the given where clause and arguments in the
+	 * background.
+	 *
+	 * @param whereClause The where clause to use to narrow down the {@link DatabaseObject}s to
+	 * delete.
+	 * @param whereArgs The values to replace the question marks with in the where clause.
+	 * @return A {@link Future} with the number of {@link DatabaseObject}s that were deleted.
+	 * @see Manager#delete(String, List)
+	 */
+	public Future<Integer> delete( final String whereClause, final List<String> whereArgs ) {
+		return this.write( new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return AsyncManager.this.manager.delete( whereClause, whereArgs );
+			}
+		} );
+	}
+
+	/**
+	 * Gets all {@link DatabaseObject}s in the background.
+	 *
+	 * @return A {@link Future} with all {@link DatabaseObject}s.
+	 * @see Manager#get()
+	 */
+	public Future<List<T>> get() {
+		return this.read( new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return AsyncManager.this.manager.get();
+			}
+		} );
+	}
+
+	/**
+	 * Gets the {@link DatabaseObject} with the given ID in the background.
+	 *
+	 * @param id The ID of the {@link DatabaseObject} to get.
+	 * @return A {@link Future} with the {@link DatabaseObject}, or {@code null} if there is no
+	 * {@link DatabaseObject} with the given ID.
+	 * @see Manager#get(long)
+	 */
+	public Future<T> get( final long id ) {
+		return this.read( new Callable<T>() {
+			@Override
+			public T call() {
+				return AsyncManager.this.manager.get( id );
+			}
+		} );
+	}
+
+	/**
+	 * Gets the {@link DatabaseObject}s that satisfy the given selection criteria in the
+	 * background.
+	 *
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to get.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @return A {@link Future} with the {@link DatabaseObject}s.
+	 * @see Manager#get(String, List)
+	 */
+	public Future<List<T>> get( final String selectionClause, final List<String> selectionArgs ) {
+		return this.read( new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return AsyncManager.this.manager.get( selectionClause, selectionArgs );
+			}
+		} );
+	}
+
+	/**
+	 * Gets the {@link DatabaseObject}s that satisfy the given selection criteria in the
+	 * background.
+	 *
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to get.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param orderBys The columns to sort by, in order of precedence.
+	 * @param limit The maximum number of {@link DatabaseObject}s to get.
+	 * @return A {@link Future} with the {@link DatabaseObject}s.
+	 * @see Manager#get(String, List, List, int)
+	 */
+	public Future<List<T>> get( final String selectionClause, final List<String> selectionArgs,
+			final List<Pair<String, Order>> orderBys, final int limit ) {
+		return this.read( new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return AsyncManager.this.manager
+						.get( selectionClause, selectionArgs, orderBys, limit );
+			}
+		} );
+	}
+
+	/**
+	 * Counts the saved {@link DatabaseObject}s in the background.
+	 *
+	 * @return A {@link Future} with the number of {@link DatabaseObject}s that are saved.
+	 * @see Manager#getCount()
+	 */
+	public Future<Integer> getCount() {
+		return this.read( new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return AsyncManager.this.manager.getCount();
+			}
+		} );
+	}
+
+	/**
+	 * Counts the saved {@link DatabaseObject}s that satisfy the given selection criteria in the
+	 * background.
+	 *
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include in the count.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @return A {@link Future} with the number of {@link DatabaseObject}s that are saved that
+	 * satisfy the given selection criteria.
+	 * @see Manager#getCount(String, List)
+	 */
+	public Future<Integer> getCount( final String selectionClause,
+			final List<String> selectionArgs ) {
+		return this.read( new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return AsyncManager.this.manager.getCount( selectionClause, selectionArgs );
+			}
+		} );
+	}
+
+	/**
+	 * Runs the given read in the read lane.
+	 *
+	 * @param callable The read to run, which must not modify storage.
+	 * @param <V> The type of the result of the read.
+	 * @return A {@link Future} with the result of the read.
+	 * @throws RejectedExecutionException The read lane is full or has been shut down.
+	 */
+	public <V> Future<V> read( final Callable<V> callable ) throws RejectedExecutionException {
+		return this.readExecutorService.submit( callable );
+	}
+
+	/**
+	 * Replaces the existing collection of saved {@link DatabaseObject}s with the given collection
+	 * in the background.
+	 *
+	 * @param replacementObjects The newer collection of {@link DatabaseObject}s that should
+	 * overwrite the existing collection.
+	 * @return A {@link Future} with the latest version of the objects that have been saved or
+	 * updated.
+	 * @see Manager#replace(Collection)
+	 */
+	public Future<List<T>> replace( final Collection<T> replacementObjects ) {
+		return this.write( new Callable<List<T>>() {
+			@Override
+			public List<T> call() throws Exception {
+				return AsyncManager.this.manager.replace( replacementObjects );
+			}
+		} );
+	}
+
+	/**
+	 * Saves/updates the given {@link DatabaseObject}s in the background.
+	 *
+	 * @param objects The {@link DatabaseObject}s to save/update.
+	 * @return A {@link Future} with the latest version of the objects that have been saved or
+	 * updated.
+	 * @see Manager#save(Collection)
+	 */
+	public Future<List<T>> save( final Collection<T> objects ) {
+		return this.write( new Callable<List<T>>() {
+			@Override
+			public List<T> call() throws Exception {
+				return AsyncManager.this.manager.save( objects );
+			}
+		} );
+	}
+
+	/**
+	 * Saves/updates the given {@link DatabaseObject} in the background.
+	 *
+	 * @param object The {@link DatabaseObject} to save/update.
+	 * @return A {@link Future} with the newly saved object, or {@code null} if no save was done.
+	 * @see Manager#save(DatabaseObject)
+	 */
+	public Future<T> save( final T object ) {
+		return this.write( new Callable<T>() {
+			@Override
+			public T call() {
+				return AsyncManager.this.manager.save( object );
+			}
+		} );
+	}
+
+	/**
+	 * Stops accepting new operations and waits for the operations already submitted to finish.
+	 * Does nothing when running on {@link ExecutorService}s passed in by the caller, such as the
+	 * lanes of a shared {@link PriorityExecutor}, which have to be shut down by their owner
+	 * instead.
+	 *
+	 * @throws InterruptedException The calling thread was interrupted while waiting.
+	 */
+	public void shutdown() throws InterruptedException {
+		if ( this.executorServicesOwned ) {
+			this.readExecutorService.shutdown();
+			this.writeExecutorService.shutdown();
+
+			this.readExecutorService.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+			this.writeExecutorService.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+		}
+	}
+
+	/**
+	 * Runs the given write in the write lane.
+	 *
+	 * @param callable The write to run.
+	 * @param <V> The type of the result of the write.
+	 * @return A {@link Future} with the result of the write.
+	 * @throws RejectedExecutionException The write lane is full or has been shut down.
+	 */
+	public <V> Future<V> write( final Callable<V> callable ) throws RejectedExecutionException {
+		return this.writeExecutorService.submit( callable );
+	}
+}
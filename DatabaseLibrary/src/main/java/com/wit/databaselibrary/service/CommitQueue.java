@@ -0,0 +1,206 @@
+package com.wit.databaselibrary.service;
+
+import android.util.Log;
+
+import com.wit.databaselibrary.contentprovider.StorageModificationException;
+import com.wit.databaselibrary.model.DatabaseObject;
+import com.wit.databaselibrary.service.concurrent.NamedThreadFactory;
+import com.wit.databaselibrary.service.concurrent.SettableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Funnels saves from any number of threads to a single writer thread.  The writer drains
+ * whatever saves have queued up while it was busy and commits them together in one transaction,
+ * so the cost of a commit is shared by every save in the batch.
+ *
+ * @param <T> The type of {@link DatabaseObject} being saved.
+ */
+public class CommitQueue<T extends DatabaseObject> {
+	private static final class PendingSave<T> {
+		private final T object;
+		private final SettableFuture<T> future;
+
+		private PendingSave( final T object, final SettableFuture<T> future ) {
+			this.object = object;
+			this.future = future;
+		}
+	}
+
+	private final Manager<T> manager;
+	private final int maximumBatchSize;
+	private final BlockingQueue<PendingSave<T>> pendingSaves =
+			new LinkedBlockingQueue<PendingSave<T>>();
+	private final ExecutorService writerExecutorService;
+	private boolean shutdown = false;
+
+	/**
+	 * Creates a new {@link CommitQueue} and starts its writer thread.
+	 *
+	 * @param manager The {@link Manager} used to commit each batch.
+	 * @param maximumBatchSize The maximum number of saves committed in a single transaction.
+	 * @throws IllegalArgumentException The given maximum batch size is less than 1.
+	 */
+	public CommitQueue( final Manager<T> manager, final int maximumBatchSize )
+			throws IllegalArgumentException {
+		if ( maximumBatchSize < 1 ) {
+			throw new IllegalArgumentException( "The maximum batch size must be at least 1, " +
+					"but was '" + maximumBatchSize + "'." );
+		}
+
+		this.manager = manager;
+		this.maximumBatchSize = maximumBatchSize;
+		this.writerExecutorService = Executors.newSingleThreadExecutor(
+				new NamedThreadFactory( CommitQueue.class.getSimpleName() ) );
+
+		this.writerExecutorService.execute( new Runnable() {
+			@Override
+			public void run() {
+				CommitQueue.this.drain();
+			}
+		} );
+	}
+
+	/**
+	 * Commits the given saves in a single transaction.  If the transaction fails, each save is
+	 * retried on its own, so that one bad object only fails its own {@link Future}.
+	 *
+	 * @param pendingSaves The saves to commit.
+	 */
+	private void commit( final List<PendingSave<T>> pendingSaves ) {
+		final List<T> objects = new ArrayList<T>();
+
+		for ( final PendingSave<T> pendingSave : pendingSaves ) {
+			objects.add( pendingSave.object );
+		}
+
+		List<T> savedObjects = null;
+
+		try {
+			savedObjects = this.manager.saveBatch( objects );
+		} catch ( final StorageModificationException | RuntimeException exception ) {
+			Log.w( CommitQueue.class.getSimpleName(),
+					"A batch of saves failed to be committed.  Retrying each save on its own.",
+					exception );
+		}
+
+		if ( savedObjects == null ) {
+			for ( final PendingSave<T> pendingSave : pendingSaves ) {
+				try {
+					final T savedObject = this.manager.save( pendingSave.object );
+
+					pendingSave.future.set( savedObject );
+				} catch ( final RuntimeException runtimeException ) {
+					pendingSave.future.setException( runtimeException );
+				}
+			}
+		} else {
+			for ( int index = 0; index < pendingSaves.size(); index++ ) {
+				final PendingSave<T> pendingSave = pendingSaves.get( index );
+				final T savedObject = savedObjects.get( index );
+
+				pendingSave.future.set( savedObject );
+			}
+		}
+	}
+
+	/**
+	 * Runs on the writer thread, committing queued saves in batches until this
+	 * {@link CommitQueue} is shut down and every queued save has been committed.
+	 */
+	private void drain() {
+		final List<PendingSave<T>> batch = new ArrayList<PendingSave<T>>();
+
+		while ( true ) {
+			try {
+				final PendingSave<T> firstPendingSave = this.pendingSaves.take();
+
+				if ( firstPendingSave.object == null ) {
+					break;
+				}
+
+				batch.add( firstPendingSave );
+				this.pendingSaves.drainTo( batch, this.maximumBatchSize - 1 );
+			} catch ( final InterruptedException interruptedException ) {
+				Log.e( CommitQueue.class.getSimpleName(),
+						"The writer thread was interrupted while waiting for saves.",
+						interruptedException );
+
+				break;
+			}
+
+			final List<PendingSave<T>> pendingSaves = new ArrayList<PendingSave<T>>();
+			boolean shutdownRequested = false;
+
+			for ( final PendingSave<T> pendingSave : batch ) {
+				if ( pendingSave.object == null ) {
+					shutdownRequested = true;
+				} else if ( !pendingSave.future.isCancelled() ) {
+					pendingSaves.add( pendingSave );
+				}
+			}
+
+			batch.clear();
+
+			if ( !pendingSaves.isEmpty() ) {
+				this.commit( pendingSaves );
+			}
+
+			if ( shutdownRequested ) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Queues the given {@link DatabaseObject} to be saved by the writer thread, following the
+	 * same rules as {@link Manager#save(DatabaseObject)}.
+	 *
+	 * @param object The {@link DatabaseObject} to save/update.
+	 * @return A {@link Future} that completes once the save has been committed, with the newly
+	 * saved object, or {@code null} if no save was done.  Cancelling it before the writer
+	 * reaches the save skips the save.
+	 * @throws IllegalArgumentException The given {@link DatabaseObject} is {@code null}.
+	 * @throws IllegalStateException This {@link CommitQueue} has been shut down.
+	 */
+	public synchronized Future<T> enqueue( final T object )
+			throws IllegalArgumentException, IllegalStateException {
+		if ( object == null ) {
+			throw new IllegalArgumentException( "Unable to save a null object." );
+		} else if ( this.shutdown ) {
+			throw new IllegalStateException( "The commit queue has been shut down." );
+		}
+
+		final SettableFuture<T> future = new SettableFuture<T>();
+
+		this.pendingSaves.add( new PendingSave<T>( object, future ) );
+
+		return future;
+	}
+
+	/**
+	 * Stops accepting new saves, then waits for every save queued so far to be committed and for
+	 * the writer thread to stop.
+	 *
+	 * @throws InterruptedException The calling thread was interrupted while waiting.
+	 */
+	public void shutdown() throws InterruptedException {
+		synchronized ( this ) {
+			if ( !this.shutdown ) {
+				this.shutdown = true;
+
+				this.pendingSaves.add( new PendingSave<T>( null, null ) );
+			}
+		}
+
+		this.writerExecutorService.shutdown();
+		this.writerExecutorService.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+	}
+}
@@ -0,0 +1,62 @@
+package com.wit.databaselibrary.service;
+
+import com.wit.databaselibrary.model.DatabaseObject;
+
+/**
+ * A cache of loaded {@link DatabaseObject}s, by ID, that a {@link Manager} checks before
+ * querying for a single {@link DatabaseObject}.  The {@link Manager} only ever puts copies into
+ * the cache and hands out copies of what it gets from it, so implementations do not need to
+ * worry about the cached instances being changed.  Implementations must be thread-safe.
+ *
+ * @param <T> The type of {@link DatabaseObject} being cached.
+ * @see Manager#createEntityCache()
+ */
+public interface EntityCache<T extends DatabaseObject> {
+	void clear();
+
+	/**
+	 * Returns the cached {@link DatabaseObject} with the given ID.
+	 *
+	 * @param id The ID of the {@link DatabaseObject}.
+	 * @return The cached {@link DatabaseObject}, or {@code null} if it is not cached.
+	 */
+	T get( long id );
+
+	/**
+	 * Returns the number of entries that were evicted to keep the cache within its bounds.
+	 *
+	 * @return The number of entries that were evicted to keep the cache within its bounds.
+	 */
+	long getEvictionCount();
+
+	/**
+	 * Returns the number of times {@link #get(long)} found a cached {@link DatabaseObject}.
+	 *
+	 * @return The number of times {@link #get(long)} found a cached {@link DatabaseObject}.
+	 */
+	long getHitCount();
+
+	/**
+	 * Returns the number of times {@link #get(long)} did not find a cached
+	 * {@link DatabaseObject}.
+	 *
+	 * @return The number of times {@link #get(long)} did not find a cached
+	 * {@link DatabaseObject}.
+	 */
+	long getMissCount();
+
+	/**
+	 * Caches the given {@link DatabaseObject}, replacing any cached {@link DatabaseObject} with the
+	 * same ID.
+	 *
+	 * @param object The {@link DatabaseObject} to cache, which has an ID.
+	 */
+	void put( T object );
+
+	/**
+	 * Removes the cached {@link DatabaseObject} with the given ID, if any.
+	 *
+	 * @param id The ID of the {@link DatabaseObject}.
+	 */
+	void remove( long id );
+}
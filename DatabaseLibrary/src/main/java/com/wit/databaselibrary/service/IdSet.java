@@ -0,0 +1,150 @@
+package com.wit.databaselibrary.service;
+
+import com.wit.databaselibrary.model.DatabaseObject;
+
+/**
+ * A compact set of the IDs that may be saved, used to tell that a {@link DatabaseObject} is
+ * definitely not saved without querying for it.  It may hold IDs that are no longer saved, but
+ * never misses a saved ID once it is loaded, so only "absent" answers are certain.  IDs are kept
+ * as primitive longs in a single open-addressing table, rather than as boxed {@link Long}s.
+ * Until {@link #setLoaded()} is called, every ID is reported as possibly saved.
+ */
+public class IdSet {
+	private static final int MINIMUM_CAPACITY = 16;
+
+	private long[] ids = new long[ IdSet.MINIMUM_CAPACITY ];
+	private boolean[] used = new boolean[ IdSet.MINIMUM_CAPACITY ];
+	private int size = 0;
+	private boolean loaded = false;
+
+	/**
+	 * Adds the given ID.
+	 *
+	 * @param id The ID that may be saved.
+	 */
+	public synchronized void add( final long id ) {
+		if ( ( this.size + 1 ) * 2 > this.ids.length ) {
+			this.resize( this.ids.length * 2 );
+		}
+
+		int slot = this.indexOf( id );
+
+		while ( this.used[ slot ] && this.ids[ slot ] != id ) {
+			slot = ( slot + 1 ) & ( this.ids.length - 1 );
+		}
+
+		if ( !this.used[ slot ] ) {
+			this.ids[ slot ] = id;
+			this.used[ slot ] = true;
+			this.size++;
+		}
+	}
+
+	/**
+	 * Removes every ID, after everything has been deleted.
+	 */
+	public synchronized void clear() {
+		this.ids = new long[ IdSet.MINIMUM_CAPACITY ];
+		this.used = new boolean[ IdSet.MINIMUM_CAPACITY ];
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the slot the given ID would ideally be in.
+	 *
+	 * @param id The ID.
+	 * @return The slot the given ID would ideally be in.
+	 */
+	private int indexOf( final long id ) {
+		final long hash = id * 0x9E3779B97F4A7C15L;
+
+		return (int) ( hash ^ ( hash >>> 32 ) ) & ( this.ids.length - 1 );
+	}
+
+	public synchronized boolean isLoaded() {
+		return this.loaded;
+	}
+
+	/**
+	 * Returns whether the given ID may be saved.
+	 *
+	 * @param id The ID of the {@link DatabaseObject}.
+	 * @return {@code false} if the given ID is definitely not saved, or {@code true} if it may
+	 * be.
+	 */
+	public synchronized boolean mightContain( final long id ) {
+		boolean mightContain = !this.loaded;
+		int slot = this.indexOf( id );
+
+		while ( !mightContain && this.used[ slot ] ) {
+			mightContain = this.ids[ slot ] == id;
+			slot = ( slot + 1 ) & ( this.ids.length - 1 );
+		}
+
+		return mightContain;
+	}
+
+	/**
+	 * Removes the given ID, after it has been deleted.
+	 *
+	 * @param id The ID that is no longer saved.
+	 */
+	public synchronized void remove( final long id ) {
+		int slot = this.indexOf( id );
+
+		while ( this.used[ slot ] && this.ids[ slot ] != id ) {
+			slot = ( slot + 1 ) & ( this.ids.length - 1 );
+		}
+
+		if ( this.used[ slot ] ) {
+			this.used[ slot ] = false;
+			this.size--;
+
+			// Moves back the IDs that follow in the same run, so that lookups do not stop early.
+			int nextSlot = ( slot + 1 ) & ( this.ids.length - 1 );
+
+			while ( this.used[ nextSlot ] ) {
+				final long nextId = this.ids[ nextSlot ];
+
+				this.used[ nextSlot ] = false;
+				this.size--;
+
+				this.add( nextId );
+
+				nextSlot = ( nextSlot + 1 ) & ( this.ids.length - 1 );
+			}
+		}
+	}
+
+	/**
+	 * Moves every ID into a table of the given capacity.
+	 *
+	 * @param capacity The new capacity, which must be a power of 2.
+	 */
+	private void resize( final int capacity ) {
+		final long[] oldIds = this.ids;
+		final boolean[] oldUsed = this.used;
+
+		this.ids = new long[ capacity ];
+		this.used = new boolean[ capacity ];
+		this.size = 0;
+
+		for ( int slot = 0; slot < oldIds.length; slot++ ) {
+			if ( oldUsed[ slot ] ) {
+				this.add( oldIds[ slot ] );
+			}
+		}
+	}
+
+	/**
+	 * Marks the set as loaded, once every saved ID has been added, so that absent IDs are
+	 * reported as such.
+	 */
+	public synchronized void setLoaded() {
+		this.loaded = true;
+	}
+
+	public synchronized int size() {
+		return this.size;
+	}
+}
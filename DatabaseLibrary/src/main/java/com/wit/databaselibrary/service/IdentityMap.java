@@ -0,0 +1,117 @@
+package com.wit.databaselibrary.service;
+
+import com.wit.databaselibrary.model.DatabaseObject;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of the {@link DatabaseObject}s that have been loaded, by ID, so that loading the
+ * same version of the same {@link DatabaseObject} again returns the instance that is already in
+ * memory.  Instances are only weakly referenced, so they are forgotten once nothing else uses
+ * them.
+ *
+ * @param <T> The type of {@link DatabaseObject} being tracked.
+ */
+public class IdentityMap<T extends DatabaseObject> {
+	private static final class IdReference<T> extends WeakReference<T> {
+		private final long id;
+
+		private IdReference( final long id, final T object,
+				final ReferenceQueue<? super T> referenceQueue ) {
+			super( object, referenceQueue );
+
+			this.id = id;
+		}
+	}
+
+	private final Map<Long, IdReference<T>> idsToReferences = new HashMap<Long, IdReference<T>>();
+	private final ReferenceQueue<T> referenceQueue = new ReferenceQueue<T>();
+
+	public synchronized void clear() {
+		this.idsToReferences.clear();
+	}
+
+	/**
+	 * Returns the tracked instance with the given ID.
+	 *
+	 * @param id The ID of the {@link DatabaseObject}.
+	 * @return The tracked instance, or {@code null} if there is none.
+	 */
+	public synchronized T get( final long id ) {
+		this.purge();
+
+		final IdReference<T> idReference = this.idsToReferences.get( id );
+		final T object;
+
+		if ( idReference == null ) {
+			object = null;
+		} else {
+			object = idReference.get();
+		}
+
+		return object;
+	}
+
+	/**
+	 * Returns the tracked instance with the given ID, if it has the given version.
+	 *
+	 * @param id The ID of the {@link DatabaseObject}.
+	 * @param version The version of the {@link DatabaseObject}.
+	 * @return The tracked instance, or {@code null} if there is none or it has another version.
+	 */
+	public synchronized T get( final long id, final long version ) {
+		final T object = this.get( id );
+		final T matchingObject;
+
+		if ( object != null && object.getVersion() != null && object.getVersion() == version ) {
+			matchingObject = object;
+		} else {
+			matchingObject = null;
+		}
+
+		return matchingObject;
+	}
+
+	/**
+	 * Forgets the references to instances that have been garbage collected.
+	 */
+	private void purge() {
+		IdReference<T> idReference = (IdReference<T>) this.referenceQueue.poll();
+
+		while ( idReference != null ) {
+			if ( this.idsToReferences.get( idReference.id ) == idReference ) {
+				this.idsToReferences.remove( idReference.id );
+			}
+
+			idReference = (IdReference<T>) this.referenceQueue.poll();
+		}
+	}
+
+	/**
+	 * Starts tracking the given {@link DatabaseObject}, replacing any tracked instance with the
+	 * same ID.  {@link DatabaseObject}s without an ID are ignored.
+	 *
+	 * @param object The {@link DatabaseObject} to track.
+	 */
+	public synchronized void put( final T object ) {
+		final Long id = object.getId();
+
+		if ( id != null ) {
+			this.purge();
+
+			this.idsToReferences.put( id, new IdReference<T>( id, object, this.referenceQueue ) );
+		}
+	}
+
+	/**
+	 * Stops tracking the instance with the given ID.
+	 *
+	 * @param id The ID of the {@link DatabaseObject}.
+	 */
+	public synchronized void remove( final long id ) {
+		this.idsToReferences.remove( id );
+	}
+}
@@ -0,0 +1,163 @@
+package com.wit.databaselibrary.service;
+
+import com.wit.databaselibrary.model.Storage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the values of {@link Storage#EXTERNAL} columns in files named after the SHA-1 hash of
+ * their content, so that equal values share a single file and the row only needs to hold the
+ * hash.  Files are written to a temporary file first and then renamed, so a reference never
+ * points to a partially written file.  Storing values and collecting garbage are serialized, so
+ * that a file is never deleted between the moment a store finds it and the moment it is touched.
+ */
+public class LargeValueStore {
+	/**
+	 * The minimum age of a file before it may be garbage collected, so that a file written for a
+	 * save that has not been committed yet is not mistaken for an orphan.
+	 */
+	private static final long GARBAGE_COLLECTION_GRACE_PERIOD_MILLIS =
+			TimeUnit.MINUTES.toMillis( 1 );
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	private final File directory;
+
+	/**
+	 * Creates a new {@link LargeValueStore}.
+	 *
+	 * @param directory The directory to keep the files in, which is created when the first value
+	 * is stored.
+	 */
+	public LargeValueStore( final File directory ) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Deletes the files that are not referenced by any of the given keys and are older than the
+	 * grace period, along with abandoned temporary files.
+	 *
+	 * @param referencedKeys The keys that are still referenced by a row.
+	 * @return The number of files that were deleted.
+	 */
+	public synchronized int collectGarbage( final Set<String> referencedKeys ) {
+		final File[] files = this.directory.listFiles();
+		final long cutoff =
+				System.currentTimeMillis() - LargeValueStore.GARBAGE_COLLECTION_GRACE_PERIOD_MILLIS;
+		int numberOfFilesDeleted = 0;
+
+		if ( files != null ) {
+			for ( final File file : files ) {
+				final String name = file.getName();
+
+				if ( !referencedKeys.contains( name ) && file.lastModified() < cutoff &&
+						file.delete() ) {
+					numberOfFilesDeleted++;
+				}
+			}
+		}
+
+		return numberOfFilesDeleted;
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the given value, as a lowercase hexadecimal string.
+	 *
+	 * @param value The value to hash.
+	 * @return The SHA-1 hash of the given value.
+	 */
+	private static String hash( final byte[] value ) {
+		final byte[] digest;
+
+		try {
+			digest = MessageDigest.getInstance( "SHA-1" ).digest( value );
+		} catch ( final NoSuchAlgorithmException noSuchAlgorithmException ) {
+			throw new IllegalStateException( "Unable to find algorithm 'SHA-1'.",
+					noSuchAlgorithmException );
+		}
+
+		final StringBuilder hashBuilder = new StringBuilder();
+
+		for ( final byte digestByte : digest ) {
+			hashBuilder.append( String.format( "%02x", digestByte ) );
+		}
+
+		return hashBuilder.toString();
+	}
+
+	/**
+	 * Maps the value with the given key into memory.  The returned {@link ByteBuffer} is
+	 * read-only, and its content is only loaded from disk as it is read.
+	 *
+	 * @param key The key returned when the value was stored.
+	 * @return A read-only {@link ByteBuffer} over the value.
+	 * @throws IOException The value could not be mapped, usually because its file is missing.
+	 */
+	public ByteBuffer map( final String key ) throws IOException {
+		final RandomAccessFile randomAccessFile =
+				new RandomAccessFile( new File( this.directory, key ), "r" );
+		final ByteBuffer byteBuffer;
+
+		try {
+			final FileChannel fileChannel = randomAccessFile.getChannel();
+
+			byteBuffer = fileChannel.map( FileChannel.MapMode.READ_ONLY, 0, fileChannel.size() );
+		} finally {
+			randomAccessFile.close();
+		}
+
+		return byteBuffer;
+	}
+
+	/**
+	 * Stores the given value, unless an equal value is already stored.
+	 *
+	 * @param value The value to store.
+	 * @return The key to reference the value by.
+	 * @throws IOException The value could not be written.
+	 */
+	public synchronized String put( final byte[] value ) throws IOException {
+		final String key = LargeValueStore.hash( value );
+		final File file = new File( this.directory, key );
+
+		// Restarts the grace period, in case the file is about to be collected.  A file that
+		// cannot be touched, or is gone after all, is written again.
+		final boolean stored = file.exists() &&
+				file.setLastModified( System.currentTimeMillis() ) && file.exists();
+
+		if ( !stored ) {
+			if ( !this.directory.isDirectory() && !this.directory.mkdirs() ) {
+				throw new IOException( "Unable to create directory '" + this.directory + "'." );
+			}
+
+			final File temporaryFile =
+					File.createTempFile( key, LargeValueStore.TEMPORARY_FILE_SUFFIX,
+							this.directory );
+			final FileOutputStream fileOutputStream = new FileOutputStream( temporaryFile );
+
+			try {
+				fileOutputStream.write( value );
+				fileOutputStream.getFD().sync();
+			} finally {
+				fileOutputStream.close();
+			}
+
+			if ( !temporaryFile.renameTo( file ) ) {
+				temporaryFile.delete();
+
+				throw new IOException( "Unable to rename '" + temporaryFile + "' to '" + file +
+						"'." );
+			}
+		}
+
+		return key;
+	}
+}
@@ -0,0 +1,183 @@
+package com.wit.databaselibrary.service;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.util.Log;
+
+import com.wit.databaselibrary.model.DatabaseObject;
+import com.wit.databaselibrary.service.concurrent.NamedThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A query that is run again whenever the data behind it changes.  Change notifications that
+ * arrive in quick succession are coalesced into a single run, and the result is only delivered
+ * when it differs from the previously delivered result.  Queries run, and results are
+ * delivered, on a background thread.
+ *
+ * @param <T> The type of {@link DatabaseObject} returned by the query.
+ */
+public class LiveQuery<T extends DatabaseObject> {
+	/**
+	 * Receives the results of a {@link LiveQuery}.
+	 *
+	 * @param <T> The type of {@link DatabaseObject} returned by the query.
+	 */
+	public interface Listener<T> {
+		/**
+		 * Called on a background thread with the first result of the query, and with every later
+		 * result that differs from the one before it.
+		 *
+		 * @param objects The result of the query.
+		 */
+		void onChanged( List<T> objects );
+	}
+
+	private static final ScheduledExecutorService SCHEDULED_EXECUTOR_SERVICE = Executors
+			.newSingleThreadScheduledExecutor(
+					new NamedThreadFactory( LiveQuery.class.getSimpleName() ) );
+
+	private final Manager<T> manager;
+	private final ContentResolver contentResolver;
+	private final Callable<List<T>> query;
+	private final Listener<T> listener;
+	private final long debounceMillis;
+	private final ContentObserver contentObserver = new ContentObserver( null ) {
+		@Override
+		public void onChange( final boolean selfChange ) {
+			LiveQuery.this.scheduleRun( LiveQuery.this.debounceMillis );
+		}
+	};
+	private final Runnable runRunnable = new Runnable() {
+		@Override
+		public void run() {
+			LiveQuery.this.run();
+		}
+	};
+	private List<Object[]> lastValues;
+	private boolean runScheduled = false;
+	private boolean cancelled = false;
+
+	/**
+	 * Creates a new {@link LiveQuery}, which starts running as soon as {@link #start(Uri)} is
+	 * called.
+	 *
+	 * @param manager The {@link Manager} the query belongs to.
+	 * @param contentResolver The {@link ContentResolver} used to watch for changes.
+	 * @param query The query to run.
+	 * @param listener The {@link Listener} to deliver results to.
+	 * @param debounceMillis The number of milliseconds to wait after a change notification
+	 * before running the query, during which further notifications are coalesced.
+	 */
+	LiveQuery( final Manager<T> manager, final ContentResolver contentResolver,
+			final Callable<List<T>> query, final Listener<T> listener, final long debounceMillis ) {
+		this.manager = manager;
+		this.contentResolver = contentResolver;
+		this.query = query;
+		this.listener = listener;
+		this.debounceMillis = debounceMillis;
+	}
+
+	/**
+	 * Stops watching for changes.  No result is delivered after this returns, except one that
+	 * is already being delivered.
+	 */
+	public void cancel() {
+		synchronized ( this ) {
+			if ( this.cancelled ) {
+				return;
+			}
+
+			this.cancelled = true;
+		}
+
+		this.contentResolver.unregisterContentObserver( this.contentObserver );
+	}
+
+	/**
+	 * Returns whether the given results are the same, comparing {@code byte[]} values by content
+	 * rather than by identity.
+	 *
+	 * @param values The values of the new result.
+	 * @param otherValues The values of the previous result, or {@code null} if there is none.
+	 * @return Whether the given results are the same.
+	 */
+	private static boolean equals( final List<Object[]> values,
+			final List<Object[]> otherValues ) {
+		boolean equals = otherValues != null && values.size() == otherValues.size();
+
+		for ( int index = 0; equals && index < values.size(); index++ ) {
+			equals = Arrays.deepEquals( values.get( index ), otherValues.get( index ) );
+		}
+
+		return equals;
+	}
+
+	public synchronized boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * Runs the query and delivers its result, unless it is the same as the last delivered one.
+	 */
+	private void run() {
+		synchronized ( this ) {
+			this.runScheduled = false;
+
+			if ( this.cancelled ) {
+				return;
+			}
+		}
+
+		try {
+			final List<T> objects = this.query.call();
+			final List<Object[]> values = new ArrayList<Object[]>();
+
+			// Only the values as held in memory are compared, since generating the values to
+			// store would write out external values and compress values again on every run.
+			for ( final T object : objects ) {
+				values.add( this.manager.snapshotValues( object ) );
+			}
+
+			if ( !LiveQuery.equals( values, this.lastValues ) && !this.isCancelled() ) {
+				this.lastValues = values;
+
+				this.listener.onChanged( objects );
+			}
+		} catch ( final Exception exception ) {
+			Log.e( LiveQuery.class.getSimpleName(), "Unable to run a live query.", exception );
+		}
+	}
+
+	/**
+	 * Schedules the query to run after the given delay, unless a run is already scheduled.
+	 *
+	 * @param delayMillis The number of milliseconds to wait before running the query.
+	 */
+	private synchronized void scheduleRun( final long delayMillis ) {
+		if ( !this.runScheduled && !this.cancelled ) {
+			this.runScheduled = true;
+
+			LiveQuery.SCHEDULED_EXECUTOR_SERVICE
+					.schedule( this.runRunnable, delayMillis, TimeUnit.MILLISECONDS );
+		}
+	}
+
+	/**
+	 * Starts watching the given {@link Uri} for changes and runs the query for the first time.
+	 *
+	 * @param uri The {@link Uri} to watch, along with all of its descendants.
+	 */
+	void start( final Uri uri ) {
+		this.contentResolver.registerContentObserver( uri, true, this.contentObserver );
+
+		this.scheduleRun( 0 );
+	}
+}
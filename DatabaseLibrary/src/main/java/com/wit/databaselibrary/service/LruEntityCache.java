@@ -0,0 +1,151 @@
+package com.wit.databaselibrary.service;
+
+import com.wit.databaselibrary.model.DatabaseObject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An {@link EntityCache} that evicts the least recently used {@link DatabaseObject}s once the
+ * total weight of the cached {@link DatabaseObject}s goes over a maximum.  By default, each
+ * {@link DatabaseObject} weighs 1, so the maximum is a number of entries, but a {@link Weigher}
+ * can be given to bound the cache by estimated size in bytes instead.
+ *
+ * @param <T> The type of {@link DatabaseObject} being cached.
+ */
+public class LruEntityCache<T extends DatabaseObject> implements EntityCache<T> {
+	/**
+	 * Estimates how much a cached {@link DatabaseObject} weighs, for example in bytes.
+	 *
+	 * @param <T> The type of {@link DatabaseObject} being weighed.
+	 */
+	public interface Weigher<T> {
+		/**
+		 * Returns the weight of the given {@link DatabaseObject}, which must not change while it
+		 * is cached.
+		 *
+		 * @param object The {@link DatabaseObject} to weigh.
+		 * @return The weight of the given {@link DatabaseObject}, which is at least 0.
+		 */
+		int weigh( T object );
+	}
+
+	private static final class Entry<T> {
+		private final T object;
+		private final int weight;
+
+		private Entry( final T object, final int weight ) {
+			this.object = object;
+			this.weight = weight;
+		}
+	}
+
+	private final Map<Long, Entry<T>> idsToEntries = new LinkedHashMap<Long, Entry<T>>( 16, 0.75f,
+			true );
+	private final long maximumWeight;
+	private final Weigher<T> weigher;
+	private long totalWeight = 0;
+	private long hitCount = 0;
+	private long missCount = 0;
+	private long evictionCount = 0;
+
+	/**
+	 * Creates a new {@link LruEntityCache} bounded by number of entries.
+	 *
+	 * @param maximumSize The maximum number of cached {@link DatabaseObject}s.
+	 */
+	public LruEntityCache( final int maximumSize ) {
+		this( maximumSize, new Weigher<T>() {
+			@Override
+			public int weigh( final T object ) {
+				return 1;
+			}
+		} );
+	}
+
+	/**
+	 * Creates a new {@link LruEntityCache} bounded by total weight.
+	 *
+	 * @param maximumWeight The maximum total weight of the cached {@link DatabaseObject}s.
+	 * @param weigher The {@link Weigher} used to weigh each {@link DatabaseObject}.
+	 */
+	public LruEntityCache( final long maximumWeight, final Weigher<T> weigher ) {
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+	}
+
+	@Override
+	public synchronized void clear() {
+		this.idsToEntries.clear();
+
+		this.totalWeight = 0;
+	}
+
+	@Override
+	public synchronized T get( final long id ) {
+		final Entry<T> entry = this.idsToEntries.get( id );
+		final T object;
+
+		if ( entry == null ) {
+			object = null;
+
+			this.missCount++;
+		} else {
+			object = entry.object;
+
+			this.hitCount++;
+		}
+
+		return object;
+	}
+
+	@Override
+	public synchronized long getEvictionCount() {
+		return this.evictionCount;
+	}
+
+	@Override
+	public synchronized long getHitCount() {
+		return this.hitCount;
+	}
+
+	@Override
+	public synchronized long getMissCount() {
+		return this.missCount;
+	}
+
+	@Override
+	public synchronized void put( final T object ) {
+		final long id = object.getId();
+		final int weight = this.weigher.weigh( object );
+
+		this.remove( id );
+
+		if ( weight <= this.maximumWeight ) {
+			this.idsToEntries.put( id, new Entry<T>( object, weight ) );
+
+			this.totalWeight += weight;
+		}
+
+		final Iterator<Entry<T>> iterator = this.idsToEntries.values().iterator();
+
+		while ( this.totalWeight > this.maximumWeight && iterator.hasNext() ) {
+			final Entry<T> eldestEntry = iterator.next();
+
+			iterator.remove();
+
+			this.totalWeight -= eldestEntry.weight;
+			this.evictionCount++;
+		}
+	}
+
+	@Override
+	public synchronized void remove( final long id ) {
+		final Entry<T> entry = this.idsToEntries.remove( id );
+
+		if ( entry != null ) {
+			this.totalWeight -= entry.weight;
+		}
+	}
+}
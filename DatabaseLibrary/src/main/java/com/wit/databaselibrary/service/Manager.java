@@ -7,42 +7,125 @@ import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.OperationApplicationException;
+import android.database.ContentObserver;
 import android.database.Cursor;
 import android.database.SQLException;
+import android.database.sqlite.SQLiteException;
 import android.net.Uri;
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 import android.os.RemoteException;
 import android.provider.BaseColumns;
+import android.text.TextUtils;
 import android.util.Log;
 import android.util.Pair;
 
 import com.wit.databaselibrary.annotation.Column;
+import com.wit.databaselibrary.annotation.Compressed;
 import com.wit.databaselibrary.contentprovider.StorageModificationException;
 import com.wit.databaselibrary.contentprovider.contract.Contract;
+import com.wit.databaselibrary.model.Aggregate;
+import com.wit.databaselibrary.model.CodedEnum;
 import com.wit.databaselibrary.model.ColumnType;
 import com.wit.databaselibrary.model.DatabaseObject;
 import com.wit.databaselibrary.model.Order;
+import com.wit.databaselibrary.model.Storage;
+import com.wit.databaselibrary.service.concurrent.NamedThreadFactory;
+import com.wit.databaselibrary.service.concurrent.PriorityExecutor;
+import com.wit.databaselibrary.service.concurrent.SettableFuture;
 import com.wit.databaselibrary.service.exception.InvalidClassDefinitionException;
+import com.wit.databaselibrary.service.exception.ReadThroughException;
 
 import org.apache.commons.lang3.tuple.Triple;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public abstract class Manager<T extends DatabaseObject> {
+	/**
+	 * The maximum number of queued saves committed by the {@link CommitQueue} in a single
+	 * transaction.
+	 */
+	private static final int MAXIMUM_COMMIT_BATCH_SIZE = 100;
+	/**
+	 * The alias of the result of an aggregate, by which a HAVING clause can refer to it.
+	 */
+	private static final String AGGREGATE_ALIAS = "_aggregate";
+	/**
+	 * The maximum number of IDs bound in a single query, which stays well under SQLite's limit of
+	 * 999 bound parameters.
+	 */
+	private static final int MAXIMUM_IDS_PER_QUERY = 500;
+	/**
+	 * The number of milliseconds to wait after a change before garbage collecting the files of
+	 * {@link Storage#EXTERNAL} columns, during which further changes are coalesced.
+	 */
+	private static final long LARGE_VALUE_COLLECTION_DELAY_MILLIS = 5000;
+	private static final String LARGE_VALUES_DIRECTORY_NAME = "large_values";
+	private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+	private static final ScheduledExecutorService LARGE_VALUE_COLLECTION_EXECUTOR_SERVICE =
+			Executors.newSingleThreadScheduledExecutor(
+					new NamedThreadFactory( LargeValueStore.class.getSimpleName() ) );
+	private static final ScheduledExecutorService QUERY_DEADLINE_EXECUTOR_SERVICE =
+			Executors.newSingleThreadScheduledExecutor(
+					new NamedThreadFactory( Manager.class.getSimpleName() + "-deadline" ) );
+	/**
+	 * Whether the calling thread is inside {@link #read(ReadTransaction)}, in which case the
+	 * caches are bypassed, since they may hold data from before or after the snapshot.
+	 */
+	private static final ThreadLocal<Boolean> IN_READ_TRANSACTION = new ThreadLocal<Boolean>();
+
 	private final ContentResolver contentResolver;
 	private final Class<T> parameterClass;
 	private final Contract<T> contract;
 	protected final String packageName;
+	private CommitQueue<T> commitQueue;
+	private WriteBehindBuffer<T> writeBehindBuffer;
+	private IdentityMap<T> identityMap;
+	private EntityCache<T> entityCache;
+	private QueryResultCache<T> queryResultCache;
+	private IdSet idSet;
+	private final File largeValuesDirectory;
+	private LargeValueStore largeValueStore;
+	private boolean largeValueCollectionScheduled = false;
+	private final ConcurrentHashMap<Long, SettableFuture<T>> idsToInFlightLoads =
+			new ConcurrentHashMap<Long, SettableFuture<T>>();
+	private boolean entityCacheCreated = false;
+	/**
+	 * Incremented by every invalidation, so that a {@link DatabaseObject} loaded before an
+	 * invalidation is not cached after it.
+	 */
+	private long cacheGeneration = 0;
+	private ContentObserver changeObserver;
+	private boolean shutdown = false;
 
 	protected Manager( final Context context, final Contract<T> contract,
 			final Class<T> parameterClass ) {
@@ -50,6 +133,108 @@ public abstract class Manager<T extends DatabaseObject> {
 		this.parameterClass = parameterClass;
 		this.contract = contract;
 		this.packageName = context.getPackageName();
+		this.largeValuesDirectory =
+				context.getDatabasePath( Manager.LARGE_VALUES_DIRECTORY_NAME );
+	}
+
+	/**
+	 * Computes the given aggregate over the given column for each group of
+	 * {@link DatabaseObject}s with the same value in the given column, without loading the
+	 * {@link DatabaseObject}s.
+	 *
+	 * @param aggregate The aggregate to compute.
+	 * @param columnName The column to compute the aggregate over.
+	 * @param groupByColumnName The column to group by.
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include, or {@code null} to include all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param havingClause The HAVING clause to use to narrow down the groups, excluding the
+	 * HAVING itself, which may refer to the aggregate as {@code _aggregate}, or {@code null} to
+	 * include all groups.
+	 * @param havingArgs The values to replace the placeholders with in the HAVING clause.
+	 * @param <K> The type of the field of the column to group by.
+	 * @param <V> The type of the result of the aggregate, as returned by {@link #avg},
+	 * {@link #countDistinct}, {@link #max}, {@link #min}, or {@link #sum}.
+	 * @return The aggregate of each group, by the value of the column to group by, in ascending
+	 * order of that value.
+	 * @throws IllegalArgumentException One of the given columns is unknown.
+	 */
+	public <K, V> Map<K, V> aggregate( final Aggregate aggregate, final String columnName,
+			final String groupByColumnName, final String selectionClause,
+			final List<String> selectionArgs, final String havingClause,
+			final List<String> havingArgs ) throws IllegalArgumentException {
+		final Field field = this.getColumnField( columnName );
+		final Field groupByField = this.getColumnField( groupByColumnName );
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority,
+				Collections.singletonList( groupByColumnName ), havingClause );
+		final String[] projection = new String[]{ groupByColumnName,
+				aggregate.getExpression( columnName ) + " AS " + Manager.AGGREGATE_ALIAS };
+		final List<String> args = new ArrayList<String>( selectionArgs );
+
+		args.addAll( havingArgs );
+
+		final String sortOrder = Manager.generateSortOrder(
+				Collections.singletonList( Pair.create( groupByColumnName, Order.ASCENDING ) ) );
+		final Cursor cursor = this.contentResolver.query( contentUri, projection, selectionClause,
+				args.toArray( new String[ args.size() ] ), sortOrder );
+		final Map<K, V> groupsToAggregates = new LinkedHashMap<K, V>();
+
+		if ( cursor != null ) {
+			final Column groupByColumn = groupByField.getAnnotation( Column.class );
+
+			while ( cursor.moveToNext() ) {
+				final Object group;
+
+				if ( cursor.isNull( 0 ) ) {
+					group = null;
+				} else {
+					group = this.readValue( cursor, 0, groupByField, groupByColumn );
+				}
+
+				groupsToAggregates.put( (K) group,
+						(V) this.readAggregate( cursor, 1, aggregate, field ) );
+			}
+
+			cursor.close();
+		}
+
+		return groupsToAggregates;
+	}
+
+	/**
+	 * Computes the given aggregate over the given column, without loading the
+	 * {@link DatabaseObject}s.
+	 *
+	 * @param aggregate The aggregate to compute.
+	 * @param columnName The column to compute the aggregate over.
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include, or {@code null} to include all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @return The aggregate, or {@code null} if it has no value.
+	 * @throws IllegalArgumentException The given column is unknown.
+	 */
+	private Object aggregate( final Aggregate aggregate, final String columnName,
+			final String selectionClause, final List<String> selectionArgs )
+			throws IllegalArgumentException {
+		final Field field = this.getColumnField( columnName );
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority );
+		final String[] projection = new String[]{
+				aggregate.getExpression( columnName ) + " AS " + Manager.AGGREGATE_ALIAS };
+		final Cursor cursor = this.contentResolver.query( contentUri, projection, selectionClause,
+				selectionArgs.toArray( new String[ selectionArgs.size() ] ), null );
+		Object value = null;
+
+		if ( cursor != null ) {
+			if ( cursor.moveToFirst() ) {
+				value = this.readAggregate( cursor, 0, aggregate, field );
+			}
+
+			cursor.close();
+		}
+
+		return value;
 	}
 
 	/**
@@ -98,21 +283,13 @@ public abstract class Manager<T extends DatabaseObject> {
 		contentProviderOperations.addAll( deletedObjectContentProviderOperations );
 
 		final List<Long> ids = new ArrayList<Long>();
+		final List<ContentProviderResult> contentProviderResults =
+				new ArrayList<ContentProviderResult>();
 
 		try {
-			final ContentProviderResult[] contentProviderResults =
-					this.contentResolver.applyBatch( authority, contentProviderOperations );
-
-			for ( final ContentProviderResult contentProviderResult : contentProviderResults ) {
-				final Uri uri = contentProviderResult.uri;
-
-				if ( uri != null ) {
-					final String idString = uri.getLastPathSegment();
-					final long id = Long.parseLong( idString );
+			this.applyBatch( authority, contentProviderOperations, contentProviderResults );
 
-					ids.add( id );
-				}
-			}
+			this.forget( objectsToDelete );
 		} catch ( final RemoteException remoteException ) {
 			Log.e( Manager.class.getSimpleName(),
 					"An error happened while attempting to communicate with a remote provider.",
@@ -127,13 +304,106 @@ public abstract class Manager<T extends DatabaseObject> {
 			}
 
 			throw new StorageModificationException( errorMessage, operationApplicationException );
+		} finally {
+			// The slices applied before a failure stay applied, so they are reflected either way.
+			// Deleted IDs are only forgotten on success, since the IdSet may hold extra IDs.
+			this.invalidate( objectsToUpdate );
+			this.invalidate( objectsToDelete );
+
+			for ( final ContentProviderResult contentProviderResult : contentProviderResults ) {
+				final Uri uri = contentProviderResult.uri;
+
+				if ( uri != null ) {
+					final String idString = uri.getLastPathSegment();
+					final long id = Long.parseLong( idString );
+
+					ids.add( id );
+					this.remember( id );
+				}
+			}
 		}
 
-		final List<T> savedObjects = this.get( ids );
+		final List<T> savedObjects = this.load( ids );
 
 		return savedObjects;
 	}
 
+	/**
+	 * Applies the given operations.  When called from the
+	 * {@link PriorityExecutor.Lane#BACKGROUND} lane of a {@link PriorityExecutor}, and
+	 * {@link #getBackgroundWriteSliceSize()} is set, they are applied in slices of that many
+	 * operations, each in its own transaction, so that the database is released between slices;
+	 * otherwise they are applied in a single transaction.
+	 *
+	 * @param authority The authority of the provider.
+	 * @param contentProviderOperations The operations to apply.
+	 * @param contentProviderResults The list to add the results of the operations to, in the
+	 * same order, as each slice is applied, so that it holds the results of the slices that were
+	 * applied before a failure.
+	 * @throws RemoteException The provider could not be reached.
+	 * @throws OperationApplicationException An operation failed, in which case the slices before
+	 * it stay applied.
+	 */
+	private void applyBatch( final String authority,
+			final ArrayList<ContentProviderOperation> contentProviderOperations,
+			final List<ContentProviderResult> contentProviderResults )
+			throws RemoteException, OperationApplicationException {
+		final int numberOfOperations = contentProviderOperations.size();
+		final int sliceSize;
+
+		if ( PriorityExecutor.getCurrentLane() == PriorityExecutor.Lane.BACKGROUND ) {
+			sliceSize = this.getBackgroundWriteSliceSize();
+		} else {
+			sliceSize = 0;
+		}
+
+		if ( sliceSize <= 0 || numberOfOperations <= sliceSize ) {
+			contentProviderResults.addAll( Arrays.asList(
+					this.contentResolver.applyBatch( authority, contentProviderOperations ) ) );
+		} else {
+			for ( int fromIndex = 0; fromIndex < numberOfOperations; fromIndex += sliceSize ) {
+				final int toIndex = Math.min( fromIndex + sliceSize, numberOfOperations );
+				final ArrayList<ContentProviderOperation> slice =
+						new ArrayList<ContentProviderOperation>(
+								contentProviderOperations.subList( fromIndex, toIndex ) );
+				contentProviderResults.addAll(
+						Arrays.asList( this.contentResolver.applyBatch( authority, slice ) ) );
+			}
+		}
+	}
+
+	/**
+	 * Computes the average of the given column, without loading the {@link DatabaseObject}s.
+	 *
+	 * @param columnName The column to average.
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include, or {@code null} to include all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @return The average of the non-null values, or {@code null} if there are none.
+	 * @throws IllegalArgumentException The given column is unknown.
+	 */
+	public Double avg( final String columnName, final String selectionClause,
+			final List<String> selectionArgs ) throws IllegalArgumentException {
+		return (Double) this.aggregate( Aggregate.AVG, columnName, selectionClause,
+				selectionArgs );
+	}
+
+	/**
+	 * Caches a copy of the given loaded {@link DatabaseObject}, unless something was invalidated
+	 * since it started loading, in which case it may already be stale.
+	 *
+	 * @param entityCache The {@link EntityCache} to cache the {@link DatabaseObject} in.
+	 * @param object The loaded {@link DatabaseObject}.
+	 * @param cacheGeneration The generation read before the {@link DatabaseObject} started
+	 * loading.
+	 */
+	private synchronized void cache( final EntityCache<T> entityCache, final T object,
+			final long cacheGeneration ) {
+		if ( this.cacheGeneration == cacheGeneration ) {
+			entityCache.put( this.copy( object ) );
+		}
+	}
+
 	protected Triple<List<T>, List<T>, List<T>> categorize( final Collection<T> existingObjects,
 			final Collection<T> newObjects ) {
 		final Map<Long, T> existingObjectIdsToSources = new HashMap<Long, T>();
@@ -174,6 +444,84 @@ public abstract class Manager<T extends DatabaseObject> {
 		return objectsToAddUpdateAndDeleteTriple;
 	}
 
+	/**
+	 * Deletes the files of {@link Storage#EXTERNAL} columns that are no longer referenced by any
+	 * row.
+	 */
+	private void collectLargeValueGarbage() {
+		if ( this.contract.hasExternalColumns() ) {
+			final LargeValueStore largeValueStore = this.getLargeValueStore();
+			final String authority = this.getAuthority();
+			final Uri contentUri = this.contract.getContentUri( authority );
+			final List<String> projection = this.contract.getExternalColumnNames();
+			final Cursor cursor = this.contentResolver
+					.query( contentUri, projection.toArray( new String[ projection.size() ] ),
+							null, null, null );
+
+			// Without the referenced keys, every file would look like an orphan.
+			if ( cursor != null ) {
+				final Set<String> referencedKeys = new HashSet<String>();
+
+				while ( cursor.moveToNext() ) {
+					for ( int index = 0; index < projection.size(); index++ ) {
+						if ( Manager.getType( cursor, index ) == Cursor.FIELD_TYPE_STRING ) {
+							referencedKeys.add( cursor.getString( index ) );
+						}
+					}
+				}
+
+				cursor.close();
+
+				largeValueStore.collectGarbage( referencedKeys );
+			}
+		}
+	}
+
+	/**
+	 * Creates a copy of the given {@link DatabaseObject}.
+	 *
+	 * @param object The {@link DatabaseObject} to copy.
+	 * @return A new object with all the same fields as the given {@link DatabaseObject}.
+	 */
+	private T copy( final T object ) {
+		final T copiedObject = this.createNewEmptyInstance();
+
+		this.populate( object, copiedObject );
+
+		return copiedObject;
+	}
+
+	/**
+	 * Counts the distinct values of the given column, without loading the
+	 * {@link DatabaseObject}s.
+	 *
+	 * @param columnName The column whose values to count.
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include, or {@code null} to include all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @return The number of distinct non-null values.
+	 * @throws IllegalArgumentException The given column is unknown.
+	 */
+	public int countDistinct( final String columnName, final String selectionClause,
+			final List<String> selectionArgs ) throws IllegalArgumentException {
+		final Integer count = (Integer) this.aggregate( Aggregate.COUNT_DISTINCT, columnName,
+				selectionClause, selectionArgs );
+
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Creates the {@link EntityCache} that {@link #get(long)} checks before querying, and that
+	 * is kept up-to-date by the saves and deletes done through this {@link Manager}, and by
+	 * change notifications for everything else, including changes made by other processes.
+	 * This is called at most once per {@link Manager}.
+	 *
+	 * @return The {@link EntityCache}, for example an {@link LruEntityCache}, or {@code null} to
+	 * not cache anything.
+	 */
+	protected EntityCache<T> createEntityCache() {
+		return null;
+	}
 
 	/**
 	 * Creates an empty instance of the parameter class passed into this {@link Manager}.
@@ -223,8 +571,13 @@ public abstract class Manager<T extends DatabaseObject> {
 		final ArrayList<ContentProviderOperation> contentProviderOperations =
 				new ArrayList<ContentProviderOperation>( this.processObjectsToDelete( objects ) );
 
+		final List<ContentProviderResult> contentProviderResults =
+				new ArrayList<ContentProviderResult>();
+
 		try {
-			this.contentResolver.applyBatch( authority, contentProviderOperations );
+			this.applyBatch( authority, contentProviderOperations, contentProviderResults );
+
+			this.forget( objects );
 		} catch ( final RemoteException remoteException ) {
 			Log.e( Manager.class.getSimpleName(),
 					"An error happened while attempting to communicate with a remote provider.",
@@ -232,6 +585,9 @@ public abstract class Manager<T extends DatabaseObject> {
 		} catch ( OperationApplicationException operationApplicationException ) {
 			throw new StorageModificationException( "A delete operation failed to be applied.",
 					operationApplicationException );
+		} finally {
+			// The slices applied before a failure stay applied.
+			this.invalidate( objects );
 		}
 	}
 
@@ -314,9 +670,120 @@ public abstract class Manager<T extends DatabaseObject> {
 		final int numberOfRowsDelete = this.contentResolver.delete( contentUri, whereClause,
 				whereArgs.toArray( new String[ whereArgs.size() ] ) );
 
+		this.invalidate( id );
+
+		final IdSet idSet;
+
+		synchronized ( this ) {
+			idSet = this.idSet;
+		}
+
+		if ( idSet != null && numberOfRowsDelete > 0 ) {
+			if ( id != null ) {
+				idSet.remove( id );
+			} else if ( whereClause == null ) {
+				idSet.clear();
+			}
+		}
+
 		return numberOfRowsDelete;
 	}
 
+	/**
+	 * Queues the given {@link DatabaseObject} to be saved by a single background writer, which
+	 * commits the saves queued by all threads in batches, one transaction per batch.  The same
+	 * rules as {@link #save(DatabaseObject)} apply.
+	 *
+	 * @param object The {@link DatabaseObject} to save/update.
+	 * @return A {@link Future} that completes once the save has been committed, with the newly
+	 * saved object, or {@code null} if no save was done.
+	 * @throws IllegalStateException This {@link Manager} has been shut down.
+	 */
+	public Future<T> enqueueSave( final T object ) throws IllegalStateException {
+		final CommitQueue<T> commitQueue = this.getCommitQueue();
+		final Future<T> future = commitQueue.enqueue( object );
+
+		return future;
+	}
+
+	/**
+	 * Writes out every save buffered through {@link #saveLater(DatabaseObject)} so far.
+	 *
+	 * @throws StorageModificationException The buffered saves failed to be written out.  They
+	 * remain buffered.
+	 */
+	public void flush() throws StorageModificationException {
+		final WriteBehindBuffer<T> writeBehindBuffer;
+
+		synchronized ( this ) {
+			writeBehindBuffer = this.writeBehindBuffer;
+		}
+
+		if ( writeBehindBuffer != null ) {
+			writeBehindBuffer.flush();
+		}
+	}
+
+	/**
+	 * Discards the {@link IdSet}, if there is one, so that it is loaded again the next time it is
+	 * needed.  A change notification that does not name the changed row may stand for inserts
+	 * that the {@link IdSet} would otherwise never learn about.
+	 */
+	private synchronized void forgetAll() {
+		this.idSet = null;
+	}
+
+	/**
+	 * Removes the IDs of the given deleted {@link DatabaseObject}s from the {@link IdSet}, if
+	 * there is one.
+	 *
+	 * @param objects The deleted {@link DatabaseObject}s.
+	 */
+	private void forget( final Collection<T> objects ) {
+		final IdSet idSet;
+
+		synchronized ( this ) {
+			idSet = this.idSet;
+		}
+
+		if ( idSet != null ) {
+			for ( final T object : objects ) {
+				final Long id = object.getId();
+
+				if ( id != null ) {
+					idSet.remove( id );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the sort order for the given columns to sort by.
+	 *
+	 * @param orderBys The columns to sort by, in order of precedence, or an empty list to sort by
+	 * ID.
+	 * @return The sort order to pass to the {@link ContentResolver}.
+	 */
+	private static String generateSortOrder( final List<Pair<String, Order>> orderBys ) {
+		final StringBuilder sortOrder = new StringBuilder();
+
+		if ( orderBys.isEmpty() ) {
+			sortOrder.append( BaseColumns._ID );
+		} else {
+			for ( final Pair<String, Order> orderBy : orderBys ) {
+				if ( sortOrder.length() != 0 ) {
+					sortOrder.append( ", " );
+				}
+
+				sortOrder.append( orderBy.first );
+				sortOrder.append( " " );
+				sortOrder.append( orderBy.second.getKeyword() );
+			}
+		}
+
+		return sortOrder.toString();
+	}
+
 	protected ContentValues generateContentValues( final T object ) {
 		final ContentValues contentValues = new ContentValues();
 		final Long id = object.getId();
@@ -329,18 +796,31 @@ public abstract class Manager<T extends DatabaseObject> {
 
 		final Field[] declaredFields = this.parameterClass.getDeclaredFields();
 
+		final Set<String> unloadedColumnNames = object.getUnloadedColumnNames();
+
 		for ( final Field declaredField : declaredFields ) {
 			final Column column = declaredField.getAnnotation( Column.class );
 
 			if ( column != null ) {
 				final String columnName = column.columnName();
 
+				// Unloaded columns are left out, so that saving does not overwrite their values.
 				if ( !columnName.equals( BaseColumns._ID ) &&
-						!columnName.equals( Contract.Columns.VERSION ) ) {
+						!columnName.equals( Contract.Columns.VERSION ) &&
+						!unloadedColumnNames.contains( columnName ) ) {
 					final ColumnType columnType = column.columnType();
 					final String name = declaredField.getName();
-					final String getterMethodName = "get" + name.substring( 0, 1 ).toUpperCase() +
+					final String capitalizedName = name.substring( 0, 1 ).toUpperCase() +
 							name.substring( 1 );
+					final String getterMethodName;
+
+					if ( columnType == ColumnType.BOOLEAN &&
+							this.hasDeclaredMethod( "is" + capitalizedName ) ) {
+						getterMethodName = "is" + capitalizedName;
+					} else {
+						getterMethodName = "get" + capitalizedName;
+					}
+
 					final Method declaredGetterMethod;
 
 					try {
@@ -431,8 +911,105 @@ public abstract class Manager<T extends DatabaseObject> {
 										invocationTargetException );
 							}
 
+							final Compressed compressed =
+									declaredField.getAnnotation( Compressed.class );
+							final byte[] bytes;
+
+							if ( compressed == null || value == null ) {
+								bytes = null;
+							} else {
+								bytes = value.getBytes( Manager.UTF_8 );
+							}
+
+							// Compressed strings are stored as BLOBs, which tells them apart.
+							if ( bytes != null && bytes.length >= compressed.minimumSize() ) {
+								contentValues.put( columnName, ValueCompressor.compress( bytes ) );
+							} else {
+								contentValues.put( columnName, value );
+							}
+
+							break;
+						}
+						case BLOB: {
+							final Object value = this.invokeGetter( object, declaredGetterMethod,
+									columnType );
+
+							if ( value == null ) {
+								contentValues.putNull( columnName );
+							} else {
+								final byte[] bytes;
+
+								if ( value instanceof ByteBuffer ) {
+									final ByteBuffer byteBuffer =
+											( (ByteBuffer) value ).duplicate();
+
+									bytes = new byte[ byteBuffer.remaining() ];
+
+									byteBuffer.get( bytes );
+								} else {
+									bytes = (byte[]) value;
+								}
+
+								final Compressed compressed =
+										declaredField.getAnnotation( Compressed.class );
+
+								if ( column.storage() == Storage.EXTERNAL ) {
+									contentValues.put( columnName,
+											this.storeLargeValue( columnName, bytes ) );
+								} else if ( compressed != null &&
+										( bytes.length >= compressed.minimumSize() ||
+												ValueCompressor.isCompressed( bytes ) ) ) {
+									// Small values that look compressed are compressed anyway,
+									// so that they are not mistaken for compressed values.
+									contentValues.put( columnName,
+											ValueCompressor.compress( bytes ) );
+								} else {
+									contentValues.put( columnName, bytes );
+								}
+							}
+
+							break;
+						}
+						case BOOLEAN: {
+							final Boolean value = (Boolean) this.invokeGetter( object,
+									declaredGetterMethod, columnType );
+
+							if ( value == null ) {
+								contentValues.putNull( columnName );
+							} else {
+								contentValues.put( columnName, value ? 1 : 0 );
+							}
+
+							break;
+						}
+						case DOUBLE: {
+							final Double value = (Double) this.invokeGetter( object,
+									declaredGetterMethod, columnType );
+
+							contentValues.put( columnName, value );
+
+							break;
+						}
+						case FLOAT: {
+							final Float value = (Float) this.invokeGetter( object,
+									declaredGetterMethod, columnType );
+
 							contentValues.put( columnName, value );
 
+							break;
+						}
+						case ENUM: {
+							final Enum<?> value = (Enum<?>) this.invokeGetter( object,
+									declaredGetterMethod, columnType );
+
+							if ( value == null ) {
+								contentValues.putNull( columnName );
+							} else if ( value instanceof CodedEnum ) {
+								contentValues.put( columnName, ( (CodedEnum) value ).getCode() );
+							} else {
+								contentValues.put( columnName, value.ordinal() );
+							}
+
 							break;
 						}
 					}
@@ -443,41 +1020,309 @@ public abstract class Manager<T extends DatabaseObject> {
 		return contentValues;
 	}
 
-	public List<T> get() {
-		final String authority = this.getAuthority();
-		final Uri contentUri = this.contract.getContentUri( authority );
-		final List<String> projection = this.contract.getColumnNames();
-		final Cursor cursor = this.contentResolver
-				.query( contentUri, projection.toArray( new String[ projection.size() ] ), null,
-						null, null );
-		final List<T> objects;
+	/**
+	 * Returns the ID, the version and the values of the loaded columns of the given
+	 * {@link DatabaseObject}, as returned by its getters.  Unlike
+	 * {@link #generateContentValues(DatabaseObject)}, nothing is stored, compressed or copied,
+	 * so this is safe to call just to find out whether the {@link DatabaseObject} has changed.
+	 * {@code byte[]} values are compared by content by {@link Arrays#deepEquals(Object[],
+	 * Object[])}, and {@link ByteBuffer}s by their remaining content.
+	 *
+	 * @param object The {@link DatabaseObject} whose values to return.
+	 * @return The values of the given {@link DatabaseObject}.
+	 */
+	Object[] snapshotValues( final T object ) {
+		final List<Object> values = new ArrayList<Object>();
+		final Set<String> unloadedColumnNames = object.getUnloadedColumnNames();
 
-		if ( cursor == null ) {
-			objects = Collections.emptyList();
-		} else {
-			objects = this.getAll( cursor );
+		values.add( object.getId() );
+		values.add( object.getVersion() );
 
-			cursor.close();
-		}
+		for ( final Field declaredField : this.parameterClass.getDeclaredFields() ) {
+			final Column column = declaredField.getAnnotation( Column.class );
 
-		return objects;
-	}
+			if ( column != null ) {
+				final String columnName = column.columnName();
 
-	protected T get( final Cursor cursor ) {
-		final T databaseObject = this.createNewEmptyInstance();
+				if ( !columnName.equals( BaseColumns._ID ) &&
+						!columnName.equals( Contract.Columns.VERSION ) &&
+						!unloadedColumnNames.contains( columnName ) ) {
+					final ColumnType columnType = column.columnType();
+					final String name = declaredField.getName();
+					final String capitalizedName = name.substring( 0, 1 ).toUpperCase() +
+							name.substring( 1 );
+					final String getterMethodName;
 
-		this.populate( databaseObject, cursor );
+					if ( columnType == ColumnType.BOOLEAN &&
+							this.hasDeclaredMethod( "is" + capitalizedName ) ) {
+						getterMethodName = "is" + capitalizedName;
+					} else {
+						getterMethodName = "get" + capitalizedName;
+					}
+
+					final Method declaredGetterMethod;
+
+					try {
+						declaredGetterMethod = this.parameterClass
+								.getDeclaredMethod( getterMethodName, new Class<?>[ 0 ] );
+					} catch ( final NoSuchMethodException noSuchMethodException ) {
+						throw new InvalidClassDefinitionException( "Unable to get find method '" +
+								getterMethodName + "()'.", noSuchMethodException );
+					}
+
+					values.add( this.invokeGetter( object, declaredGetterMethod, columnType ) );
+				}
+			}
+		}
+
+		return values.toArray();
+	}
+
+	public List<T> get() {
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority );
+		final List<String> projection = this.contract.getDefaultColumnNames();
+		final Cursor cursor = this.contentResolver
+				.query( contentUri, projection.toArray( new String[ projection.size() ] ), null,
+						null, null );
+		final List<T> objects;
+
+		if ( cursor == null ) {
+			objects = Collections.emptyList();
+		} else {
+			objects = this.getAll( cursor );
+
+			cursor.close();
+		}
+
+		return objects;
+	}
+
+	protected T get( final Cursor cursor ) {
+		final IdentityMap<T> identityMap =
+				Manager.isInReadTransaction() ? null : this.getIdentityMap();
+		final List<String> columnNames = this.contract.getDefaultColumnNames();
+		T databaseObject = null;
+
+		if ( identityMap != null && cursor.getColumnCount() >= columnNames.size() ) {
+			final long id = cursor.getLong( cursor.getColumnIndex( BaseColumns._ID ) );
+			final long version =
+					cursor.getLong( cursor.getColumnIndex( Contract.Columns.VERSION ) );
+
+			databaseObject = identityMap.get( id, version );
+
+			if ( databaseObject == null ) {
+				databaseObject = this.createNewEmptyInstance();
+
+				this.populate( databaseObject, cursor );
+				databaseObject.setUnloadedColumnNames( this.getUnloadedColumnNames( cursor ) );
+				identityMap.put( databaseObject );
+			}
+		}
+
+		if ( databaseObject == null ) {
+			databaseObject = this.createNewEmptyInstance();
+
+			this.populate( databaseObject, cursor );
+			databaseObject.setUnloadedColumnNames( this.getUnloadedColumnNames( cursor ) );
+		}
 
 		return databaseObject;
 	}
 
-	private List<T> get( final Collection<Long> ids ) {
+	/**
+	 * Gets the given columns of the {@link DatabaseObject}s that satisfy the given selection
+	 * criteria, mapped to the given type without loading the other columns.
+	 *
+	 * @param targetClass The type to map each row to.
+	 * @param projection The columns to get.
+	 * @param selectionClause The selection clause to use to narrow down the rows to get.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param <D> The type to map each row to.
+	 * @return The rows, mapped to the given type.
+	 * @throws IllegalArgumentException The given type cannot be mapped to.
+	 * @see #get(Class, List, String, List, List, int)
+	 */
+	public <D> List<D> get( final Class<D> targetClass, final List<String> projection,
+			final String selectionClause, final List<String> selectionArgs )
+			throws IllegalArgumentException {
+		final List<Pair<String, Order>> orderBys = Collections.emptyList();
+		final Integer limit = null;
+		final List<D> rows = this.project( targetClass, projection, selectionClause, selectionArgs,
+				orderBys, limit );
+
+		return rows;
+	}
+
+	/**
+	 * Gets the given columns of the {@link DatabaseObject}s that satisfy the given selection
+	 * criteria, mapped to the given type without loading the other columns.  The type can be:
+	 * <ul>
+	 * <li>the type of {@link DatabaseObject} of this {@link Manager}, whose columns outside of
+	 * the projection are left unloaded, as with deferred columns;</li>
+	 * <li>a class with a no-argument constructor and {@link Column} fields, whose fields outside
+	 * of the projection are left untouched;</li>
+	 * <li>an interface whose {@code getX()}, {@code isX()}, or {@code x()} methods return the
+	 * value of the column of field {@code x} of the {@link DatabaseObject}, and throw an
+	 * {@link IllegalStateException} if that column is not in the projection;</li>
+	 * <li>{@code Object[]}, for the values of the projection in order, which may also contain
+	 * expressions.</li>
+	 * </ul>
+	 *
+	 * @param targetClass The type to map each row to.
+	 * @param projection The columns to get.
+	 * @param selectionClause The selection clause to use to narrow down the rows to get.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param orderBys The columns to sort by, in order of precedence.
+	 * @param limit The maximum number of rows to get.
+	 * @param <D> The type to map each row to.
+	 * @return The rows, mapped to the given type.
+	 * @throws IllegalArgumentException The given type cannot be mapped to.
+	 */
+	public <D> List<D> get( final Class<D> targetClass, final List<String> projection,
+			final String selectionClause, final List<String> selectionArgs,
+			final List<Pair<String, Order>> orderBys, final int limit )
+			throws IllegalArgumentException {
+		final List<D> rows = this.project( targetClass, projection, selectionClause, selectionArgs,
+				orderBys, (Integer) limit );
+
+		return rows;
+	}
+
+	/**
+	 * Gets the {@link DatabaseObject}s with the given IDs.  In read-through mode, the ones that
+	 * are not saved locally are loaded by the {@link ReadThroughLoader} and then saved.
+	 *
+	 * @param ids The IDs of the {@link DatabaseObject}s to get.
+	 * @return The {@link DatabaseObject}s that were found, in any order.
+	 * @throws ReadThroughException The {@link ReadThroughLoader} failed.
+	 * @see #getReadThroughLoader()
+	 */
+	public List<T> get( final Collection<Long> ids ) throws ReadThroughException {
+		final ReadThroughLoader<T> readThroughLoader = this.getReadThroughLoader();
+		final List<T> objects;
+
+		if ( readThroughLoader == null ) {
+			objects = this.load( ids );
+		} else {
+			objects = this.readThrough( ids, readThroughLoader );
+		}
+
+		return objects;
+	}
+
+	public List<T> get( final List<String> projection, final List<Pair<String, Order>> orderBys,
+			final List<String> groupByColumns ) {
+		final String selectionClause = null;
+		final List<String> selectionArgs = Collections.emptyList();
+		final Integer limit = null;
+		final List<T> objects =
+				this.get( projection, selectionClause, selectionArgs, orderBys, groupByColumns,
+						limit );
+
+		return objects;
+	}
+
+	/**
+	 * Gets the {@link DatabaseObject} with the given ID.  In read-through mode, it is loaded by
+	 * the {@link ReadThroughLoader} and then saved if it is not saved locally.
+	 *
+	 * @param id The ID of the {@link DatabaseObject} to get.
+	 * @return The {@link DatabaseObject}, or {@code null} if there is none with the given ID.
+	 * @throws ReadThroughException The {@link ReadThroughLoader} failed.
+	 * @see #getReadThroughLoader()
+	 */
+	public T get( final long id ) throws ReadThroughException {
+		final IdentityMap<T> identityMap =
+				Manager.isInReadTransaction() ? null : this.getIdentityMap();
+		final EntityCache<T> entityCache =
+				Manager.isInReadTransaction() ? null : this.getEntityCache();
+		final long cacheGeneration;
+		T object = null;
+
+		synchronized ( this ) {
+			cacheGeneration = this.cacheGeneration;
+		}
+
+		if ( entityCache != null ) {
+			final T cachedObject = entityCache.get( id );
+
+			if ( cachedObject != null ) {
+				if ( identityMap != null ) {
+					object = identityMap.get( id, cachedObject.getVersion() );
+				}
+
+				if ( object == null ) {
+					object = this.copy( cachedObject );
+
+					if ( identityMap != null ) {
+						identityMap.put( object );
+					}
+				}
+			}
+		}
+
+		if ( object == null ) {
+			final ReadThroughLoader<T> readThroughLoader = this.getReadThroughLoader();
+
+			if ( readThroughLoader == null ) {
+				object = this.load( id );
+			} else {
+				final List<T> objects =
+						this.readThrough( Collections.singletonList( id ), readThroughLoader );
+
+				if ( !objects.isEmpty() ) {
+					object = objects.get( 0 );
+				}
+			}
+
+			if ( object != null && entityCache != null ) {
+				this.cache( entityCache, object, cacheGeneration );
+			}
+		}
+
+		return object;
+	}
+
+	/**
+	 * Queries for the saved versions of the given {@link DatabaseObject}s.
+	 *
+	 * @param objects The {@link DatabaseObject}s.
+	 * @param skipUnsaved Whether to skip the externally managed IDs that the {@link IdSet} knows
+	 * are not saved.  It may miss a save that has not been notified yet.
+	 * @return The saved versions of the given {@link DatabaseObject}s, in any order.
+	 */
+	private List<T> loadExisting( final Collection<T> objects, final boolean skipUnsaved ) {
+		final List<Long> ids = new ArrayList<Long>();
+
+		for ( final T object : objects ) {
+			final Long id = object.getId();
+
+			if ( id != null && ( !skipUnsaved || !object.isIdManagedExternally() ||
+					this.mightExist( id ) ) ) {
+				ids.add( id );
+			}
+		}
+
+		final List<T> existingObjects = this.load( ids );
+
+		return existingObjects;
+	}
+
+	/**
+	 * Queries for the {@link DatabaseObject}s with the given IDs, bypassing the
+	 * {@link ReadThroughLoader}.
+	 *
+	 * @param ids The IDs of the {@link DatabaseObject}s.
+	 * @return The {@link DatabaseObject}s that were found, in any order.
+	 */
+	private List<T> load( final Collection<Long> ids ) {
 		final List<T> objects = new ArrayList<T>();
 
 		if ( !ids.isEmpty() ) {
 			final String authority = this.getAuthority();
 			final Uri contentUri = this.contract.getContentUri( authority );
-			final List<String> projection = this.contract.getColumnNames();
+			final List<String> projection = this.contract.getDefaultColumnNames();
 			String selectionClause = BaseColumns._ID + " IN (?)";
 			final List<String> selectionArgs = new ArrayList<String>();
 			final StringBuilder idsString = new StringBuilder();
@@ -513,22 +1358,104 @@ public abstract class Manager<T extends DatabaseObject> {
 		return objects;
 	}
 
-	public List<T> get( final List<String> projection, final List<Pair<String, Order>> orderBys,
-			final List<String> groupByColumns ) {
-		final String selectionClause = null;
-		final List<String> selectionArgs = Collections.emptyList();
-		final Integer limit = null;
-		final List<T> objects =
-				this.get( projection, selectionClause, selectionArgs, orderBys, groupByColumns,
-						limit );
+	/**
+	 * Loads the values of the deferred columns that have not been loaded into the given
+	 * {@link DatabaseObject}.
+	 *
+	 * @param object The {@link DatabaseObject} to complete.
+	 * @see #loadDeferred(Collection)
+	 */
+	public void loadDeferred( final T object ) {
+		this.loadDeferred( Collections.singletonList( object ) );
+	}
 
-		return objects;
+	/**
+	 * Loads the values of the deferred columns that have not been loaded into the given
+	 * {@link DatabaseObject}s, with one query per batch of IDs rather than one per
+	 * {@link DatabaseObject}.  {@link DatabaseObject}s that are no longer saved are left as they
+	 * are.
+	 *
+	 * @param objects The {@link DatabaseObject}s to complete.
+	 * @see Column#deferred()
+	 */
+	public void loadDeferred( final Collection<T> objects ) {
+		final Map<Long, List<T>> idsToObjects = new LinkedHashMap<Long, List<T>>();
+		final Set<String> unloadedColumnNames = new LinkedHashSet<String>();
+
+		for ( final T object : objects ) {
+			final Long id = object.getId();
+
+			if ( id != null && !object.getUnloadedColumnNames().isEmpty() ) {
+				List<T> objectsWithId = idsToObjects.get( id );
+
+				if ( objectsWithId == null ) {
+					objectsWithId = new ArrayList<T>();
+
+					idsToObjects.put( id, objectsWithId );
+				}
+
+				objectsWithId.add( object );
+				unloadedColumnNames.addAll( object.getUnloadedColumnNames() );
+			}
+		}
+
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority );
+		final List<String> projection = new ArrayList<String>();
+
+		projection.add( BaseColumns._ID );
+		projection.addAll( unloadedColumnNames );
+
+		final List<Long> ids = new ArrayList<Long>( idsToObjects.keySet() );
+
+		for ( int start = 0; start < ids.size(); start += Manager.MAXIMUM_IDS_PER_QUERY ) {
+			final List<Long> batchIds =
+					ids.subList( start, Math.min( start + Manager.MAXIMUM_IDS_PER_QUERY,
+							ids.size() ) );
+			final List<String> selectionArgs = new ArrayList<String>();
+
+			for ( final Long batchId : batchIds ) {
+				selectionArgs.add( String.valueOf( batchId ) );
+			}
+
+			final String selectionClause = BaseColumns._ID + " IN (" +
+					TextUtils.join( ", ", Collections.nCopies( batchIds.size(), "?" ) ) + ")";
+			final Cursor cursor = this.contentResolver
+					.query( contentUri, projection.toArray( new String[ projection.size() ] ),
+							selectionClause,
+							selectionArgs.toArray( new String[ selectionArgs.size() ] ), null );
+
+			if ( cursor != null ) {
+				while ( cursor.moveToNext() ) {
+					final long id = cursor.getLong( 0 );
+
+					for ( final T object : idsToObjects.get( id ) ) {
+						final Set<String> stillUnloadedColumnNames =
+								new HashSet<String>( object.getUnloadedColumnNames() );
+
+						this.populate( object, cursor );
+
+						stillUnloadedColumnNames.removeAll( unloadedColumnNames );
+						object.setUnloadedColumnNames( stillUnloadedColumnNames );
+					}
+				}
+
+				cursor.close();
+			}
+		}
 	}
 
-	public T get( final long id ) {
+	/**
+	 * Queries for the {@link DatabaseObject} with the given ID, bypassing the
+	 * {@link EntityCache}.
+	 *
+	 * @param id The ID of the {@link DatabaseObject}.
+	 * @return The {@link DatabaseObject}, or {@code null} if there is none with the given ID.
+	 */
+	private T load( final long id ) {
 		final String authority = this.getAuthority();
 		final Uri contentUri = this.contract.getContentUri( authority );
-		final List<String> projection = this.contract.getColumnNames();
+		final List<String> projection = this.contract.getDefaultColumnNames();
 		final String selectionClause = BaseColumns._ID + " = ?";
 		final List<String> selectionArgs = new ArrayList<String>();
 
@@ -556,7 +1483,7 @@ public abstract class Manager<T extends DatabaseObject> {
 	}
 
 	public List<T> get( final String selectionClause, final List<String> selectionArgs ) {
-		final List<String> projection = this.contract.getColumnNames();
+		final List<String> projection = this.contract.getDefaultColumnNames();
 		final List<Pair<String, Order>> orderBys = Collections.emptyList();
 		final List<String> groupByColumns = Collections.emptyList();
 		final Integer limit = null;
@@ -569,7 +1496,7 @@ public abstract class Manager<T extends DatabaseObject> {
 
 	public List<T> get( final String selectionClause, final List<String> selectionArgs,
 			final int limit ) {
-		final List<String> projection = this.contract.getColumnNames();
+		final List<String> projection = this.contract.getDefaultColumnNames();
 		final List<Pair<String, Order>> orderBys = Collections.emptyList();
 		final List<String> groupByColumns = Collections.emptyList();
 		final List<T> objects =
@@ -581,7 +1508,7 @@ public abstract class Manager<T extends DatabaseObject> {
 
 	public List<T> get( final String selectionClause, final List<String> selectionArgs,
 			final List<Pair<String, Order>> orderBys, final int limit ) {
-		final List<String> projection = this.contract.getColumnNames();
+		final List<String> projection = this.contract.getDefaultColumnNames();
 		final List<String> groupByColumns = Collections.emptyList();
 		final List<T> objects =
 				this.get( projection, selectionClause, selectionArgs, orderBys, groupByColumns,
@@ -590,76 +1517,170 @@ public abstract class Manager<T extends DatabaseObject> {
 		return objects;
 	}
 
+	/**
+	 * Queries for the {@link DatabaseObject}s that satisfy the given selection criteria, stopping
+	 * as soon as the given {@link CancellationSignal} is cancelled or the given deadline passes,
+	 * so that a query whose result is no longer needed releases its connection right away.
+	 *
+	 * @param selectionClause The selection clause, or {@code null} if there is none.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param orderBys The columns to sort by, in order of precedence, or an empty list to sort by
+	 * ID.
+	 * @param cancellationSignal The {@link CancellationSignal} to cancel the query with, or
+	 * {@code null} to only stop it at the deadline.  It is cancelled when the deadline passes.
+	 * @param timeoutMillis The number of milliseconds after which the query is cancelled, or 0
+	 * for no deadline.
+	 * @return The {@link DatabaseObject}s.
+	 * @throws OperationCanceledException The query was cancelled, or did not finish in time.
+	 */
+	public List<T> get( final String selectionClause, final List<String> selectionArgs,
+			final List<Pair<String, Order>> orderBys, final CancellationSignal cancellationSignal,
+			final long timeoutMillis ) throws OperationCanceledException {
+		final List<String> projection = this.contract.getDefaultColumnNames();
+		final List<String> groupByColumns = Collections.emptyList();
+		final Integer limit = null;
+		final Integer offset = null;
+		final List<T> objects =
+				this.get( projection, selectionClause, selectionArgs, orderBys, groupByColumns,
+						limit, offset, cancellationSignal, timeoutMillis );
+
+		return objects;
+	}
+
 	private List<T> get( final List<String> projection, final String selectionClause,
 			final List<String> selectionArgs, final List<Pair<String, Order>> orderBys,
 			final List<String> groupByColumns, final Integer limit ) {
-		final String authority = this.getAuthority();
-		final Uri contentUri = this.contract.getContentUri( authority );
-		final StringBuilder selectionAndGroupByClauseStringBuilder = new StringBuilder();
+		final Integer offset = null;
+		final List<T> objects =
+				this.get( projection, selectionClause, selectionArgs, orderBys, groupByColumns,
+						limit, offset );
 
-		if ( selectionClause == null ) {
-			if ( !groupByColumns.isEmpty() ) {
-				selectionAndGroupByClauseStringBuilder.append( "1 = 1" );
-			}
-		} else {
-			selectionAndGroupByClauseStringBuilder.append( selectionClause );
-		}
+		return objects;
+	}
 
-		if ( !groupByColumns.isEmpty() ) {
-			selectionAndGroupByClauseStringBuilder.append( ") GROUP BY (" );
+	/**
+	 * Queries for the {@link DatabaseObject}s that satisfy the given criteria.
+	 *
+	 * @param projection The columns to load.
+	 * @param selectionClause The selection clause, or {@code null} if there is none.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param orderBys The columns to sort by, in order of precedence, or an empty list to sort by
+	 * ID.
+	 * @param groupByColumns The columns to group by, or an empty list to not group the rows.
+	 * @param limit The maximum number of {@link DatabaseObject}s, or {@code null} if there is
+	 * none.
+	 * @param offset The number of {@link DatabaseObject}s to skip, or {@code null} to not skip
+	 * any.
+	 * @return The {@link DatabaseObject}s.
+	 * @throws OperationCanceledException The query did not finish before the deadline set by
+	 * {@link #getQueryTimeoutMillis()}.
+	 */
+	List<T> get( final List<String> projection, final String selectionClause,
+			final List<String> selectionArgs, final List<Pair<String, Order>> orderBys,
+			final List<String> groupByColumns, final Integer limit, final Integer offset )
+			throws OperationCanceledException {
+		final CancellationSignal cancellationSignal = null;
+		final long timeoutMillis = this.getQueryTimeoutMillis();
+		final List<T> objects =
+				this.get( projection, selectionClause, selectionArgs, orderBys, groupByColumns,
+						limit, offset, cancellationSignal, timeoutMillis );
 
-			for ( final String groupByColumn : groupByColumns ) {
-				if ( groupByColumns.indexOf( groupByColumn ) != 0 ) {
-					selectionAndGroupByClauseStringBuilder.append( ", " );
-				}
+		return objects;
+	}
 
-				selectionAndGroupByClauseStringBuilder.append( groupByColumn );
+	/**
+	 * Queries for the {@link DatabaseObject}s that satisfy the given criteria, stopping as soon as
+	 * the given {@link CancellationSignal} is cancelled or the given deadline passes.
+	 *
+	 * @param projection The columns to load.
+	 * @param selectionClause The selection clause, or {@code null} if there is none.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param orderBys The columns to sort by, in order of precedence, or an empty list to sort by
+	 * ID.
+	 * @param groupByColumns The columns to group by, or an empty list to not group the rows.
+	 * @param limit The maximum number of {@link DatabaseObject}s, or {@code null} if there is
+	 * none.
+	 * @param offset The number of {@link DatabaseObject}s to skip, or {@code null} to not skip
+	 * any.
+	 * @param cancellationSignal The {@link CancellationSignal} to cancel the query with, or
+	 * {@code null} to only stop it at the deadline.
+	 * @param timeoutMillis The number of milliseconds after which the query is cancelled, or 0
+	 * for no deadline.
+	 * @return The {@link DatabaseObject}s.
+	 * @throws OperationCanceledException The query was cancelled, or did not finish in time.
+	 */
+	List<T> get( final List<String> projection, final String selectionClause,
+			final List<String> selectionArgs, final List<Pair<String, Order>> orderBys,
+			final List<String> groupByColumns, final Integer limit, final Integer offset,
+			final CancellationSignal cancellationSignal, final long timeoutMillis )
+			throws OperationCanceledException {
+		final String authority = this.getAuthority();
+		final String havingClause = null;
+		final Uri contentUri = this.contract
+				.getContentUri( authority, groupByColumns, havingClause, limit, offset );
+		final String sortOrder = Manager.generateSortOrder( orderBys );
+		final QueryResultCache<T> queryResultCache = this.getQueryResultCache();
+		final List<String> columnNames = this.contract.getDefaultColumnNames();
+		List<Object> queryResultCacheKey = null;
+		List<T> cachedObjects = null;
+		long queryResultCacheGeneration = 0;
+
+		if ( queryResultCache != null && !Manager.isInReadTransaction() &&
+				groupByColumns.isEmpty() && projection.equals( columnNames ) ) {
+			final String normalizedSelectionClause;
+
+			if ( selectionClause == null ) {
+				normalizedSelectionClause = "";
+			} else {
+				normalizedSelectionClause = selectionClause.trim();
 			}
+
+			queryResultCacheKey = Arrays.<Object>asList( normalizedSelectionClause,
+					new ArrayList<String>( selectionArgs ), sortOrder, limit, offset );
+			queryResultCacheGeneration = queryResultCache.getGeneration();
+			cachedObjects = queryResultCache.get( queryResultCacheKey );
 		}
 
-		final String selectionAndGroupByClause = selectionAndGroupByClauseStringBuilder.toString();
-		StringBuilder sortOrder = new StringBuilder();
+		final List<T> objects = new ArrayList<T>();
 
-		if ( orderBys.isEmpty() ) {
-			sortOrder.append( BaseColumns._ID );
-		} else {
-			for ( final Pair<String, Order> orderBy : orderBys ) {
-				if ( sortOrder.length() != 0 ) {
-					sortOrder.append( ", " );
+		if ( cachedObjects == null ) {
+			final Cursor cursor =
+					this.query( contentUri, projection.toArray( new String[ projection.size() ] ),
+							selectionClause, selectionArgs.toArray(
+									new String[ selectionArgs.size() ] ), sortOrder,
+							cancellationSignal, timeoutMillis );
+
+			if ( cursor != null ) {
+				while ( cursor.moveToNext() ) {
+					final T object = this.get( cursor );
+
+					objects.add( object );
 				}
 
-				sortOrder.append( orderBy.first );
-				sortOrder.append( " " );
-				sortOrder.append( orderBy.second.getKeyword() );
+				cursor.close();
 			}
-		}
-
-		if ( limit != null ) {
-			sortOrder.append( " LIMIT " + limit );
-		}
 
-		final Cursor cursor = this.contentResolver
-				.query( contentUri, projection.toArray( new String[ projection.size() ] ),
-						selectionAndGroupByClause,
-						selectionArgs.toArray( new String[ selectionArgs.size() ] ),
-						sortOrder.toString() );
-		final List<T> objects = new ArrayList<T>();
+			if ( queryResultCacheKey != null ) {
+				final List<T> copiedObjects = new ArrayList<T>();
 
-		if ( cursor != null ) {
-			while ( cursor.moveToNext() ) {
-				final T object = this.get( cursor );
+				for ( final T object : objects ) {
+					copiedObjects.add( this.copy( object ) );
+				}
 
-				objects.add( object );
+				queryResultCache.put( queryResultCacheKey, copiedObjects,
+						queryResultCacheGeneration );
+			}
+		} else {
+			for ( final T cachedObject : cachedObjects ) {
+				objects.add( this.copy( cachedObject ) );
 			}
-
-			cursor.close();
 		}
 
 		return objects;
 	}
 
 	private List<T> get( final Uri uri ) {
-		final List<String> projection = this.contract.getColumnNames();
+		final List<String> projection = this.contract.getDefaultColumnNames();
 		final Cursor cursor = this.contentResolver
 				.query( uri, projection.toArray( new String[ projection.size() ] ), null, null,
 						null );
@@ -709,6 +1730,306 @@ public abstract class Manager<T extends DatabaseObject> {
 
 	protected abstract String getAuthority();
 
+	/**
+	 * Returns the maximum number of operations applied in a single transaction by the saves,
+	 * replaces, and deletes of collections that run in the
+	 * {@link PriorityExecutor.Lane#BACKGROUND} lane of a {@link PriorityExecutor}.  The database
+	 * is released between two slices, so that a large sync does not hold up foreground writes,
+	 * and reads without write-ahead logging, for its whole duration.  Slicing is off by
+	 * default, because a background write that fails part way then leaves the slices before the
+	 * failure applied, so it is no longer atomic.
+	 *
+	 * @return The maximum number of operations in a slice, or 0 to apply every background write
+	 * in a single transaction.
+	 */
+	protected int getBackgroundWriteSliceSize() {
+		return 0;
+	}
+
+	/**
+	 * Returns the {@link Column} field with the given column name.
+	 *
+	 * @param columnName The name of the column.
+	 * @return The {@link Column} field with the given column name.
+	 * @throws IllegalArgumentException There is no column with the given name.
+	 */
+	private Field getColumnField( final String columnName ) throws IllegalArgumentException {
+		final Field field = this.getColumnNamesToFields().get( columnName );
+
+		if ( field == null ) {
+			throw new IllegalArgumentException( "Found unknown column '" + columnName + "'." );
+		}
+
+		return field;
+	}
+
+	/**
+	 * Returns the {@link Column} fields of the {@link DatabaseObject}, by column name.
+	 *
+	 * @return The {@link Column} fields of the {@link DatabaseObject}, by column name.
+	 */
+	private Map<String, Field> getColumnNamesToFields() {
+		final Map<String, Field> columnNamesToFields = new HashMap<String, Field>();
+
+		for ( final Field field : this.getAllDeclaredFieldsInHierarchy( this.parameterClass ) ) {
+			final Column column = field.getAnnotation( Column.class );
+
+			if ( column != null ) {
+				columnNamesToFields.put( column.columnName(), field );
+			}
+		}
+
+		return columnNamesToFields;
+	}
+
+	/**
+	 * Returns the {@link CommitQueue} used by {@link #enqueueSave(DatabaseObject)}, creating it
+	 * if needed.
+	 *
+	 * @return The {@link CommitQueue} used by {@link #enqueueSave(DatabaseObject)}.
+	 * @throws IllegalStateException This {@link Manager} has been shut down.
+	 */
+	private synchronized CommitQueue<T> getCommitQueue() throws IllegalStateException {
+		if ( this.shutdown ) {
+			throw new IllegalStateException( "The manager has been shut down." );
+		} else if ( this.commitQueue == null ) {
+			this.commitQueue = new CommitQueue<T>( this, Manager.MAXIMUM_COMMIT_BATCH_SIZE );
+		}
+
+		return this.commitQueue;
+	}
+
+	/**
+	 * Returns the {@link WriteBehindBuffer} used by {@link #saveLater(DatabaseObject)}, creating
+	 * it if needed.
+	 *
+	 * @return The {@link WriteBehindBuffer} used by {@link #saveLater(DatabaseObject)}.
+	 * @throws IllegalStateException This {@link Manager} has been shut down.
+	 */
+	private synchronized WriteBehindBuffer<T> getWriteBehindBuffer() throws IllegalStateException {
+		if ( this.shutdown ) {
+			throw new IllegalStateException( "The manager has been shut down." );
+		} else if ( this.writeBehindBuffer == null ) {
+			final int writeBehindBufferSize = this.getWriteBehindBufferSize();
+			final long writeBehindFlushDelayMillis = this.getWriteBehindFlushDelayMillis();
+
+			this.writeBehindBuffer = new WriteBehindBuffer<T>( this, writeBehindBufferSize,
+					writeBehindFlushDelayMillis );
+		}
+
+		return this.writeBehindBuffer;
+	}
+
+	/**
+	 * Returns the number of objects buffered by {@link #saveLater(DatabaseObject)} that triggers
+	 * a flush.
+	 *
+	 * @return The number of objects buffered by {@link #saveLater(DatabaseObject)} that triggers
+	 * a flush.
+	 */
+	protected int getWriteBehindBufferSize() {
+		return 100;
+	}
+
+	/**
+	 * Returns the maximum number of milliseconds a save is buffered for by
+	 * {@link #saveLater(DatabaseObject)}.
+	 *
+	 * @return The maximum number of milliseconds a save is buffered for by
+	 * {@link #saveLater(DatabaseObject)}.
+	 */
+	protected long getWriteBehindFlushDelayMillis() {
+		return 1000;
+	}
+
+	/**
+	 * Returns the number of milliseconds a {@link LiveQuery} waits after a change notification
+	 * before running its query again, during which further notifications are coalesced.
+	 *
+	 * @return The number of milliseconds a {@link LiveQuery} waits after a change notification
+	 * before running its query again.
+	 */
+	protected long getLiveQueryDebounceMillis() {
+		return 100;
+	}
+
+	/**
+	 * Returns the {@link ReadThroughLoader} that puts this {@link Manager} in read-through mode.
+	 * {@link #get(long)} and {@link #get(Collection)} then load the {@link DatabaseObject}s that
+	 * are not saved locally through it, and save what it returns in a single batch.  Concurrent
+	 * requests for the same missing ID share a single load, both from local storage and from
+	 * the {@link ReadThroughLoader}.
+	 *
+	 * @return The {@link ReadThroughLoader}, or {@code null} to only read from local storage.
+	 */
+	protected ReadThroughLoader<T> getReadThroughLoader() {
+		return null;
+	}
+
+	/**
+	 * Returns the {@link EntityCache} of this {@link Manager}, creating it if needed.
+	 *
+	 * @return The {@link EntityCache} of this {@link Manager}, or {@code null} if there is none.
+	 */
+	public synchronized EntityCache<T> getEntityCache() {
+		if ( !this.entityCacheCreated ) {
+			this.entityCache = this.createEntityCache();
+			this.entityCacheCreated = true;
+
+			if ( this.entityCache != null ) {
+				this.registerChangeObserver();
+			}
+		}
+
+		return this.entityCache;
+	}
+
+	/**
+	 * Returns the {@link IdSet} of this {@link Manager}, creating it if needed.  The first call
+	 * loads every saved ID with a query that reads only the ID column.  Until that query is
+	 * done, the {@link IdSet} reports every ID as possibly saved.
+	 *
+	 * @return The {@link IdSet} of this {@link Manager}, or {@code null} if it is disabled.
+	 */
+	private IdSet getIdSet() {
+		final IdSet idSet;
+		boolean load = false;
+
+		synchronized ( this ) {
+			if ( this.idSet == null && this.isIdSetEnabled() ) {
+				this.idSet = new IdSet();
+
+				load = true;
+
+				this.registerChangeObserver();
+			}
+
+			idSet = this.idSet;
+		}
+
+		if ( load ) {
+			final String authority = this.getAuthority();
+			final Uri contentUri = this.contract.getContentUri( authority );
+			final String[] projection = new String[]{ BaseColumns._ID };
+			final Cursor cursor =
+					this.contentResolver.query( contentUri, projection, null, null, null );
+
+			if ( cursor != null ) {
+				while ( cursor.moveToNext() ) {
+					idSet.add( cursor.getLong( 0 ) );
+				}
+
+				cursor.close();
+
+				idSet.setLoaded();
+			}
+		}
+
+		return idSet;
+	}
+
+	/**
+	 * Returns the {@link IdentityMap} of this {@link Manager}, creating it if needed.
+	 *
+	 * @return The {@link IdentityMap} of this {@link Manager}, or {@code null} if it is disabled.
+	 */
+	private synchronized IdentityMap<T> getIdentityMap() {
+		if ( this.identityMap == null && this.isIdentityMapEnabled() ) {
+			this.identityMap = new IdentityMap<T>();
+
+			this.registerChangeObserver();
+		}
+
+		return this.identityMap;
+	}
+
+	/**
+	 * Returns the {@link LargeValueStore} of this {@link Manager}, creating it if needed.  It is
+	 * available even without {@link Storage#EXTERNAL} columns, so that values stored before a
+	 * column was switched back to {@link Storage#INLINE} can still be read.
+	 *
+	 * @return The {@link LargeValueStore} of this {@link Manager}.
+	 */
+	private synchronized LargeValueStore getLargeValueStore() {
+		if ( this.largeValueStore == null ) {
+			this.largeValueStore = new LargeValueStore(
+					new File( this.largeValuesDirectory, this.contract.getTableName() ) );
+		}
+
+		return this.largeValueStore;
+	}
+
+	/**
+	 * Returns the names of the columns that are missing from the given {@link Cursor}.
+	 *
+	 * @param cursor The {@link Cursor} the {@link DatabaseObject} was loaded from.
+	 * @return The names of the columns that are missing from the given {@link Cursor}.
+	 */
+	private Set<String> getUnloadedColumnNames( final Cursor cursor ) {
+		final List<String> columnNames = this.contract.getColumnNames();
+		final Set<String> unloadedColumnNames;
+
+		if ( cursor.getColumnCount() < columnNames.size() ) {
+			unloadedColumnNames = new HashSet<String>();
+
+			for ( final String columnName : columnNames ) {
+				if ( cursor.getColumnIndex( columnName ) == -1 ) {
+					unloadedColumnNames.add( columnName );
+				}
+			}
+		} else {
+			unloadedColumnNames = Collections.emptySet();
+		}
+
+		return unloadedColumnNames;
+	}
+
+	/**
+	 * Returns the {@link QueryResultCache} of this {@link Manager}, creating it if needed.
+	 *
+	 * @return The {@link QueryResultCache} of this {@link Manager}, or {@code null} if it is
+	 * disabled.
+	 */
+	private synchronized QueryResultCache<T> getQueryResultCache() {
+		if ( this.queryResultCache == null ) {
+			final int queryResultCacheSize = this.getQueryResultCacheSize();
+
+			if ( queryResultCacheSize > 0 ) {
+				this.queryResultCache = new QueryResultCache<T>( queryResultCacheSize );
+
+				this.registerChangeObserver();
+			}
+		}
+
+		return this.queryResultCache;
+	}
+
+	/**
+	 * Returns the maximum number of list query results to cache.  When it is more than 0, the
+	 * results of the {@code get} methods that take a selection clause are cached by their
+	 * selection clause, selection arguments, order and limit, so that running the same query
+	 * again does not touch storage at all.  The whole cache is cleared whenever anything in the
+	 * table changes, whether through this {@link Manager} or not.
+	 *
+	 * @return The maximum number of list query results to cache, or 0 to not cache any.
+	 */
+	protected int getQueryResultCacheSize() {
+		return 0;
+	}
+
+	/**
+	 * Returns the default deadline of the {@code get} methods that take a selection clause, and of
+	 * {@link #getCount(String, List)}.  A query that runs longer is interrupted by SQLite, and
+	 * fails with an {@link OperationCanceledException}, so that a runaway query cannot hold on to
+	 * a connection and a thread indefinitely.  Queries cannot be cancelled before Jelly Bean, so
+	 * there they have no deadline.
+	 *
+	 * @return The number of milliseconds after which a query is cancelled, or 0 for no deadline.
+	 */
+	protected long getQueryTimeoutMillis() {
+		return 0;
+	}
+
 	/**
 	 * Returns the number of {@link DatabaseObject}s that are saved.
 	 *
@@ -736,11 +2057,39 @@ public abstract class Manager<T extends DatabaseObject> {
 	 * criteria.
 	 */
 	public final int getCount( final String selectionClause, final List<String> selectionArgs ) {
+		final CancellationSignal cancellationSignal = null;
+		final long timeoutMillis = this.getQueryTimeoutMillis();
+		final int count =
+				this.getCount( selectionClause, selectionArgs, cancellationSignal, timeoutMillis );
+
+		return count;
+	}
+
+	/**
+	 * Returns the number of {@link DatabaseObject}s that are saved that satisfy the given
+	 * selection criteria, stopping as soon as the given {@link CancellationSignal} is cancelled or
+	 * the given deadline passes.
+	 *
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include in the count.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param cancellationSignal The {@link CancellationSignal} to cancel the query with, or
+	 * {@code null} to only stop it at the deadline.  It is cancelled when the deadline passes.
+	 * @param timeoutMillis The number of milliseconds after which the query is cancelled, or 0
+	 * for no deadline.
+	 * @return The number of {@link DatabaseObject}s that are saved that satisfy the given
+	 * selection criteria.
+	 * @throws OperationCanceledException The query was cancelled, or did not finish in time.
+	 */
+	public final int getCount( final String selectionClause, final List<String> selectionArgs,
+			final CancellationSignal cancellationSignal, final long timeoutMillis )
+			throws OperationCanceledException {
 		final String authority = this.getAuthority();
 		final Uri contentUri = this.contract.getContentUri( authority );
-		final String[] projection = new String[]{ "count(*)" };
-		final Cursor cursor = this.contentResolver.query( contentUri, projection, selectionClause,
-				selectionArgs.toArray( new String[ selectionArgs.size() ] ), null );
+		final String[] projection = new String[]{ Contract.COUNT_PROJECTION };
+		final Cursor cursor = this.query( contentUri, projection, selectionClause,
+				selectionArgs.toArray( new String[ selectionArgs.size() ] ), null,
+				cancellationSignal, timeoutMillis );
 		final int cursorCount = cursor.getCount();
 		final int count;
 
@@ -757,6 +2106,179 @@ public abstract class Manager<T extends DatabaseObject> {
 		return count;
 	}
 
+	private boolean hasDeclaredMethod( final String methodName ) {
+		boolean hasDeclaredMethod;
+
+		try {
+			this.parameterClass.getDeclaredMethod( methodName, new Class<?>[ 0 ] );
+
+			hasDeclaredMethod = true;
+		} catch ( final NoSuchMethodException noSuchMethodException ) {
+			hasDeclaredMethod = false;
+		}
+
+		return hasDeclaredMethod;
+	}
+
+	/**
+	 * Discards anything kept in memory about the {@link DatabaseObject} with the given ID, because
+	 * it has been changed.
+	 *
+	 * @param id The ID of the changed {@link DatabaseObject}, or {@code null} if any
+	 * {@link DatabaseObject} may have changed.
+	 */
+	private void invalidate( final Long id ) {
+		final IdentityMap<T> identityMap;
+		final EntityCache<T> entityCache;
+		final QueryResultCache<T> queryResultCache;
+
+		synchronized ( this ) {
+			identityMap = this.identityMap;
+			entityCache = this.entityCache;
+			queryResultCache = this.queryResultCache;
+
+			this.cacheGeneration++;
+		}
+
+		if ( queryResultCache != null ) {
+			queryResultCache.clear();
+		}
+
+		if ( identityMap != null ) {
+			if ( id == null ) {
+				identityMap.clear();
+			} else {
+				identityMap.remove( id );
+			}
+		}
+
+		if ( entityCache != null ) {
+			if ( id == null ) {
+				entityCache.clear();
+			} else {
+				entityCache.remove( id );
+			}
+		}
+
+		this.scheduleLargeValueCollection();
+	}
+
+	/**
+	 * Discards anything kept in memory about the given {@link DatabaseObject}s, because they have
+	 * been changed.
+	 *
+	 * @param objects The changed {@link DatabaseObject}s.
+	 */
+	private void invalidate( final Collection<T> objects ) {
+		for ( final T object : objects ) {
+			final Long id = object.getId();
+
+			if ( id != null ) {
+				this.invalidate( id );
+			}
+		}
+	}
+
+	private static boolean isInReadTransaction() {
+		return Manager.IN_READ_TRANSACTION.get() != null;
+	}
+
+	/**
+	 * Returns whether this {@link Manager} keeps an {@link IdSet} of every saved ID, so that
+	 * saving {@link DatabaseObject}s with externally managed IDs that have never been saved
+	 * skips the query for their saved versions.  It costs one query of the ID column, the first
+	 * time it is needed, and about 16 bytes of memory per saved {@link DatabaseObject}.  It is
+	 * kept up-to-date by the saves and deletes done through this {@link Manager}, and by change
+	 * notifications for everything else.  A notification that does not name the changed row
+	 * discards it, so that it is loaded again, and a save that still finds an ID it missed
+	 * already saved is retried with every ID looked up.
+	 *
+	 * @return Whether this {@link Manager} keeps an {@link IdSet} of every saved ID.
+	 */
+	protected boolean isIdSetEnabled() {
+		return false;
+	}
+
+	/**
+	 * Returns whether this {@link Manager} keeps an identity map, so that loading a
+	 * {@link DatabaseObject} that is already in memory, with the same version, returns the
+	 * instance in memory instead of a new one.  The version is always checked against storage,
+	 * or against the {@link EntityCache}, so that an instance loaded while a change was being
+	 * committed is never handed out as current.  The identity map is kept up-to-date by the saves
+	 * and deletes done through this {@link Manager}, and by change notifications for everything
+	 * else.  Since the same instance is handed out to every caller, a change made to it without
+	 * saving it is seen by every caller too.
+	 *
+	 * @return Whether this {@link Manager} keeps an identity map.
+	 */
+	protected boolean isIdentityMapEnabled() {
+		return false;
+	}
+
+	/**
+	 * Returns the value returned by the given getter of the given {@link DatabaseObject}.
+	 *
+	 * @param object The {@link DatabaseObject} to get the value from.
+	 * @param getterMethod The getter to invoke.
+	 * @param columnType The type of the column the value is for.
+	 * @return The value returned by the given getter.
+	 */
+	private Object invokeGetter( final T object, final Method getterMethod,
+			final ColumnType columnType ) {
+		final Object value;
+
+		try {
+			value = getterMethod.invoke( object, new Object[ 0 ] );
+		} catch ( final IllegalAccessException illegalAccessException ) {
+			throw new IllegalStateException( "Unable to get value of type '" + columnType +
+					"' from method '" + getterMethod.getName() + "()'.", illegalAccessException );
+		} catch ( final InvocationTargetException invocationTargetException ) {
+			throw new IllegalStateException( "Unable to get value of type '" + columnType +
+					"' from method '" + getterMethod.getName() + "()'.",
+					invocationTargetException );
+		}
+
+		return value;
+	}
+
+	/**
+	 * Maps the value of a {@link Storage#EXTERNAL} column into memory.
+	 *
+	 * @param columnName The name of the column.
+	 * @param key The reference held by the row.
+	 * @return A read-only {@link ByteBuffer} over the value.
+	 * @throws IllegalStateException The value could not be mapped.
+	 */
+	private ByteBuffer mapLargeValue( final String columnName, final String key )
+			throws IllegalStateException {
+		final ByteBuffer byteBuffer;
+
+		try {
+			byteBuffer = this.getLargeValueStore().map( key );
+		} catch ( final IOException ioException ) {
+			throw new IllegalStateException( "Unable to read value '" + key + "' of column '" +
+					columnName + "'.", ioException );
+		}
+
+		return byteBuffer;
+	}
+
+	/**
+	 * Finds the largest value of the given column, without loading the {@link DatabaseObject}s.
+	 *
+	 * @param columnName The column whose values to compare.
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include, or {@code null} to include all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param <V> The type of the field of the column.
+	 * @return The largest value, or {@code null} if there are no non-null values.
+	 * @throws IllegalArgumentException The given column is unknown.
+	 */
+	public <V> V max( final String columnName, final String selectionClause,
+			final List<String> selectionArgs ) throws IllegalArgumentException {
+		return (V) this.aggregate( Aggregate.MAX, columnName, selectionClause, selectionArgs );
+	}
+
 	/**
 	 * Creates a new object of type {@link T} with all the same fields as an existing object of
 	 * type
@@ -791,35 +2313,126 @@ public abstract class Manager<T extends DatabaseObject> {
 		return newObject;
 	}
 
-	private T performSave( final T object ) {
-		final String authority = this.getAuthority();
-		final Uri contentUri = this.contract.getContentUri( authority );
-		final ContentValues contentValues = this.generateContentValues( object );
-		final Uri uri = this.contentResolver.insert( contentUri, contentValues );
-		final String idString = uri.getLastPathSegment();
-		final long id = Long.parseLong( idString );
-		final T mergedObject = this.merge( object, id );
-
-		return mergedObject;
+	/**
+	 * Finds the smallest value of the given column, without loading the {@link DatabaseObject}s.
+	 *
+	 * @param columnName The column whose values to compare.
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include, or {@code null} to include all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param <V> The type of the field of the column.
+	 * @return The smallest value, or {@code null} if there are no non-null values.
+	 * @throws IllegalArgumentException The given column is unknown.
+	 */
+	public <V> V min( final String columnName, final String selectionClause,
+			final List<String> selectionArgs ) throws IllegalArgumentException {
+		return (V) this.aggregate( Aggregate.MIN, columnName, selectionClause, selectionArgs );
 	}
 
 	/**
-	 * Updates the stored data related to the given {@link DatabaseObject} with the data in that
-	 * {@link DatabaseObject}.
+	 * Returns whether a {@link DatabaseObject} with the given ID may be saved.
 	 *
-	 * @param object The {@link DatabaseObject} to use in the update.
-	 * @return The updated {@link DatabaseObject} from local storage or null if no update was done.
-	 * @throws IllegalArgumentException The given {@link DatabaseObject} is managed internally and
-	 * it is out of sync with local storage.
-	 * @throws IllegalStateException The given {@link DatabaseObject} has already been deleted from
-	 * local storage.
+	 * @param id The ID of the {@link DatabaseObject}.
+	 * @return {@code false} if it is definitely not saved, or {@code true} if it may be.
 	 */
-	private T performUpdate( final T object )
-			throws IllegalArgumentException, IllegalStateException {
-		final String authority = this.getAuthority();
-		final long id = object.getId();
-		final StringBuilder whereClauseBuilder = new StringBuilder();
-		final List<String> whereArgs = new ArrayList<String>();
+	private boolean mightExist( final long id ) {
+		// Only used for externally managed IDs.  A save made through another Manager may not
+		// have been notified yet, in which case the insert fails and is handled like any other
+		// duplicate insert.
+		final IdSet idSet = this.getIdSet();
+		final boolean mightExist = idSet == null || idSet.mightContain( id );
+
+		return mightExist;
+	}
+
+	/**
+	 * Watches the {@link DatabaseObject}s that satisfy the given selection criteria.  The query
+	 * runs right away and again whenever the stored {@link DatabaseObject}s change, and the given
+	 * {@link LiveQuery.Listener} receives each result that differs from the previous one.
+	 *
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to watch, or {@code null} to watch all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param listener The {@link LiveQuery.Listener} to deliver results to, on a background
+	 * thread.
+	 * @return The {@link LiveQuery}, which must be cancelled once the results are no longer
+	 * needed.
+	 */
+	public LiveQuery<T> observe( final String selectionClause, final List<String> selectionArgs,
+			final LiveQuery.Listener<T> listener ) {
+		final List<Pair<String, Order>> orderBys = Collections.emptyList();
+		final LiveQuery<T> liveQuery =
+				this.observe( selectionClause, selectionArgs, orderBys, listener );
+
+		return liveQuery;
+	}
+
+	/**
+	 * Watches the {@link DatabaseObject}s that satisfy the given selection criteria.  The query
+	 * runs right away and again whenever the stored {@link DatabaseObject}s change, and the given
+	 * {@link LiveQuery.Listener} receives each result that differs from the previous one.
+	 *
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to watch, or {@code null} to watch all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param orderBys The columns to sort by, in order of precedence.
+	 * @param listener The {@link LiveQuery.Listener} to deliver results to, on a background
+	 * thread.
+	 * @return The {@link LiveQuery}, which must be cancelled once the results are no longer
+	 * needed.
+	 */
+	public LiveQuery<T> observe( final String selectionClause, final List<String> selectionArgs,
+			final List<Pair<String, Order>> orderBys, final LiveQuery.Listener<T> listener ) {
+		final List<String> projection = this.contract.getDefaultColumnNames();
+		final List<String> groupByColumns = Collections.emptyList();
+		final Integer limit = null;
+		final Callable<List<T>> query = new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return Manager.this.get( projection, selectionClause, selectionArgs, orderBys,
+						groupByColumns, limit );
+			}
+		};
+		final long debounceMillis = this.getLiveQueryDebounceMillis();
+		final LiveQuery<T> liveQuery =
+				new LiveQuery<T>( this, this.contentResolver, query, listener, debounceMillis );
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority );
+
+		liveQuery.start( contentUri );
+
+		return liveQuery;
+	}
+
+	private T performSave( final T object ) {
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority );
+		final ContentValues contentValues = this.generateContentValues( object );
+		final Uri uri = this.contentResolver.insert( contentUri, contentValues );
+		final String idString = uri.getLastPathSegment();
+		final long id = Long.parseLong( idString );
+		final T mergedObject = this.merge( object, id );
+
+		return mergedObject;
+	}
+
+	/**
+	 * Updates the stored data related to the given {@link DatabaseObject} with the data in that
+	 * {@link DatabaseObject}.
+	 *
+	 * @param object The {@link DatabaseObject} to use in the update.
+	 * @return The updated {@link DatabaseObject} from local storage or null if no update was done.
+	 * @throws IllegalArgumentException The given {@link DatabaseObject} is managed internally and
+	 * it is out of sync with local storage.
+	 * @throws IllegalStateException The given {@link DatabaseObject} has already been deleted from
+	 * local storage.
+	 */
+	private T performUpdate( final T object )
+			throws IllegalArgumentException, IllegalStateException {
+		final String authority = this.getAuthority();
+		final long id = object.getId();
+		final StringBuilder whereClauseBuilder = new StringBuilder();
+		final List<String> whereArgs = new ArrayList<String>();
 
 		whereClauseBuilder.append( BaseColumns._ID + " = ?" );
 		whereArgs.add( String.valueOf( id ) );
@@ -879,34 +2492,17 @@ public abstract class Manager<T extends DatabaseObject> {
 
 		for ( final Field declaredField : declaredFields ) {
 			final Column column = declaredField.getAnnotation( Column.class );
+			final int index;
 
-			if (column != null) {
-				final String columnName = column.columnName();
-				final int index = cursor.getColumnIndex( columnName );
-				final ColumnType columnType = column.columnType();
-				final Object value;
-
-				switch ( columnType ) {
-					case DATE:
-						value = new Date( cursor.getLong( index ) );
-
-						break;
-					case INTEGER:
-						value = cursor.getInt( index );
-
-						break;
-					case LONG:
-						value = cursor.getLong( index );
-
-						break;
-					case STRING:
-						value = cursor.getString( index );
-
-						break;
-					default:
-						throw new IllegalArgumentException( "Found unknown column type '" +
-								columnType + "'." );
-				}
+			if ( column == null ) {
+				index = -1;
+			} else {
+				index = cursor.getColumnIndex( column.columnName() );
+			}
+
+			// Columns left out of the projection keep the value they already have.
+			if ( index != -1 ) {
+				final Object value = this.readValue( cursor, index, declaredField, column );
 
 				try {
 					declaredField.setAccessible( true );
@@ -998,50 +2594,711 @@ public abstract class Manager<T extends DatabaseObject> {
 			builder.withSelection( selectionClause,
 					selectionArgs.toArray( new String[ selectionArgs.size() ] ) );
 
-			final ContentProviderOperation objectToDeleteContentProviderOperation = builder
-					.build();
+			final ContentProviderOperation objectToDeleteContentProviderOperation = builder
+					.build();
+
+			contentProviderOperations.add( objectToDeleteContentProviderOperation );
+		}
+
+		return contentProviderOperations;
+	}
+
+	/**
+	 * Creates an "update" {@link ContentProviderOperation} for each of the given objects.
+	 *
+	 * @param objectsToUpdate The objects to create {@link ContentProviderOperation} for.
+	 * @return The created {@link ContentProviderOperation}s.
+	 */
+	private List<ContentProviderOperation> processObjectsToUpdate(
+			final Collection<T> objectsToUpdate ) {
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority );
+		final List<ContentProviderOperation> contentProviderOperations =
+				new ArrayList<ContentProviderOperation>();
+
+		for ( final T objectToUpdate : objectsToUpdate ) {
+			final long id = objectToUpdate.getId();
+			final Uri modifiedObjectUri = ContentUris.withAppendedId( contentUri, id );
+			final ContentProviderOperation.Builder builder =
+					ContentProviderOperation.newUpdate( modifiedObjectUri );
+			final ContentValues contentValues = this.generateContentValues( objectToUpdate );
+			final String selectionClause = BaseColumns._ID + " = ?";
+			final List<String> selectionArgs = new ArrayList<String>();
+
+			selectionArgs.add( String.valueOf( id ) );
+
+			builder.withSelection( selectionClause,
+					selectionArgs.toArray( new String[ selectionArgs.size() ] ) );
+			builder.withValues( contentValues );
+
+			final ContentProviderOperation objectToUpdateContentProviderOperation = builder
+					.build();
+
+			contentProviderOperations.add( objectToUpdateContentProviderOperation );
+		}
+
+		return contentProviderOperations;
+	}
+
+	/**
+	 * Starts a typed {@link Query} over the {@link DatabaseObject}s this {@link Manager} manages.
+	 *
+	 * @return A new {@link Query}, which matches every {@link DatabaseObject} until conditions are
+	 * added.
+	 */
+	public Query<T> query() {
+		return new Query<T>( this, this.contract );
+	}
+
+	/**
+	 * Runs a query through the {@link ContentResolver}, which passes the
+	 * {@link CancellationSignal} on to the provider, even in another process.  Queries cannot be
+	 * cancelled before Jelly Bean, so there the signal and the deadline are ignored.
+	 *
+	 * @param contentUri The {@link Uri} to query.
+	 * @param projection The columns to return.
+	 * @param selectionClause The selection clause, or {@code null} if there is none.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param sortOrder The sort order, or {@code null} for the default one.
+	 * @param cancellationSignal The {@link CancellationSignal} to cancel the query with, or
+	 * {@code null} to only stop it at the deadline.  It is cancelled when the deadline passes.
+	 * @param timeoutMillis The number of milliseconds after which the query is cancelled, or 0
+	 * for no deadline.
+	 * @return The {@link Cursor}, or {@code null} if the provider could not be reached.
+	 * @throws OperationCanceledException The query was cancelled, or did not finish in time.
+	 */
+	private Cursor query( final Uri contentUri, final String[] projection,
+			final String selectionClause, final String[] selectionArgs, final String sortOrder,
+			final CancellationSignal cancellationSignal, final long timeoutMillis )
+			throws OperationCanceledException {
+		final Cursor cursor;
+
+		if ( Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ) {
+			final CancellationSignal querySignal;
+
+			if ( cancellationSignal == null && timeoutMillis > 0 ) {
+				querySignal = new CancellationSignal();
+			} else {
+				querySignal = cancellationSignal;
+			}
+
+			final ScheduledFuture<?> deadline;
+
+			if ( timeoutMillis > 0 ) {
+				deadline = Manager.QUERY_DEADLINE_EXECUTOR_SERVICE.schedule( new Runnable() {
+					@Override
+					public void run() {
+						querySignal.cancel();
+					}
+				}, timeoutMillis, TimeUnit.MILLISECONDS );
+			} else {
+				deadline = null;
+			}
+
+			try {
+				cursor = this.contentResolver.query( contentUri, projection, selectionClause,
+						selectionArgs, sortOrder, querySignal );
+			} finally {
+				if ( deadline != null ) {
+					deadline.cancel( false );
+				}
+			}
+		} else {
+			cursor = this.contentResolver.query( contentUri, projection, selectionClause,
+					selectionArgs, sortOrder );
+		}
+
+		return cursor;
+	}
+
+	/**
+	 * Runs the given reads inside a single read transaction, so that they all see the same
+	 * snapshot of the database, even if a sync commits meanwhile, and all run on one connection
+	 * instead of acquiring one each.  Reads through other {@link Manager}s of the same provider
+	 * are part of the transaction too, as long as they run on the calling thread.  Writers wait
+	 * for the transaction to end, and so do reads on other threads unless the provider enables
+	 * its read connection pool, so the reads should be short.  The caches and the identity map
+	 * of this {@link Manager} are bypassed during the transaction.  Calls may be nested, in
+	 * which case the inner ones join the outer transaction.
+	 *
+	 * @param readTransaction The reads to run.
+	 * @param <V> The type of the result of the reads.
+	 * @return The result of the reads.
+	 * @throws IllegalStateException The provider is in another process, where a transaction
+	 * cannot span several calls.
+	 */
+	public <V> V read( final ReadTransaction<V> readTransaction ) throws IllegalStateException {
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority );
+		final boolean outermost = !Manager.isInReadTransaction();
+
+		this.contentResolver.call( contentUri, Contract.BEGIN_READ_METHOD, null, null );
+
+		final V result;
+
+		try {
+			if ( outermost ) {
+				Manager.IN_READ_TRANSACTION.set( true );
+			}
+
+			result = readTransaction.read();
+		} finally {
+			if ( outermost ) {
+				Manager.IN_READ_TRANSACTION.remove();
+			}
+
+			this.contentResolver.call( contentUri, Contract.END_READ_METHOD, null, null );
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the {@link DatabaseObject}s with the given IDs, loading the ones that are not saved
+	 * locally through the given {@link ReadThroughLoader} and saving them.  Each ID is loaded by
+	 * only one thread at a time, and other threads asking for the same ID wait for that load
+	 * instead of starting their own.
+	 *
+	 * @param ids The IDs of the {@link DatabaseObject}s to get.
+	 * @param readThroughLoader The {@link ReadThroughLoader} to load missing
+	 * {@link DatabaseObject}s with.
+	 * @return The {@link DatabaseObject}s that were found, in the order of the given IDs.
+	 * @throws ReadThroughException The {@link ReadThroughLoader} failed, or the calling thread
+	 * was interrupted while waiting for another thread's load.
+	 */
+	private List<T> readThrough( final Collection<Long> ids,
+			final ReadThroughLoader<T> readThroughLoader ) throws ReadThroughException {
+		final Map<Long, SettableFuture<T>> idsToOwnedLoads =
+				new LinkedHashMap<Long, SettableFuture<T>>();
+		final Map<Long, SettableFuture<T>> idsToLoads =
+				new LinkedHashMap<Long, SettableFuture<T>>();
+
+		for ( final Long id : ids ) {
+			if ( !idsToLoads.containsKey( id ) ) {
+				final SettableFuture<T> load = new SettableFuture<T>();
+				final SettableFuture<T> inFlightLoad =
+						this.idsToInFlightLoads.putIfAbsent( id, load );
+
+				if ( inFlightLoad == null ) {
+					idsToOwnedLoads.put( id, load );
+					idsToLoads.put( id, load );
+				} else {
+					idsToLoads.put( id, inFlightLoad );
+				}
+			}
+		}
+
+		if ( !idsToOwnedLoads.isEmpty() ) {
+			try {
+				final Map<Long, T> idsToObjects = new HashMap<Long, T>();
+
+				for ( final T object : this.load( idsToOwnedLoads.keySet() ) ) {
+					idsToObjects.put( object.getId(), object );
+				}
+
+				final List<Long> missingIds = new ArrayList<Long>();
+
+				for ( final Long id : idsToOwnedLoads.keySet() ) {
+					if ( !idsToObjects.containsKey( id ) ) {
+						missingIds.add( id );
+					}
+				}
+
+				if ( !missingIds.isEmpty() ) {
+					final List<T> loadedObjects = new ArrayList<T>();
+
+					for ( final T loadedObject : readThroughLoader.load( missingIds ) ) {
+						final Long id = loadedObject.getId();
+
+						if ( missingIds.contains( id ) && !idsToObjects.containsKey( id ) ) {
+							idsToObjects.put( id, loadedObject );
+							loadedObjects.add( loadedObject );
+						}
+					}
+
+					try {
+						this.saveBatch( loadedObjects );
+					} catch ( final IllegalArgumentException | IllegalStateException |
+							StorageModificationException exception ) {
+						Log.e( Manager.class.getSimpleName(),
+								"Unable to save the objects loaded through the read-through " +
+										"loader.",
+								exception );
+					}
+				}
+
+				for ( final Map.Entry<Long, SettableFuture<T>> entry : idsToOwnedLoads
+						.entrySet() ) {
+					entry.getValue().set( idsToObjects.get( entry.getKey() ) );
+				}
+			} catch ( final Exception exception ) {
+				for ( final SettableFuture<T> load : idsToOwnedLoads.values() ) {
+					load.setException( exception );
+				}
+			} finally {
+				for ( final Map.Entry<Long, SettableFuture<T>> entry : idsToOwnedLoads
+						.entrySet() ) {
+					this.idsToInFlightLoads.remove( entry.getKey(), entry.getValue() );
+				}
+			}
+		}
+
+		final List<T> objects = new ArrayList<T>();
+
+		for ( final SettableFuture<T> load : idsToLoads.values() ) {
+			final T object;
+
+			try {
+				object = load.get();
+			} catch ( final InterruptedException interruptedException ) {
+				Thread.currentThread().interrupt();
+
+				throw new ReadThroughException( "Interrupted while waiting for a load.",
+						interruptedException );
+			} catch ( final ExecutionException executionException ) {
+				throw new ReadThroughException( "Unable to load through the read-through loader.",
+						executionException.getCause() );
+			}
+
+			if ( object != null ) {
+				objects.add( object );
+			}
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Queries for the given columns and maps each row to the given type.
+	 *
+	 * @param targetClass The type to map each row to.
+	 * @param projection The columns to get.
+	 * @param selectionClause The selection clause, or {@code null} if there is none.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @param orderBys The columns to sort by, in order of precedence.
+	 * @param limit The maximum number of rows, or {@code null} if there is none.
+	 * @param <D> The type to map each row to.
+	 * @return The rows, mapped to the given type.
+	 * @throws IllegalArgumentException The given type cannot be mapped to.
+	 * @see #get(Class, List, String, List, List, int)
+	 */
+	private <D> List<D> project( final Class<D> targetClass, final List<String> projection,
+			final String selectionClause, final List<String> selectionArgs,
+			final List<Pair<String, Order>> orderBys, final Integer limit )
+			throws IllegalArgumentException {
+		final String authority = this.getAuthority();
+		final List<String> groupByColumns = Collections.emptyList();
+		final String havingClause = null;
+		final Integer offset = null;
+		final Uri contentUri = this.contract
+				.getContentUri( authority, groupByColumns, havingClause, limit, offset );
+		final Cursor cursor = this.contentResolver
+				.query( contentUri, projection.toArray( new String[ projection.size() ] ),
+						selectionClause,
+						selectionArgs.toArray( new String[ selectionArgs.size() ] ),
+						Manager.generateSortOrder( orderBys ) );
+		final List<D> rows = new ArrayList<D>();
+
+		if ( cursor != null ) {
+			try {
+				if ( targetClass == this.parameterClass ) {
+					while ( cursor.moveToNext() ) {
+						rows.add( targetClass.cast( this.get( cursor ) ) );
+					}
+				} else if ( targetClass == Object[].class ) {
+					this.projectToArrays( cursor, (List<Object[]>) rows );
+				} else if ( targetClass.isInterface() ) {
+					this.projectToInterfaces( cursor, targetClass, rows );
+				} else {
+					this.projectToClasses( cursor, targetClass, rows );
+				}
+			} finally {
+				cursor.close();
+			}
+		}
+
+		return rows;
+	}
+
+	/**
+	 * Maps each row of the given {@link Cursor} to an array of its values.  Values of columns of
+	 * the {@link DatabaseObject} are converted as they would be for the {@link DatabaseObject},
+	 * and other values keep their SQLite type.
+	 *
+	 * @param cursor The {@link Cursor} to read.
+	 * @param rows The list to add the rows to.
+	 */
+	private void projectToArrays( final Cursor cursor, final List<Object[]> rows ) {
+		final Map<String, Field> columnNamesToFields = this.getColumnNamesToFields();
+		final int columnCount = cursor.getColumnCount();
+
+		while ( cursor.moveToNext() ) {
+			final Object[] row = new Object[ columnCount ];
+
+			for ( int index = 0; index < columnCount; index++ ) {
+				final Field field = columnNamesToFields.get( cursor.getColumnName( index ) );
+
+				if ( field != null ) {
+					final Column column = field.getAnnotation( Column.class );
+
+					row[ index ] = this.readValue( cursor, index, field, column );
+				} else {
+					switch ( Manager.getType( cursor, index ) ) {
+						case Cursor.FIELD_TYPE_INTEGER:
+							row[ index ] = cursor.getLong( index );
+
+							break;
+						case Cursor.FIELD_TYPE_FLOAT:
+							row[ index ] = cursor.getDouble( index );
+
+							break;
+						case Cursor.FIELD_TYPE_STRING:
+							row[ index ] = cursor.getString( index );
+
+							break;
+						case Cursor.FIELD_TYPE_BLOB:
+							row[ index ] = cursor.getBlob( index );
+
+							break;
+						default:
+							row[ index ] = null;
+
+							break;
+					}
+				}
+			}
+
+			rows.add( row );
+		}
+	}
+
+	/**
+	 * Maps each row of the given {@link Cursor} to a new instance of the given class, by setting
+	 * its {@link Column} fields whose columns are in the {@link Cursor}.
+	 *
+	 * @param cursor The {@link Cursor} to read.
+	 * @param targetClass The class to map each row to.
+	 * @param rows The list to add the rows to.
+	 * @param <D> The class to map each row to.
+	 * @throws IllegalArgumentException The given class has no no-argument constructor.
+	 */
+	private <D> void projectToClasses( final Cursor cursor, final Class<D> targetClass,
+			final List<D> rows ) throws IllegalArgumentException {
+		final Constructor<D> constructor;
+
+		try {
+			constructor = targetClass.getDeclaredConstructor( new Class<?>[ 0 ] );
+		} catch ( final NoSuchMethodException noSuchMethodException ) {
+			throw new IllegalArgumentException( "Class '" + targetClass.getSimpleName() +
+					"' has no no-argument constructor.", noSuchMethodException );
+		}
+
+		final List<Field> fields = new ArrayList<Field>();
+		final List<Integer> indexes = new ArrayList<Integer>();
+
+		for ( final Field field : this.getAllDeclaredFieldsInHierarchy( targetClass ) ) {
+			final Column column = field.getAnnotation( Column.class );
+
+			if ( column != null ) {
+				final int index = cursor.getColumnIndex( column.columnName() );
+
+				if ( index != -1 ) {
+					field.setAccessible( true );
+
+					fields.add( field );
+					indexes.add( index );
+				}
+			}
+		}
+
+		constructor.setAccessible( true );
+
+		while ( cursor.moveToNext() ) {
+			final D row;
+
+			try {
+				row = constructor.newInstance( new Object[ 0 ] );
+
+				for ( int fieldIndex = 0; fieldIndex < fields.size(); fieldIndex++ ) {
+					final Field field = fields.get( fieldIndex );
+					final Object value = this.readValue( cursor, indexes.get( fieldIndex ), field,
+							field.getAnnotation( Column.class ) );
+
+					field.set( row, value );
+				}
+			} catch ( final InstantiationException | IllegalAccessException |
+					InvocationTargetException exception ) {
+				throw new IllegalStateException( "Unable to create a new instance of '" +
+						targetClass.getSimpleName() + "'.", exception );
+			}
+
+			rows.add( row );
+		}
+	}
+
+	/**
+	 * Maps each row of the given {@link Cursor} to an instance of the given interface, whose
+	 * methods return the values of the columns of the fields of the same name.
+	 *
+	 * @param cursor The {@link Cursor} to read.
+	 * @param targetInterface The interface to map each row to.
+	 * @param rows The list to add the rows to.
+	 * @param <D> The interface to map each row to.
+	 * @throws IllegalArgumentException A method of the given interface does not match a
+	 * {@link Column} field of the {@link DatabaseObject}.
+	 */
+	private <D> void projectToInterfaces( final Cursor cursor, final Class<D> targetInterface,
+			final List<D> rows ) throws IllegalArgumentException {
+		final Map<String, Field> namesToFields = new HashMap<String, Field>();
+
+		for ( final Field field : this.getColumnNamesToFields().values() ) {
+			namesToFields.put( field.getName(), field );
+		}
+
+		final Map<Method, Field> methodsToFields = new LinkedHashMap<Method, Field>();
+		final Map<Method, Integer> methodsToIndexes = new HashMap<Method, Integer>();
+
+		for ( final Method method : targetInterface.getMethods() ) {
+			final String methodName = method.getName();
+			final String name;
+
+			if ( methodName.startsWith( "get" ) && methodName.length() > 3 ) {
+				name = methodName.substring( 3, 4 ).toLowerCase() + methodName.substring( 4 );
+			} else if ( methodName.startsWith( "is" ) && methodName.length() > 2 ) {
+				name = methodName.substring( 2, 3 ).toLowerCase() + methodName.substring( 3 );
+			} else {
+				name = methodName;
+			}
+
+			final Field field = namesToFields.get( name );
+
+			if ( field == null || method.getParameterTypes().length != 0 ) {
+				throw new IllegalArgumentException( "Method '" + methodName + "()' of '" +
+						targetInterface.getSimpleName() + "' does not match a column." );
+			}
+
+			methodsToFields.put( method, field );
+			methodsToIndexes.put( method,
+					cursor.getColumnIndex( field.getAnnotation( Column.class ).columnName() ) );
+		}
+
+		while ( cursor.moveToNext() ) {
+			final Map<Method, Object> methodsToValues = new LinkedHashMap<Method, Object>();
+
+			for ( final Map.Entry<Method, Field> entry : methodsToFields.entrySet() ) {
+				final int index = methodsToIndexes.get( entry.getKey() );
+
+				if ( index != -1 ) {
+					final Field field = entry.getValue();
+
+					methodsToValues.put( entry.getKey(), this.readValue( cursor, index, field,
+							field.getAnnotation( Column.class ) ) );
+				}
+			}
+
+			final Object row = Proxy.newProxyInstance( targetInterface.getClassLoader(),
+					new Class<?>[] { targetInterface },
+					new ProjectionHandler( targetInterface, methodsToValues ) );
+
+			rows.add( targetInterface.cast( row ) );
+		}
+	}
+
+	/**
+	 * Reads the result of the given aggregate from the current row of the given {@link Cursor}.
+	 *
+	 * @param cursor The {@link Cursor} to read from.
+	 * @param index The index of the result in the {@link Cursor}.
+	 * @param aggregate The aggregate that was computed.
+	 * @param field The field of the column the aggregate was computed over.
+	 * @return A {@link Double} for {@link Aggregate#AVG} and {@link Aggregate#SUM}, an
+	 * {@link Integer} for {@link Aggregate#COUNT_DISTINCT}, a value of the type of the field for
+	 * {@link Aggregate#MAX} and {@link Aggregate#MIN}, or {@code null} if there is no result.
+	 */
+	private Object readAggregate( final Cursor cursor, final int index,
+			final Aggregate aggregate, final Field field ) {
+		final Object value;
+
+		if ( cursor.isNull( index ) ) {
+			value = null;
+		} else {
+			switch ( aggregate ) {
+				case AVG:
+				case SUM:
+					value = cursor.getDouble( index );
+
+					break;
+				case COUNT_DISTINCT:
+					value = cursor.getInt( index );
+
+					break;
+				default:
+					value = this.readValue( cursor, index, field,
+							field.getAnnotation( Column.class ) );
+
+					break;
+			}
+		}
+
+		return value;
+	}
+
+	/**
+	 * Reads the value of the given column from the current row of the given {@link Cursor},
+	 * converted to the type of the given field.
+	 *
+	 * @param cursor The {@link Cursor} to read from.
+	 * @param index The index of the column in the {@link Cursor}.
+	 * @param field The field the value is for.
+	 * @param column The {@link Column} annotation of the field.
+	 * @return The value of the column.
+	 * @throws IllegalArgumentException The column is of an unknown type.
+	 */
+	private Object readValue( final Cursor cursor, final int index, final Field field,
+			final Column column ) throws IllegalArgumentException {
+		final ColumnType columnType = column.columnType();
+		final Object value;
+
+		switch ( columnType ) {
+			case DATE:
+				value = new Date( cursor.getLong( index ) );
+
+				break;
+			case INTEGER:
+				value = cursor.getInt( index );
+
+				break;
+			case LONG:
+				value = cursor.getLong( index );
+
+				break;
+			case STRING:
+				if ( !cursor.isNull( index ) &&
+						Manager.getType( cursor, index ) == Cursor.FIELD_TYPE_BLOB ) {
+					final byte[] bytes =
+							ValueCompressor.decompress( cursor.getBlob( index ) );
+
+					value = new String( bytes, Manager.UTF_8 );
+				} else {
+					value = cursor.getString( index );
+				}
+
+				break;
+			case BLOB:
+				if ( cursor.isNull( index ) ) {
+					value = null;
+				} else if ( Manager.getType( cursor, index ) == Cursor.FIELD_TYPE_STRING ) {
+					// A reference to an external value, rather than the value itself.
+					final ByteBuffer byteBuffer =
+							this.mapLargeValue( column.columnName(), cursor.getString( index ) );
+
+					if ( field.getType() == ByteBuffer.class ) {
+						value = byteBuffer;
+					} else {
+						final byte[] bytes = new byte[ byteBuffer.remaining() ];
+
+						byteBuffer.get( bytes );
+
+						value = bytes;
+					}
+				} else {
+					final byte[] storedBytes = cursor.getBlob( index );
+					final byte[] bytes;
+
+					if ( field.isAnnotationPresent( Compressed.class ) &&
+							ValueCompressor.isCompressed( storedBytes ) ) {
+						bytes = ValueCompressor.decompress( storedBytes );
+					} else {
+						bytes = storedBytes;
+					}
+
+					if ( field.getType() == ByteBuffer.class ) {
+						value = ByteBuffer.wrap( bytes );
+					} else {
+						value = bytes;
+					}
+				}
+
+				break;
+			case BOOLEAN:
+				value = cursor.getInt( index ) != 0;
+
+				break;
+			case DOUBLE:
+				value = cursor.getDouble( index );
+
+				break;
+			case FLOAT:
+				value = cursor.getFloat( index );
+
+				break;
+			case ENUM:
+				if ( cursor.isNull( index ) ) {
+					value = null;
+				} else {
+					value = Manager.toEnumConstant( field.getType(),
+							cursor.getInt( index ) );
+				}
 
-			contentProviderOperations.add( objectToDeleteContentProviderOperation );
+				break;
+			default:
+				throw new IllegalArgumentException( "Found unknown column type '" +
+						columnType + "'." );
 		}
 
-		return contentProviderOperations;
+		return value;
 	}
 
 	/**
-	 * Creates an "update" {@link ContentProviderOperation} for each of the given objects.
-	 *
-	 * @param objectsToUpdate The objects to create {@link ContentProviderOperation} for.
-	 * @return The created {@link ContentProviderOperation}s.
+	 * Starts listening for change notifications on the content URI of this {@link Manager}, so
+	 * that anything kept in memory about changed {@link DatabaseObject}s is discarded, unless it
+	 * is already listening.
 	 */
-	private List<ContentProviderOperation> processObjectsToUpdate(
-			final Collection<T> objectsToUpdate ) {
-		final String authority = this.getAuthority();
-		final Uri contentUri = this.contract.getContentUri( authority );
-		final List<ContentProviderOperation> contentProviderOperations =
-				new ArrayList<ContentProviderOperation>();
+	private synchronized void registerChangeObserver() {
+		if ( this.changeObserver == null ) {
+			this.changeObserver = new ContentObserver( null ) {
+				@Override
+				public void onChange( final boolean selfChange ) {
+					Manager.this.invalidate( (Long) null );
+					Manager.this.forgetAll();
+				}
 
-		for ( final T objectToUpdate : objectsToUpdate ) {
-			final long id = objectToUpdate.getId();
-			final Uri modifiedObjectUri = ContentUris.withAppendedId( contentUri, id );
-			final ContentProviderOperation.Builder builder =
-					ContentProviderOperation.newUpdate( modifiedObjectUri );
-			final ContentValues contentValues = this.generateContentValues( objectToUpdate );
-			final String selectionClause = BaseColumns._ID + " = ?";
-			final List<String> selectionArgs = new ArrayList<String>();
+				@Override
+				public void onChange( final boolean selfChange, final Uri uri ) {
+					if ( uri != null && Manager.this.contract.hasId( uri ) ) {
+						final long id = Manager.this.contract.getId( uri );
 
-			selectionArgs.add( String.valueOf( id ) );
+						Manager.this.invalidate( id );
+						Manager.this.remember( id );
+					} else {
+						Manager.this.invalidate( (Long) null );
+						Manager.this.forgetAll();
+					}
+				}
+			};
 
-			builder.withSelection( selectionClause,
-					selectionArgs.toArray( new String[ selectionArgs.size() ] ) );
-			builder.withValues( contentValues );
+			final String authority = this.getAuthority();
+			final Uri contentUri = this.contract.getContentUri( authority );
 
-			final ContentProviderOperation objectToUpdateContentProviderOperation = builder
-					.build();
+			this.contentResolver.registerContentObserver( contentUri, true, this.changeObserver );
+		}
+	}
 
-			contentProviderOperations.add( objectToUpdateContentProviderOperation );
+	/**
+	 * Adds the given ID to the {@link IdSet}, if there is one, since it may have been saved.
+	 *
+	 * @param id The ID that may have been saved.
+	 */
+	private void remember( final long id ) {
+		final IdSet idSet;
+
+		synchronized ( this ) {
+			idSet = this.idSet;
 		}
 
-		return contentProviderOperations;
+		if ( idSet != null ) {
+			idSet.add( id );
+		}
 	}
 
 	/**
@@ -1099,7 +3356,35 @@ public abstract class Manager<T extends DatabaseObject> {
 	}
 
 	public List<T> save( final Collection<T> objects ) throws StorageModificationException {
-		final List<T> existingObjects = this.get();
+		List<T> savedObjects;
+
+		if ( this.isIdSetEnabled() ) {
+			try {
+				savedObjects = this.save( objects, this.loadExisting( objects, true ) );
+			} catch ( final SQLException sqlException ) {
+				// An object was inserted through another Manager, or another process, and the
+				// IdSet has not been notified yet, so it was added instead of updated.  The insert
+				// rolled back, and the save is retried with every ID looked up.
+				savedObjects = this.save( objects, this.loadExisting( objects, false ) );
+			}
+		} else {
+			savedObjects = this.save( objects, this.get() );
+		}
+
+		return savedObjects;
+	}
+
+	/**
+	 * Saves/updates the given {@link DatabaseObject}s, adding those that are not among the given
+	 * existing {@link DatabaseObject}s and updating the others.
+	 *
+	 * @param objects The {@link DatabaseObject}s to save/update.
+	 * @param existingObjects The saved versions of the given {@link DatabaseObject}s.
+	 * @return The latest version of the objects that have been saved or updated.
+	 * @throws StorageModificationException An add or update operation failed.
+	 */
+	private List<T> save( final Collection<T> objects, final List<T> existingObjects )
+			throws StorageModificationException {
 		final Triple<List<T>, List<T>, List<T>> objectsToAddUpdateAndDeleteTriple =
 				this.categorize( existingObjects, objects );
 		final List<T> objectsToAdd = objectsToAddUpdateAndDeleteTriple.getLeft();
@@ -1129,7 +3414,13 @@ public abstract class Manager<T extends DatabaseObject> {
 
 		if ( idManagedExternally ) {
 			final long id = object.getId();
-			final T existingObject = this.get( id );
+			final T existingObject;
+
+			if ( this.mightExist( id ) ) {
+				existingObject = this.get( id );
+			} else {
+				existingObject = null;
+			}
 
 			if ( existingObject == null ) {
 				T attemptedSaveObject = null;
@@ -1160,9 +3451,470 @@ public abstract class Manager<T extends DatabaseObject> {
 			}
 		}
 
+		this.track( object, savedObject );
+
 		return savedObject;
 	}
 
+	/**
+	 * Saves/updates the given {@link DatabaseObject}s in a single transaction, following the same
+	 * rules as {@link #save(DatabaseObject)} for each of them.  The existing versions of all of
+	 * the objects are looked up with a single query.  If the same object appears more than once,
+	 * its saves are applied in order.
+	 *
+	 * @param objects The {@link DatabaseObject}s to save/update.
+	 * @return The newly saved objects, in the same order as the given objects, with {@code null}
+	 * wherever no save was done.
+	 * @throws IllegalArgumentException One of the given {@link DatabaseObject}s is managed
+	 * internally and it is out of sync with local storage.  Nothing was saved.
+	 * @throws IllegalStateException One of the given {@link DatabaseObject}s is managed internally
+	 * and has already been deleted from local storage.  Nothing was saved.
+	 * @throws StorageModificationException The transaction failed to be applied.  Nothing was
+	 * saved.
+	 */
+	public List<T> saveBatch( final List<T> objects )
+			throws IllegalArgumentException, IllegalStateException, StorageModificationException {
+		List<T> savedObjects;
+
+		try {
+			savedObjects = this.saveBatch( objects, this.loadExisting( objects, true ) );
+		} catch ( final SQLException sqlException ) {
+			if ( !this.isIdSetEnabled() ) {
+				throw new StorageModificationException(
+						"An add or update operation failed to be applied.", sqlException );
+			}
+
+			// An object was inserted through another Manager, or another process, and the IdSet
+			// has not been notified yet, so it was added instead of updated.  The transaction
+			// rolled back, and the save is retried with every ID looked up.
+			try {
+				savedObjects = this.saveBatch( objects, this.loadExisting( objects, false ) );
+			} catch ( final SQLException retrySqlException ) {
+				throw new StorageModificationException(
+						"An add or update operation failed to be applied.", retrySqlException );
+			}
+		}
+
+		return savedObjects;
+	}
+
+	/**
+	 * Saves/updates the given {@link DatabaseObject}s in a single transaction, adding those that
+	 * are not among the given existing {@link DatabaseObject}s and updating the others.
+	 *
+	 * @param objects The {@link DatabaseObject}s to save/update.
+	 * @param existingObjects The saved versions of the given {@link DatabaseObject}s.
+	 * @return The newly saved objects, in the same order as the given objects, with {@code null}
+	 * wherever no save was done.
+	 * @throws IllegalArgumentException One of the given {@link DatabaseObject}s is managed
+	 * internally and it is out of sync with local storage.  Nothing was saved.
+	 * @throws IllegalStateException One of the given {@link DatabaseObject}s is managed internally
+	 * and has already been deleted from local storage.  Nothing was saved.
+	 * @throws StorageModificationException The transaction failed to be applied.  Nothing was
+	 * saved.
+	 * @throws SQLException The transaction was rolled back by a constraint, such as the insert
+	 * of an ID that is already saved.  Nothing was saved.
+	 */
+	private List<T> saveBatch( final List<T> objects, final List<T> existingObjects )
+			throws IllegalArgumentException, IllegalStateException, StorageModificationException,
+			SQLException {
+		final Map<Long, Long> idsToSavedVersions = new HashMap<Long, Long>();
+
+		for ( final T existingObject : existingObjects ) {
+			idsToSavedVersions.put( existingObject.getId(), existingObject.getVersion() );
+		}
+
+		final String authority = this.getAuthority();
+		final Uri contentUri = this.contract.getContentUri( authority );
+		final ArrayList<ContentProviderOperation> contentProviderOperations =
+				new ArrayList<ContentProviderOperation>();
+		final List<Long> newVersions = new ArrayList<Long>();
+
+		for ( final T object : objects ) {
+			final Long id = object.getId();
+			final ContentValues contentValues = this.generateContentValues( object );
+			final ContentProviderOperation.Builder builder;
+			Long newVersion = null;
+
+			if ( id != null && idsToSavedVersions.containsKey( id ) ) {
+				final long savedVersion = idsToSavedVersions.get( id );
+				final long objectVersion = object.getVersion();
+				final Uri modifiedObjectUri = ContentUris.withAppendedId( contentUri, id );
+				final StringBuilder selectionClauseBuilder = new StringBuilder();
+				final List<String> selectionArgs = new ArrayList<String>();
+
+				selectionClauseBuilder.append( BaseColumns._ID + " = ?" );
+				selectionArgs.add( String.valueOf( id ) );
+
+				if ( object.isVersionManagedExternally() ) {
+					selectionClauseBuilder.append( " AND " + Contract.Columns.VERSION + " < ?" );
+					selectionArgs.add( String.valueOf( objectVersion ) );
+
+					if ( objectVersion > savedVersion ) {
+						idsToSavedVersions.put( id, objectVersion );
+					}
+				} else {
+					if ( objectVersion < savedVersion ) {
+						throw new IllegalArgumentException(
+								"Attempting to update a stale object.  The stored version of the " +
+										"object is '" + savedVersion +
+										"' while the passed in object has a version of '" +
+										objectVersion + "'." );
+					}
+
+					selectionClauseBuilder.append( " AND " + Contract.Columns.VERSION + " = ?" );
+					selectionArgs.add( String.valueOf( savedVersion ) );
+
+					newVersion = objectVersion + 1;
+
+					contentValues.put( Contract.Columns.VERSION, newVersion );
+					idsToSavedVersions.put( id, newVersion );
+				}
+
+				builder = ContentProviderOperation.newUpdate( modifiedObjectUri );
+
+				builder.withSelection( selectionClauseBuilder.toString(),
+						selectionArgs.toArray( new String[ selectionArgs.size() ] ) );
+			} else {
+				if ( id != null ) {
+					if ( !object.isIdManagedExternally() ) {
+						throw new IllegalStateException(
+								"Attempting to update a deleted object with: " + object );
+					}
+
+					idsToSavedVersions.put( id, object.getVersion() );
+				}
+
+				builder = ContentProviderOperation.newInsert( contentUri );
+			}
+
+			builder.withValues( contentValues );
+
+			contentProviderOperations.add( builder.build() );
+			newVersions.add( newVersion );
+		}
+
+		final ContentProviderResult[] contentProviderResults;
+
+		try {
+			contentProviderResults =
+					this.contentResolver.applyBatch( authority, contentProviderOperations );
+		} catch ( final RemoteException remoteException ) {
+			throw new StorageModificationException(
+					"An error happened while attempting to communicate with a remote provider.",
+					remoteException );
+		} catch ( final OperationApplicationException operationApplicationException ) {
+			throw new StorageModificationException(
+					"An add or update operation failed to be applied.",
+					operationApplicationException );
+		}
+
+		final List<T> savedObjects = new ArrayList<T>();
+
+		for ( int index = 0; index < objects.size(); index++ ) {
+			final T object = objects.get( index );
+			final ContentProviderResult contentProviderResult = contentProviderResults[ index ];
+			final T savedObject;
+
+			if ( contentProviderResult.uri != null ) {
+				final String idString = contentProviderResult.uri.getLastPathSegment();
+				final long id = Long.parseLong( idString );
+
+				savedObject = this.merge( object, id );
+			} else if ( contentProviderResult.count != null &&
+					contentProviderResult.count == 1 ) {
+				final Long newVersion = newVersions.get( index );
+
+				if ( newVersion != null ) {
+					object.setVersion( newVersion );
+				}
+
+				savedObject = object;
+			} else {
+				savedObject = null;
+			}
+
+			this.track( object, savedObject );
+			savedObjects.add( savedObject );
+		}
+
+		return savedObjects;
+	}
+
+	/**
+	 * Buffers the given {@link DatabaseObject} in memory and saves it later, together with the
+	 * other buffered objects, in a single batch.  Only the newest buffered save of each object is
+	 * written out, so this suits objects that are saved many times a second when only their
+	 * latest state matters.  The same rules as {@link #save(DatabaseObject)} apply when the
+	 * object is written out.  Until then, reads do not see the buffered save.
+	 *
+	 * @param object The {@link DatabaseObject} to save/update, which must have an ID.
+	 * @throws IllegalArgumentException The given {@link DatabaseObject} does not have an ID.
+	 * @throws IllegalStateException This {@link Manager} has been shut down.
+	 * @see #flush()
+	 */
+	public void saveLater( final T object ) throws IllegalArgumentException, IllegalStateException {
+		final WriteBehindBuffer<T> writeBehindBuffer = this.getWriteBehindBuffer();
+
+		writeBehindBuffer.save( object );
+	}
+
+	/**
+	 * Schedules the files of {@link Storage#EXTERNAL} columns to be garbage collected shortly,
+	 * unless a collection is already scheduled, after rows may have been deleted or changed.
+	 */
+	private void scheduleLargeValueCollection() {
+		synchronized ( this ) {
+			if ( this.largeValueCollectionScheduled || !this.contract.hasExternalColumns() ) {
+				return;
+			}
+
+			this.largeValueCollectionScheduled = true;
+		}
+
+		Manager.LARGE_VALUE_COLLECTION_EXECUTOR_SERVICE.schedule( new Runnable() {
+			@Override
+			public void run() {
+				synchronized ( Manager.this ) {
+					Manager.this.largeValueCollectionScheduled = false;
+				}
+
+				try {
+					Manager.this.collectLargeValueGarbage();
+				} catch ( final RuntimeException runtimeException ) {
+					Log.e( Manager.class.getSimpleName(),
+							"Unable to garbage collect external values.", runtimeException );
+				}
+			}
+		}, Manager.LARGE_VALUE_COLLECTION_DELAY_MILLIS, TimeUnit.MILLISECONDS );
+	}
+
+	/**
+	 * Writes out every save buffered through {@link #saveLater(DatabaseObject)}, commits every
+	 * save queued through {@link #enqueueSave(DatabaseObject)} so far, and stops the background
+	 * threads used by this {@link Manager}.  Any later attempt to buffer or queue a save fails.
+	 *
+	 * @throws InterruptedException The calling thread was interrupted while waiting for the
+	 * queued saves to be committed.
+	 * @throws StorageModificationException The buffered saves failed to be written out.  They
+	 * remain buffered, and {@link #flush()} can be called again.
+	 */
+	public void shutdown() throws InterruptedException, StorageModificationException {
+		final WriteBehindBuffer<T> writeBehindBuffer;
+		final CommitQueue<T> commitQueue;
+
+		synchronized ( this ) {
+			this.shutdown = true;
+
+			writeBehindBuffer = this.writeBehindBuffer;
+			commitQueue = this.commitQueue;
+		}
+
+		if ( writeBehindBuffer != null ) {
+			writeBehindBuffer.shutdown();
+		}
+
+		if ( commitQueue != null ) {
+			commitQueue.shutdown();
+		}
+	}
+
+	/**
+	 * Runs a full-text search over the columns marked with
+	 * {@link com.wit.databaselibrary.annotation.FullText}.  The search is answered by the
+	 * full-text index rather than by scanning the table.
+	 *
+	 * @param query The full-text query, in the SQLite FTS query syntax, such as
+	 * {@code "jo* smith"} or {@code "\"john smith\""}.
+	 * @param limit The maximum number of {@link DatabaseObject}s to return.
+	 * @return The matching {@link DatabaseObject}s, best match first.
+	 * @throws IllegalStateException There are no full-text columns.
+	 */
+	public List<T> search( final String query, final int limit ) throws IllegalStateException {
+		if ( !this.contract.hasFullTextColumns() ) {
+			throw new IllegalStateException( "Unable to search '" + this.contract.getTableName() +
+					"', since it does not have any full-text columns." );
+		}
+
+		final String authority = this.getAuthority();
+		final Uri searchUri = this.contract.getSearchUri( authority, limit );
+		final String[] projection = new String[]{ BaseColumns._ID };
+		final String[] selectionArgs = new String[]{ query };
+		final Cursor cursor =
+				this.contentResolver.query( searchUri, projection, null, selectionArgs, null );
+		final List<Long> ids = new ArrayList<Long>();
+
+		if ( cursor != null ) {
+			while ( cursor.moveToNext() ) {
+				ids.add( cursor.getLong( 0 ) );
+			}
+
+			cursor.close();
+		}
+
+		final Map<Long, T> idsToObjects = new HashMap<Long, T>();
+
+		for ( final T object : this.load( ids ) ) {
+			idsToObjects.put( object.getId(), object );
+		}
+
+		final List<T> objects = new ArrayList<T>();
+
+		for ( final Long id : ids ) {
+			final T object = idsToObjects.get( id );
+
+			if ( object != null ) {
+				objects.add( object );
+			}
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Computes the sum of the given column, without loading the {@link DatabaseObject}s.
+	 *
+	 * @param columnName The column to sum.
+	 * @param selectionClause The selection clause to use to narrow down the
+	 * {@link DatabaseObject}s to include, or {@code null} to include all of them.
+	 * @param selectionArgs The values to replace the placeholders with in the selection clause.
+	 * @return The sum of the non-null values, which is 0 if there are none.
+	 * @throws IllegalArgumentException The given column is unknown.
+	 */
+	public double sum( final String columnName, final String selectionClause,
+			final List<String> selectionArgs ) throws IllegalArgumentException {
+		final Double sum = (Double) this.aggregate( Aggregate.SUM, columnName, selectionClause,
+				selectionArgs );
+
+		return sum == null ? 0 : sum;
+	}
+
+	/**
+	 * Returns the type of the value in the given column of the current row of the given
+	 * {@link Cursor}.  {@link Cursor#getType(int)} is only available from Honeycomb onwards, so
+	 * before that a value is taken to be a BLOB when the {@link Cursor} refuses to read it as a
+	 * string, and to be a string otherwise, which numbers are read as too.
+	 *
+	 * @param cursor The {@link Cursor} to read from.
+	 * @param index The index of the column.
+	 * @return One of the {@code Cursor.FIELD_TYPE_*} constants.
+	 */
+	private static int getType( final Cursor cursor, final int index ) {
+		int type;
+
+		if ( Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB ) {
+			type = cursor.getType( index );
+		} else if ( cursor.isNull( index ) ) {
+			type = Cursor.FIELD_TYPE_NULL;
+		} else {
+			try {
+				cursor.getString( index );
+
+				type = Cursor.FIELD_TYPE_STRING;
+			} catch ( final SQLiteException sqLiteException ) {
+				type = Cursor.FIELD_TYPE_BLOB;
+			}
+		}
+
+		return type;
+	}
+
+	/**
+	 * Returns the constant of the given {@code enum} that is stored as the given code, which is
+	 * its {@link CodedEnum} code if it has one, or its ordinal otherwise.
+	 *
+	 * @param enumClass The {@code enum} the constant belongs to.
+	 * @param code The stored code.
+	 * @return The constant that is stored as the given code.
+	 * @throws IllegalArgumentException The given class is not an {@code enum}, or none of its
+	 * constants are stored as the given code.
+	 */
+	private static Object toEnumConstant( final Class<?> enumClass, final int code )
+			throws IllegalArgumentException {
+		final Object[] enumConstants = enumClass.getEnumConstants();
+
+		if ( enumConstants == null ) {
+			throw new IllegalArgumentException( "Class '" + enumClass.getSimpleName() +
+					"' is not an enum." );
+		}
+
+		Object enumConstant = null;
+
+		for ( final Object candidate : enumConstants ) {
+			final int candidateCode;
+
+			if ( candidate instanceof CodedEnum ) {
+				candidateCode = ( (CodedEnum) candidate ).getCode();
+			} else {
+				candidateCode = ( (Enum<?>) candidate ).ordinal();
+			}
+
+			if ( enumConstant == null && candidateCode == code ) {
+				enumConstant = candidate;
+			}
+		}
+
+		if ( enumConstant == null ) {
+			throw new IllegalArgumentException( "Found unknown code '" + code + "' for enum '" +
+					enumClass.getSimpleName() + "'." );
+		}
+
+		return enumConstant;
+	}
+
+	/**
+	 * Stores the value of a {@link Storage#EXTERNAL} column in its own file.
+	 *
+	 * @param columnName The name of the column.
+	 * @param value The value to store.
+	 * @return The reference for the row to hold.
+	 * @throws IllegalStateException The value could not be stored.
+	 */
+	private String storeLargeValue( final String columnName, final byte[] value )
+			throws IllegalStateException {
+		final String key;
+
+		try {
+			key = this.getLargeValueStore().put( value );
+		} catch ( final IOException ioException ) {
+			throw new IllegalStateException( "Unable to store value of column '" + columnName +
+					"'.", ioException );
+		}
+
+		return key;
+	}
+
+	/**
+	 * Brings what is kept in memory up-to-date after a save.
+	 *
+	 * @param object The {@link DatabaseObject} that was passed in to be saved.
+	 * @param savedObject The newly saved object, or {@code null} if no save was done.
+	 */
+	private void track( final T object, final T savedObject ) {
+		final Long id = object.getId();
+
+		if ( id != null ) {
+			this.invalidate( id );
+		}
+
+		if ( savedObject != null ) {
+			final IdentityMap<T> identityMap = this.getIdentityMap();
+			final EntityCache<T> entityCache = this.getEntityCache();
+
+			this.invalidate( savedObject.getId() );
+
+			if ( identityMap != null ) {
+				identityMap.put( savedObject );
+			}
+
+			if ( entityCache != null ) {
+				entityCache.put( this.copy( savedObject ) );
+			}
+
+			this.remember( savedObject.getId() );
+		}
+	}
+
 	/**
 	 * Updates all objects with the given field values.
 	 *
@@ -1196,6 +3948,8 @@ public abstract class Manager<T extends DatabaseObject> {
 				.update( contentUri, contentValues, whereClause,
 						whereArgs.toArray( new String[ whereArgs.size() ] ) );
 
+		this.invalidate( (Long) null );
+
 		return numberOfUpdatedObjects;
 	}
 }
\ No newline at end of file
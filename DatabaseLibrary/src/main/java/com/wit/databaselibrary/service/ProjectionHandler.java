@@ -0,0 +1,66 @@
+package com.wit.databaselibrary.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Backs an instance of an interface returned by a projection query, by returning the value of
+ * the column that each of its methods maps to.
+ */
+class ProjectionHandler implements InvocationHandler {
+	private final Class<?> targetInterface;
+	private final Map<Method, Object> methodsToValues;
+
+	/**
+	 * Creates a new {@link ProjectionHandler}.
+	 *
+	 * @param targetInterface The interface being implemented.
+	 * @param methodsToValues The values of the projected columns, by the method they map to.
+	 */
+	ProjectionHandler( final Class<?> targetInterface, final Map<Method, Object> methodsToValues ) {
+		this.targetInterface = targetInterface;
+		this.methodsToValues = methodsToValues;
+	}
+
+	@Override
+	public Object invoke( final Object proxy, final Method method, final Object[] args )
+			throws IllegalStateException {
+		final String name = method.getName();
+		final Object result;
+
+		if ( method.getDeclaringClass() == Object.class ) {
+			if ( name.equals( "equals" ) ) {
+				result = proxy == args[ 0 ];
+			} else if ( name.equals( "hashCode" ) ) {
+				result = System.identityHashCode( proxy );
+			} else {
+				final StringBuilder stringBuilder = new StringBuilder();
+
+				stringBuilder.append( this.targetInterface.getSimpleName() );
+				stringBuilder.append( "{" );
+
+				for ( final Map.Entry<Method, Object> entry : this.methodsToValues.entrySet() ) {
+					if ( stringBuilder.charAt( stringBuilder.length() - 1 ) != '{' ) {
+						stringBuilder.append( ", " );
+					}
+
+					stringBuilder.append( entry.getKey().getName() );
+					stringBuilder.append( "=" );
+					stringBuilder.append( entry.getValue() );
+				}
+
+				stringBuilder.append( "}" );
+
+				result = stringBuilder.toString();
+			}
+		} else if ( this.methodsToValues.containsKey( method ) ) {
+			result = this.methodsToValues.get( method );
+		} else {
+			throw new IllegalStateException( "The column of method '" + name +
+					"()' is not in the projection." );
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,399 @@
+package com.wit.databaselibrary.service;
+
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.text.TextUtils;
+import android.util.Pair;
+
+import com.wit.databaselibrary.contentprovider.contract.Contract;
+import com.wit.databaselibrary.model.CodedEnum;
+import com.wit.databaselibrary.model.DatabaseObject;
+import com.wit.databaselibrary.model.Order;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fluent builder for queries over the columns of a {@link Contract}, whose conditions are all
+ * combined with AND.  Values are always bound rather than inlined, and are converted the same
+ * way they are stored, so that a {@link Date} is compared to its milliseconds and an {@code enum}
+ * to its code.  Although the {@link android.content.ContentResolver} only binds
+ * {@link String}s, SQLite applies the affinity of the column to the bound value, so the values
+ * of INTEGER and REAL columns are still compared as numbers, without losing their fractions.
+ * <p>
+ * The SQL of a query only depends on its shape, which is its columns, operators, and number of
+ * values, so it is generated once per shape and cached, and SQLite reuses the statement it
+ * compiled for it.  IN lists are padded to the next power of 2, by repeating their last value,
+ * so that lists of similar sizes share a shape.
+ *
+ * @param <T> The type of {@link DatabaseObject} being queried.
+ */
+public class Query<T extends DatabaseObject> {
+	private static final int MAXIMUM_CACHED_SHAPES = 128;
+	private static final Map<List<Object>, String> SHAPES_TO_SELECTION_CLAUSES =
+			new LinkedHashMap<List<Object>, String>( 16, 0.75f, true ) {
+				@Override
+				protected boolean removeEldestEntry(
+						final Map.Entry<List<Object>, String> eldest ) {
+					return this.size() > Query.MAXIMUM_CACHED_SHAPES;
+				}
+			};
+	private static final String BETWEEN = "BETWEEN";
+	private static final String IN = "IN";
+	private static final String IS_NULL = "IS NULL";
+	private static final String IS_NOT_NULL = "IS NOT NULL";
+
+	private final Manager<T> manager;
+	private final Contract<T> contract;
+	private final Map<String, String> columnNamesToSqlTypes;
+	private final List<Object> shape = new ArrayList<Object>();
+	private final List<String> selectionArgs = new ArrayList<String>();
+	private final List<Pair<String, Order>> orderBys = new ArrayList<Pair<String, Order>>();
+	private Integer limit = null;
+	private Integer offset = null;
+	private CancellationSignal cancellationSignal = null;
+	private long timeoutMillis;
+
+	/**
+	 * Creates a new {@link Query}, which matches every {@link DatabaseObject} until conditions are
+	 * added.
+	 *
+	 * @param manager The {@link Manager} that runs the query.
+	 * @param contract The {@link Contract} whose columns are queried.
+	 */
+	Query( final Manager<T> manager, final Contract<T> contract ) {
+		this.manager = manager;
+		this.contract = contract;
+		this.columnNamesToSqlTypes = contract.getColumnSqlTypes();
+		this.timeoutMillis = manager.getQueryTimeoutMillis();
+	}
+
+	/**
+	 * Adds a condition on the given column.
+	 *
+	 * @param columnName The name of the column.
+	 * @param operator The operator of the condition.
+	 * @param values The values of the condition.
+	 * @return This {@link Query}.
+	 * @throws IllegalArgumentException The column is unknown, or one of the values cannot be
+	 * bound.
+	 */
+	private Query<T> addCondition( final String columnName, final String operator,
+			final Object... values ) throws IllegalArgumentException {
+		if ( !this.columnNamesToSqlTypes.containsKey( columnName ) ) {
+			throw new IllegalArgumentException( "Found unknown column '" + columnName + "'." );
+		}
+
+		for ( final Object value : values ) {
+			this.selectionArgs.add( Query.toArgument( value ) );
+		}
+
+		this.shape.add( columnName );
+		this.shape.add( operator );
+		this.shape.add( values.length );
+
+		return this;
+	}
+
+	/**
+	 * Matches the {@link DatabaseObject}s whose value in the given column is between the given
+	 * values, inclusive.
+	 *
+	 * @param columnName The name of the column.
+	 * @param lowValue The lowest value to match.
+	 * @param highValue The highest value to match.
+	 * @return This {@link Query}.
+	 * @throws IllegalArgumentException The column is unknown, or one of the values cannot be
+	 * bound.
+	 */
+	public Query<T> between( final String columnName, final Object lowValue,
+			final Object highValue ) throws IllegalArgumentException {
+		return this.addCondition( columnName, Query.BETWEEN, lowValue, highValue );
+	}
+
+	/**
+	 * Makes the query stop as soon as the given {@link CancellationSignal} is cancelled, with an
+	 * {@link OperationCanceledException}.
+	 *
+	 * @param cancellationSignal The {@link CancellationSignal} to cancel the query with.
+	 * @return This {@link Query}.
+	 */
+	public Query<T> cancellationSignal( final CancellationSignal cancellationSignal ) {
+		this.cancellationSignal = cancellationSignal;
+
+		return this;
+	}
+
+	public Query<T> equalTo( final String columnName, final Object value )
+			throws IllegalArgumentException {
+		return this.addCondition( columnName, "=", value );
+	}
+
+	/**
+	 * Generates the selection clause of the given shape.
+	 *
+	 * @param shape The shape of the query.
+	 * @return The selection clause, or {@code null} if there are no conditions.
+	 */
+	private String generateSelectionClause( final List<Object> shape ) {
+		final List<String> conditions = new ArrayList<String>();
+
+		for ( int index = 0; index < shape.size(); index += 3 ) {
+			final String columnName = (String) shape.get( index );
+			final String operator = (String) shape.get( index + 1 );
+			final int numberOfValues = (Integer) shape.get( index + 2 );
+			final String condition;
+
+			if ( operator.equals( Query.BETWEEN ) ) {
+				condition = columnName + " BETWEEN ? AND ?";
+			} else if ( operator.equals( Query.IN ) ) {
+				if ( numberOfValues == 0 ) {
+					condition = "0";
+				} else {
+					condition = columnName + " IN (" + TextUtils.join( ", ",
+							Collections.nCopies( numberOfValues, "?" ) ) + ")";
+				}
+			} else if ( numberOfValues == 0 ) {
+				condition = columnName + " " + operator;
+			} else {
+				condition = columnName + " " + operator + " ?";
+			}
+
+			conditions.add( condition );
+		}
+
+		final String selectionClause;
+
+		if ( conditions.isEmpty() ) {
+			selectionClause = null;
+		} else {
+			selectionClause = TextUtils.join( " AND ", conditions );
+		}
+
+		return selectionClause;
+	}
+
+	/**
+	 * Runs the query.
+	 *
+	 * @return The {@link DatabaseObject}s that match the query.
+	 * @throws OperationCanceledException The query was cancelled, or did not finish in time.
+	 */
+	public List<T> get() throws OperationCanceledException {
+		final List<String> projection = this.contract.getDefaultColumnNames();
+		final List<String> groupByColumns = Collections.emptyList();
+		final List<T> objects =
+				this.manager.get( projection, this.getSelectionClause(), this.getSelectionArgs(),
+						this.orderBys, groupByColumns, this.limit, this.offset,
+						this.cancellationSignal, this.timeoutMillis );
+
+		return objects;
+	}
+
+	/**
+	 * Counts the {@link DatabaseObject}s that match the conditions of the query, regardless of
+	 * its order, limit, and offset.
+	 *
+	 * @return The number of {@link DatabaseObject}s that match the conditions of the query.
+	 * @throws OperationCanceledException The query was cancelled, or did not finish in time.
+	 */
+	public int getCount() throws OperationCanceledException {
+		return this.manager.getCount( this.getSelectionClause(), this.getSelectionArgs(),
+				this.cancellationSignal, this.timeoutMillis );
+	}
+
+	public List<String> getSelectionArgs() {
+		return Collections.unmodifiableList( this.selectionArgs );
+	}
+
+	/**
+	 * Returns the selection clause of the query, from the cache if its shape has been seen before.
+	 *
+	 * @return The selection clause, or {@code null} if there are no conditions.
+	 */
+	public String getSelectionClause() {
+		final List<Object> shape = new ArrayList<Object>( this.shape );
+		String selectionClause;
+
+		synchronized ( Query.SHAPES_TO_SELECTION_CLAUSES ) {
+			selectionClause = Query.SHAPES_TO_SELECTION_CLAUSES.get( shape );
+		}
+
+		if ( selectionClause == null && !shape.isEmpty() ) {
+			selectionClause = this.generateSelectionClause( shape );
+
+			synchronized ( Query.SHAPES_TO_SELECTION_CLAUSES ) {
+				Query.SHAPES_TO_SELECTION_CLAUSES.put( shape, selectionClause );
+			}
+		}
+
+		return selectionClause;
+	}
+
+	public Query<T> greaterThan( final String columnName, final Object value )
+			throws IllegalArgumentException {
+		return this.addCondition( columnName, ">", value );
+	}
+
+	public Query<T> greaterThanOrEqualTo( final String columnName, final Object value )
+			throws IllegalArgumentException {
+		return this.addCondition( columnName, ">=", value );
+	}
+
+	/**
+	 * Matches the {@link DatabaseObject}s whose value in the given column is one of the given
+	 * values.  An empty collection matches nothing.
+	 *
+	 * @param columnName The name of the column.
+	 * @param values The values to match.
+	 * @return This {@link Query}.
+	 * @throws IllegalArgumentException The column is unknown, or one of the values cannot be
+	 * bound.
+	 */
+	public Query<T> in( final String columnName, final Collection<?> values )
+			throws IllegalArgumentException {
+		final List<Object> paddedValues = new ArrayList<Object>( values );
+
+		if ( !paddedValues.isEmpty() ) {
+			final Object lastValue = paddedValues.get( paddedValues.size() - 1 );
+			final int paddedSize = Integer.highestOneBit( paddedValues.size() - 1 ) << 1;
+
+			while ( paddedValues.size() < paddedSize ) {
+				paddedValues.add( lastValue );
+			}
+		}
+
+		return this.addCondition( columnName, Query.IN, paddedValues.toArray() );
+	}
+
+	public Query<T> isNotNull( final String columnName ) throws IllegalArgumentException {
+		return this.addCondition( columnName, Query.IS_NOT_NULL );
+	}
+
+	public Query<T> isNull( final String columnName ) throws IllegalArgumentException {
+		return this.addCondition( columnName, Query.IS_NULL );
+	}
+
+	public Query<T> lessThan( final String columnName, final Object value )
+			throws IllegalArgumentException {
+		return this.addCondition( columnName, "<", value );
+	}
+
+	public Query<T> lessThanOrEqualTo( final String columnName, final Object value )
+			throws IllegalArgumentException {
+		return this.addCondition( columnName, "<=", value );
+	}
+
+	/**
+	 * Limits the number of {@link DatabaseObject}s returned.
+	 *
+	 * @param limit The maximum number of {@link DatabaseObject}s to return.
+	 * @return This {@link Query}.
+	 * @throws IllegalArgumentException The limit is negative.
+	 */
+	public Query<T> limit( final int limit ) throws IllegalArgumentException {
+		if ( limit < 0 ) {
+			throw new IllegalArgumentException( "Limit '" + limit + "' is negative." );
+		}
+
+		this.limit = limit;
+
+		return this;
+	}
+
+	public Query<T> notEqualTo( final String columnName, final Object value )
+			throws IllegalArgumentException {
+		return this.addCondition( columnName, "<>", value );
+	}
+
+	/**
+	 * Skips the given number of {@link DatabaseObject}s, after sorting.
+	 *
+	 * @param offset The number of {@link DatabaseObject}s to skip.
+	 * @return This {@link Query}.
+	 * @throws IllegalArgumentException The offset is negative.
+	 */
+	public Query<T> offset( final int offset ) throws IllegalArgumentException {
+		if ( offset < 0 ) {
+			throw new IllegalArgumentException( "Offset '" + offset + "' is negative." );
+		}
+
+		this.offset = offset;
+
+		return this;
+	}
+
+	/**
+	 * Sorts by the given column, after the columns that were added before it.  Without any
+	 * column to sort by, the {@link DatabaseObject}s are sorted by ID.
+	 *
+	 * @param columnName The name of the column.
+	 * @param order The order to sort the column in.
+	 * @return This {@link Query}.
+	 * @throws IllegalArgumentException The column is unknown.
+	 */
+	public Query<T> orderBy( final String columnName, final Order order )
+			throws IllegalArgumentException {
+		if ( !this.columnNamesToSqlTypes.containsKey( columnName ) ) {
+			throw new IllegalArgumentException( "Found unknown column '" + columnName + "'." );
+		}
+
+		this.orderBys.add( Pair.create( columnName, order ) );
+
+		return this;
+	}
+
+	/**
+	 * Sets the deadline of the query, instead of the default one of the {@link Manager}.
+	 *
+	 * @param timeoutMillis The number of milliseconds after which the query is cancelled, or 0
+	 * for no deadline.
+	 * @return This {@link Query}.
+	 * @throws IllegalArgumentException The deadline is negative.
+	 */
+	public Query<T> timeout( final long timeoutMillis ) throws IllegalArgumentException {
+		if ( timeoutMillis < 0 ) {
+			throw new IllegalArgumentException( "Timeout '" + timeoutMillis + "' is negative." );
+		}
+
+		this.timeoutMillis = timeoutMillis;
+
+		return this;
+	}
+
+	/**
+	 * Converts the given value to the {@link String} to bind, the same way it would be stored.
+	 *
+	 * @param value The value.
+	 * @return The {@link String} to bind.
+	 * @throws IllegalArgumentException The value is {@code null} or of a type that cannot be
+	 * bound.
+	 */
+	private static String toArgument( final Object value ) throws IllegalArgumentException {
+		final String argument;
+
+		if ( value instanceof Date ) {
+			argument = String.valueOf( ( (Date) value ).getTime() );
+		} else if ( value instanceof Boolean ) {
+			argument = (Boolean) value ? "1" : "0";
+		} else if ( value instanceof CodedEnum ) {
+			argument = String.valueOf( ( (CodedEnum) value ).getCode() );
+		} else if ( value instanceof Enum ) {
+			argument = String.valueOf( ( (Enum<?>) value ).ordinal() );
+		} else if ( value instanceof Number || value instanceof String ) {
+			argument = value.toString();
+		} else if ( value == null ) {
+			throw new IllegalArgumentException( "Unable to bind 'null'; use isNull(...) instead." );
+		} else {
+			throw new IllegalArgumentException( "Unable to bind value of type '" +
+					value.getClass().getSimpleName() + "'." );
+		}
+
+		return argument;
+	}
+}
@@ -0,0 +1,80 @@
+package com.wit.databaselibrary.service;
+
+import com.wit.databaselibrary.model.DatabaseObject;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A least recently used cache of query results, keyed by the parameters of the query.  Since
+ * any change to a table can change the result of any query on it, the whole cache is cleared on
+ * every change.  Each clear starts a new generation, and a result loaded during an older
+ * generation is not cached, so that a query racing with a change never caches a stale result.
+ *
+ * @param <T> The type of {@link DatabaseObject} returned by the queries.
+ */
+public class QueryResultCache<T extends DatabaseObject> {
+	private final int maximumSize;
+	private final Map<List<Object>, List<T>> keysToResults;
+	private long generation = 0;
+
+	/**
+	 * Creates a new {@link QueryResultCache}.
+	 *
+	 * @param maximumSize The maximum number of query results to cache.
+	 */
+	public QueryResultCache( final int maximumSize ) {
+		this.maximumSize = maximumSize;
+		this.keysToResults = new LinkedHashMap<List<Object>, List<T>>( 16, 0.75f, true ) {
+			@Override
+			protected boolean removeEldestEntry( final Map.Entry<List<Object>, List<T>> eldest ) {
+				return this.size() > QueryResultCache.this.maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Clears the cache and starts a new generation.
+	 */
+	public synchronized void clear() {
+		this.keysToResults.clear();
+
+		this.generation++;
+	}
+
+	/**
+	 * Returns the cached result of the query with the given key.
+	 *
+	 * @param key The normalized parameters of the query.
+	 * @return The cached result, or {@code null} if it is not cached.
+	 */
+	public synchronized List<T> get( final List<Object> key ) {
+		return this.keysToResults.get( key );
+	}
+
+	/**
+	 * Returns the current generation, which must be read before running a query whose result is
+	 * going to be cached.
+	 *
+	 * @return The current generation.
+	 */
+	public synchronized long getGeneration() {
+		return this.generation;
+	}
+
+	/**
+	 * Caches the result of the query with the given key, unless the cache has been cleared since
+	 * the query was run.
+	 *
+	 * @param key The normalized parameters of the query.
+	 * @param result The result of the query.
+	 * @param generation The generation read before running the query.
+	 */
+	public synchronized void put( final List<Object> key, final List<T> result,
+			final long generation ) {
+		if ( generation == this.generation ) {
+			this.keysToResults.put( key, result );
+		}
+	}
+}
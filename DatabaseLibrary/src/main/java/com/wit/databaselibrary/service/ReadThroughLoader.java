@@ -0,0 +1,26 @@
+package com.wit.databaselibrary.service;
+
+import com.wit.databaselibrary.model.DatabaseObject;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loads {@link DatabaseObject}s that are not saved locally from an upstream source, such as a
+ * server, for a {@link Manager} in read-through mode.
+ *
+ * @param <T> The type of {@link DatabaseObject} being loaded.
+ * @see Manager#getReadThroughLoader()
+ */
+public interface ReadThroughLoader<T extends DatabaseObject> {
+	/**
+	 * Loads the {@link DatabaseObject}s with the given IDs.  This is called on the thread that
+	 * missed, and at most once at a time for any given ID.
+	 *
+	 * @param ids The IDs of the {@link DatabaseObject}s to load.
+	 * @return The {@link DatabaseObject}s that were found, in any order, which must have
+	 * externally managed IDs.  IDs that were not found are simply left out.
+	 * @throws Exception The {@link DatabaseObject}s failed to be loaded.
+	 */
+	List<T> load( Collection<Long> ids ) throws Exception;
+}
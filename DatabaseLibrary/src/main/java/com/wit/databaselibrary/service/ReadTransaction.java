@@ -0,0 +1,17 @@
+package com.wit.databaselibrary.service;
+
+/**
+ * A group of reads run by {@link Manager#read(ReadTransaction)}, which all see the same snapshot
+ * of the database.
+ *
+ * @param <V> The type of the result of the reads.
+ */
+public interface ReadTransaction<V> {
+	/**
+	 * Runs the reads, through any {@link Manager} whose provider is the one the transaction was
+	 * started on, on the calling thread.
+	 *
+	 * @return The result of the reads.
+	 */
+	V read();
+}
@@ -0,0 +1,128 @@
+package com.wit.databaselibrary.service;
+
+import com.wit.databaselibrary.annotation.Compressed;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses and decompresses the values of {@link Compressed} columns.  A compressed value
+ * starts with a header made of a magic number and the size of the uncompressed value, followed by
+ * the DEFLATE stream.  Each thread reuses its own {@link Deflater} and {@link Inflater}, since
+ * creating them allocates native memory.
+ */
+public class ValueCompressor {
+	private static final byte[] MAGIC = { 0x00, 'D', 'L', 'Z' };
+	private static final int HEADER_SIZE = ValueCompressor.MAGIC.length + 4;
+	private static final ThreadLocal<Deflater> DEFLATERS = new ThreadLocal<Deflater>() {
+		@Override
+		protected Deflater initialValue() {
+			return new Deflater();
+		}
+	};
+	private static final ThreadLocal<Inflater> INFLATERS = new ThreadLocal<Inflater>() {
+		@Override
+		protected Inflater initialValue() {
+			return new Inflater();
+		}
+	};
+
+	private ValueCompressor() {
+	}
+
+	/**
+	 * Compresses the given value.
+	 *
+	 * @param value The value to compress.
+	 * @return The compressed value, including its header.
+	 */
+	public static byte[] compress( final byte[] value ) {
+		final Deflater deflater = ValueCompressor.DEFLATERS.get();
+
+		deflater.reset();
+		deflater.setInput( value );
+		deflater.finish();
+
+		byte[] compressedValue =
+				new byte[ ValueCompressor.HEADER_SIZE + Math.max( 64, value.length / 2 ) ];
+		int size = ValueCompressor.HEADER_SIZE;
+
+		while ( !deflater.finished() ) {
+			if ( size == compressedValue.length ) {
+				compressedValue = Arrays.copyOf( compressedValue, compressedValue.length * 2 );
+			}
+
+			size += deflater.deflate( compressedValue, size, compressedValue.length - size );
+		}
+
+		ByteBuffer.wrap( compressedValue ).put( ValueCompressor.MAGIC ).putInt( value.length );
+
+		return Arrays.copyOf( compressedValue, size );
+	}
+
+	/**
+	 * Decompresses the given value.
+	 *
+	 * @param compressedValue The compressed value, including its header.
+	 * @return The uncompressed value.
+	 * @throws IllegalArgumentException The given value is not compressed, or is corrupt.
+	 */
+	public static byte[] decompress( final byte[] compressedValue )
+			throws IllegalArgumentException {
+		if ( !ValueCompressor.isCompressed( compressedValue ) ) {
+			throw new IllegalArgumentException( "Value is not compressed." );
+		}
+
+		final int size = ByteBuffer.wrap( compressedValue, ValueCompressor.MAGIC.length, 4 )
+				.getInt();
+
+		if ( size < 0 ) {
+			throw new IllegalArgumentException( "Compressed value is corrupt." );
+		}
+
+		final byte[] value = new byte[ size ];
+		final Inflater inflater = ValueCompressor.INFLATERS.get();
+
+		inflater.reset();
+		inflater.setInput( compressedValue, ValueCompressor.HEADER_SIZE,
+				compressedValue.length - ValueCompressor.HEADER_SIZE );
+
+		try {
+			int offset = 0;
+
+			while ( offset < size ) {
+				final int inflatedSize = inflater.inflate( value, offset, size - offset );
+
+				if ( inflatedSize == 0 && ( inflater.needsInput() || inflater.finished() ) ) {
+					throw new IllegalArgumentException( "Compressed value is truncated." );
+				}
+
+				offset += inflatedSize;
+			}
+		} catch ( final DataFormatException dataFormatException ) {
+			throw new IllegalArgumentException( "Compressed value is corrupt.",
+					dataFormatException );
+		}
+
+		return value;
+	}
+
+	/**
+	 * Returns whether the given value starts with the header of a compressed value.
+	 *
+	 * @param value The stored value.
+	 * @return Whether the given value is compressed.
+	 */
+	public static boolean isCompressed( final byte[] value ) {
+		boolean compressed = value.length >= ValueCompressor.HEADER_SIZE;
+
+		for ( int index = 0; compressed && index < ValueCompressor.MAGIC.length; index++ ) {
+			compressed = value[ index ] == ValueCompressor.MAGIC[ index ];
+		}
+
+		return compressed;
+	}
+}
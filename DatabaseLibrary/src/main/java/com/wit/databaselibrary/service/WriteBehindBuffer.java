@@ -0,0 +1,224 @@
+package com.wit.databaselibrary.service;
+
+import android.util.Log;
+
+import com.wit.databaselibrary.contentprovider.StorageModificationException;
+import com.wit.databaselibrary.model.DatabaseObject;
+import com.wit.databaselibrary.service.concurrent.NamedThreadFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers saves in memory and writes them out later in a single batch.  Only the newest save of
+ * each object is kept, so an object that is saved many times between two flushes is only
+ * written once.  The buffer is flushed once it holds a given number of objects, once a given
+ * time has passed since the first buffered save, when {@link #flush()} is called, and when it is
+ * shut down.
+ *
+ * @param <T> The type of {@link DatabaseObject} being saved.
+ */
+public class WriteBehindBuffer<T extends DatabaseObject> {
+	private final Manager<T> manager;
+	private final int maximumSize;
+	private final long flushDelayMillis;
+	private final ScheduledExecutorService flushExecutorService;
+	private final Runnable flushRunnable = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				WriteBehindBuffer.this.flush();
+			} catch ( final StorageModificationException | RuntimeException exception ) {
+				Log.e( WriteBehindBuffer.class.getSimpleName(),
+						"Unable to flush the buffered objects.  Retrying later.", exception );
+
+				WriteBehindBuffer.this.scheduleFlush( this );
+			}
+		}
+	};
+	/**
+	 * Held for the whole of a flush, so that two flushes never write the same object out of
+	 * order.
+	 */
+	private final Object flushLock = new Object();
+	private Map<Long, T> idsToObjects = new LinkedHashMap<Long, T>();
+	private boolean shutdown = false;
+
+	/**
+	 * Creates a new {@link WriteBehindBuffer}.
+	 *
+	 * @param manager The {@link Manager} used to write out the buffered objects.
+	 * @param maximumSize The number of buffered objects that triggers a flush.
+	 * @param flushDelayMillis The maximum number of milliseconds a save is buffered for.
+	 * @throws IllegalArgumentException The given maximum size is less than 1.
+	 */
+	public WriteBehindBuffer( final Manager<T> manager, final int maximumSize,
+			final long flushDelayMillis ) throws IllegalArgumentException {
+		if ( maximumSize < 1 ) {
+			throw new IllegalArgumentException( "The maximum size must be at least 1, but was '" +
+					maximumSize + "'." );
+		}
+
+		this.manager = manager;
+		this.maximumSize = maximumSize;
+		this.flushDelayMillis = flushDelayMillis;
+		this.flushExecutorService = Executors.newSingleThreadScheduledExecutor(
+				new NamedThreadFactory( WriteBehindBuffer.class.getSimpleName() ) );
+	}
+
+	/**
+	 * Writes out every buffered object in a single batch.  If the batch is rejected because one
+	 * of the objects breaks the rules of {@link Manager#save(DatabaseObject)}, every object is
+	 * saved on its own instead, and the objects that cannot be saved are dropped.  A flush waits
+	 * for any other flush to finish first.  Whenever a flush fails, the objects that were not
+	 * written out are put back into the buffer, unless a newer save of the same object was
+	 * buffered in the meantime.
+	 *
+	 * @throws StorageModificationException The batch failed to be applied.
+	 * @throws RuntimeException Saving an object on its own failed for a reason other than the
+	 * object breaking the rules of {@link Manager#save(DatabaseObject)}, such as the database
+	 * being full.
+	 */
+	public void flush() throws StorageModificationException {
+		synchronized ( this.flushLock ) {
+			final List<T> objects;
+
+			synchronized ( this ) {
+				objects = new ArrayList<T>( this.idsToObjects.values() );
+
+				this.idsToObjects = new LinkedHashMap<Long, T>();
+			}
+
+			if ( !objects.isEmpty() ) {
+				try {
+					this.manager.saveBatch( objects );
+				} catch ( final StorageModificationException storageModificationException ) {
+					this.rebuffer( objects );
+
+					throw storageModificationException;
+				} catch ( final IllegalArgumentException | IllegalStateException exception ) {
+					for ( int index = 0; index < objects.size(); index++ ) {
+						final T object = objects.get( index );
+
+						try {
+							this.manager.save( object );
+						} catch ( final IllegalArgumentException |
+								IllegalStateException saveException ) {
+							Log.e( WriteBehindBuffer.class.getSimpleName(),
+									"Dropping a buffered object that cannot be saved: " + object,
+									saveException );
+						} catch ( final RuntimeException runtimeException ) {
+							// The failure is not down to the object, so it and the objects not
+							// tried yet are kept for the next flush.
+							this.rebuffer( objects.subList( index, objects.size() ) );
+
+							throw runtimeException;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts the given objects that failed to be written out back into the buffer, ahead of the
+	 * objects buffered since, so that a newer save of the same object still wins.
+	 *
+	 * @param objects The objects to put back.
+	 */
+	private synchronized void rebuffer( final List<T> objects ) {
+		final Map<Long, T> idsToNewerObjects = this.idsToObjects;
+
+		this.idsToObjects = new LinkedHashMap<Long, T>();
+
+		for ( final T object : objects ) {
+			this.idsToObjects.put( object.getId(), object );
+		}
+
+		this.idsToObjects.putAll( idsToNewerObjects );
+	}
+
+	/**
+	 * Buffers the given {@link DatabaseObject}, replacing any buffered save of the same object.
+	 * It is written out later following the same rules as {@link Manager#save(DatabaseObject)},
+	 * and is not visible to reads until then.
+	 *
+	 * @param object The {@link DatabaseObject} to save/update, which must have an ID.
+	 * @throws IllegalArgumentException The given {@link DatabaseObject} does not have an ID.
+	 * @throws IllegalStateException This {@link WriteBehindBuffer} has been shut down.
+	 */
+	public void save( final T object ) throws IllegalArgumentException, IllegalStateException {
+		final Long id = object.getId();
+
+		if ( id == null ) {
+			throw new IllegalArgumentException(
+					"Only objects with an ID can be buffered, but found: " + object );
+		}
+
+		final boolean firstObject;
+		final boolean full;
+
+		synchronized ( this ) {
+			if ( this.shutdown ) {
+				throw new IllegalStateException( "The write-behind buffer has been shut down." );
+			}
+
+			firstObject = this.idsToObjects.isEmpty();
+
+			this.idsToObjects.remove( id );
+			this.idsToObjects.put( id, object );
+
+			full = this.idsToObjects.size() >= this.maximumSize;
+		}
+
+		if ( full ) {
+			try {
+				this.flushExecutorService.execute( this.flushRunnable );
+			} catch ( final RejectedExecutionException rejectedExecutionException ) {
+				// Shutting down.  The object is already buffered, so the last flush writes it out.
+			}
+		} else if ( firstObject ) {
+			this.scheduleFlush( this.flushRunnable );
+		}
+	}
+
+	/**
+	 * Runs the given flush on the background thread once the flush delay has passed.
+	 *
+	 * @param flushRunnable The flush to run.
+	 */
+	private void scheduleFlush( final Runnable flushRunnable ) {
+		try {
+			this.flushExecutorService
+					.schedule( flushRunnable, this.flushDelayMillis, TimeUnit.MILLISECONDS );
+		} catch ( final RejectedExecutionException rejectedExecutionException ) {
+			// Shutting down.  The last flush writes out whatever is still buffered.
+		}
+	}
+
+	/**
+	 * Stops accepting new saves, waits for any background flush to finish, and then flushes the
+	 * buffer one last time.
+	 *
+	 * @throws InterruptedException The calling thread was interrupted while waiting for a
+	 * background flush to finish.
+	 * @throws StorageModificationException The last flush failed.  The objects remain in the
+	 * buffer, and {@link #flush()} can be called again.
+	 */
+	public void shutdown() throws InterruptedException, StorageModificationException {
+		synchronized ( this ) {
+			this.shutdown = true;
+		}
+
+		this.flushExecutorService.shutdownNow();
+		this.flushExecutorService.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+
+		this.flush();
+	}
+}
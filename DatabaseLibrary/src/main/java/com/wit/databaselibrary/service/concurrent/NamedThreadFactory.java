@@ -0,0 +1,33 @@
+package com.wit.databaselibrary.service.concurrent;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads with a recognizable name, so that background work started by this
+ * library can be told apart in thread dumps and does not keep the process alive.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+	private final String namePrefix;
+	private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+	/**
+	 * Creates a new {@link NamedThreadFactory}.
+	 *
+	 * @param namePrefix The prefix of the name of each thread, which is followed by the number of
+	 * the thread.
+	 */
+	public NamedThreadFactory( final String namePrefix ) {
+		this.namePrefix = namePrefix;
+	}
+
+	@Override
+	public Thread newThread( final Runnable runnable ) {
+		final String name = this.namePrefix + "-" + this.threadNumber.getAndIncrement();
+		final Thread thread = new Thread( runnable, name );
+
+		thread.setDaemon( true );
+
+		return thread;
+	}
+}
@@ -0,0 +1,360 @@
+package com.wit.databaselibrary.service.concurrent;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on a fixed number of threads shared by two lanes.  A free thread always takes the
+ * oldest {@link Lane#FOREGROUND} task before any {@link Lane#BACKGROUND} task, and background
+ * tasks never occupy more than a given number of threads, so that there is always a thread left
+ * for interactive work, however much background work is queued.  Tasks run in the order they
+ * were submitted within each lane.  How long tasks wait in each lane is recorded, and is
+ * available through {@link #getQueueWaitStatistics(Lane)}.
+ */
+public class PriorityExecutor {
+	/**
+	 * The lanes of a {@link PriorityExecutor}.
+	 */
+	public enum Lane {
+		/**
+		 * Work that someone is waiting on, such as the reads behind what is on the screen.
+		 */
+		FOREGROUND,
+		/**
+		 * Work that nobody is waiting on, such as a sync, which only runs when no foreground task
+		 * is queued.
+		 */
+		BACKGROUND
+	}
+
+	private static final class QueuedTask {
+		private final Lane lane;
+		private final Runnable runnable;
+		private final long enqueuedNanos;
+
+		private QueuedTask( final Lane lane, final Runnable runnable, final long enqueuedNanos ) {
+			this.lane = lane;
+			this.runnable = runnable;
+			this.enqueuedNanos = enqueuedNanos;
+		}
+	}
+
+	/**
+	 * An {@link ExecutorService} that submits every task to a single lane.  Shutting it down
+	 * shuts down the whole {@link PriorityExecutor}.
+	 */
+	private final class LaneExecutorService extends AbstractExecutorService {
+		private final Lane lane;
+
+		private LaneExecutorService( final Lane lane ) {
+			this.lane = lane;
+		}
+
+		@Override
+		public boolean awaitTermination( final long timeout, final TimeUnit unit )
+				throws InterruptedException {
+			return PriorityExecutor.this.awaitTermination( timeout, unit );
+		}
+
+		@Override
+		public void execute( final Runnable runnable ) throws RejectedExecutionException {
+			PriorityExecutor.this.execute( this.lane, runnable );
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return PriorityExecutor.this.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return PriorityExecutor.this.isTerminated();
+		}
+
+		@Override
+		public void shutdown() {
+			PriorityExecutor.this.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return PriorityExecutor.this.shutdownNow();
+		}
+	}
+
+	private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<Lane>();
+
+	private final int maximumBackgroundThreads;
+	private final int maximumQueueSize;
+	private final Map<Lane, Deque<QueuedTask>> lanesToQueues =
+			new EnumMap<Lane, Deque<QueuedTask>>( Lane.class );
+	private final Map<Lane, ExecutorService> lanesToExecutorServices =
+			new EnumMap<Lane, ExecutorService>( Lane.class );
+	private final long[] numbersOfTasks = new long[ Lane.values().length ];
+	private final long[] totalWaitNanos = new long[ Lane.values().length ];
+	private final long[] maximumWaitNanos = new long[ Lane.values().length ];
+	private int numberOfRunningBackgroundTasks = 0;
+	private int numberOfLiveThreads;
+	private boolean shutdown = false;
+
+	/**
+	 * Creates a new {@link PriorityExecutor} and starts its threads.
+	 *
+	 * @param namePrefix The prefix of the name of each thread.
+	 * @param numberOfThreads The number of threads tasks run on.
+	 * @param maximumBackgroundThreads The maximum number of threads background tasks may occupy
+	 * at once, which must be less than the number of threads.  With 1, background tasks run one
+	 * at a time, in the order they were submitted.
+	 * @param maximumQueueSize The maximum number of tasks queued in each lane.
+	 * @throws IllegalArgumentException The maximum number of background threads is less than 1,
+	 * or not less than the number of threads, or the maximum queue size is less than 1.
+	 */
+	public PriorityExecutor( final String namePrefix, final int numberOfThreads,
+			final int maximumBackgroundThreads, final int maximumQueueSize )
+			throws IllegalArgumentException {
+		if ( maximumBackgroundThreads < 1 || maximumBackgroundThreads >= numberOfThreads ) {
+			throw new IllegalArgumentException( "The maximum number of background threads must " +
+					"be at least 1 and less than the number of threads, '" + numberOfThreads +
+					"', but was '" + maximumBackgroundThreads + "'." );
+		}
+
+		if ( maximumQueueSize < 1 ) {
+			throw new IllegalArgumentException( "The maximum queue size must be at least 1, but " +
+					"was '" + maximumQueueSize + "'." );
+		}
+
+		this.maximumBackgroundThreads = maximumBackgroundThreads;
+		this.maximumQueueSize = maximumQueueSize;
+		this.numberOfLiveThreads = numberOfThreads;
+
+		for ( final Lane lane : Lane.values() ) {
+			this.lanesToQueues.put( lane, new ArrayDeque<QueuedTask>() );
+			this.lanesToExecutorServices.put( lane, new LaneExecutorService( lane ) );
+		}
+
+		final NamedThreadFactory namedThreadFactory = new NamedThreadFactory( namePrefix );
+		final Runnable worker = new Runnable() {
+			@Override
+			public void run() {
+				PriorityExecutor.this.work();
+			}
+		};
+
+		for ( int index = 0; index < numberOfThreads; index++ ) {
+			namedThreadFactory.newThread( worker ).start();
+		}
+	}
+
+	/**
+	 * Waits for every thread to stop after {@link #shutdown()}.
+	 *
+	 * @param timeout The maximum time to wait.
+	 * @param unit The {@link TimeUnit} of the timeout.
+	 * @return Whether every thread stopped before the timeout.
+	 * @throws InterruptedException The calling thread was interrupted while waiting.
+	 */
+	public synchronized boolean awaitTermination( final long timeout, final TimeUnit unit )
+			throws InterruptedException {
+		final long startNanos = System.nanoTime();
+		final long timeoutNanos = unit.toNanos( timeout );
+		long remainingNanos = timeoutNanos;
+
+		while ( this.numberOfLiveThreads > 0 && remainingNanos > 0 ) {
+			TimeUnit.NANOSECONDS.timedWait( this, remainingNanos );
+
+			remainingNanos = timeoutNanos - ( System.nanoTime() - startNanos );
+		}
+
+		return this.numberOfLiveThreads == 0;
+	}
+
+	/**
+	 * Queues the given task in the given lane.
+	 *
+	 * @param lane The {@link Lane} to run the task in.
+	 * @param runnable The task.
+	 * @throws RejectedExecutionException The lane is full or this {@link PriorityExecutor} has
+	 * been shut down.
+	 */
+	public synchronized void execute( final Lane lane, final Runnable runnable )
+			throws RejectedExecutionException {
+		final Deque<QueuedTask> queue = this.lanesToQueues.get( lane );
+
+		if ( this.shutdown ) {
+			throw new RejectedExecutionException( "The priority executor has been shut down." );
+		}
+
+		if ( queue.size() >= this.maximumQueueSize ) {
+			throw new RejectedExecutionException( "The '" + lane + "' lane is full." );
+		}
+
+		queue.add( new QueuedTask( lane, runnable, System.nanoTime() ) );
+
+		this.notifyAll();
+	}
+
+	/**
+	 * Returns the {@link Lane} of the task running on the calling thread.
+	 *
+	 * @return The {@link Lane} of the task running on the calling thread, or {@code null} if the
+	 * calling thread is not running a task of a {@link PriorityExecutor}.
+	 */
+	public static Lane getCurrentLane() {
+		return PriorityExecutor.CURRENT_LANE.get();
+	}
+
+	/**
+	 * Returns an {@link ExecutorService} that submits every task to the given lane, for example
+	 * to pass into an {@code AsyncManager}.
+	 *
+	 * @param lane The {@link Lane}.
+	 * @return The {@link ExecutorService} of the given lane.
+	 */
+	public ExecutorService getExecutorService( final Lane lane ) {
+		return this.lanesToExecutorServices.get( lane );
+	}
+
+	public synchronized int getQueueSize( final Lane lane ) {
+		return this.lanesToQueues.get( lane ).size();
+	}
+
+	/**
+	 * Returns how long the tasks of the given lane that have started so far waited in its queue.
+	 *
+	 * @param lane The {@link Lane}.
+	 * @return A snapshot of the {@link QueueWaitStatistics} of the given lane.
+	 */
+	public synchronized QueueWaitStatistics getQueueWaitStatistics( final Lane lane ) {
+		final int index = lane.ordinal();
+
+		return new QueueWaitStatistics( this.numbersOfTasks[ index ], this.totalWaitNanos[ index ],
+				this.maximumWaitNanos[ index ] );
+	}
+
+	public synchronized boolean isShutdown() {
+		return this.shutdown;
+	}
+
+	public synchronized boolean isTerminated() {
+		return this.numberOfLiveThreads == 0;
+	}
+
+	/**
+	 * Stops accepting new tasks.  The tasks already queued still run, after which the threads
+	 * stop.
+	 */
+	public synchronized void shutdown() {
+		this.shutdown = true;
+
+		this.notifyAll();
+	}
+
+	/**
+	 * Stops accepting new tasks and drops the tasks that have not started yet.  Tasks that are
+	 * running are left to finish.
+	 *
+	 * @return The tasks that were dropped, foreground tasks first.
+	 */
+	public synchronized List<Runnable> shutdownNow() {
+		final List<Runnable> runnables = new ArrayList<Runnable>();
+
+		for ( final Deque<QueuedTask> queue : this.lanesToQueues.values() ) {
+			for ( final QueuedTask queuedTask : queue ) {
+				runnables.add( queuedTask.runnable );
+			}
+
+			queue.clear();
+		}
+
+		this.shutdown();
+
+		return runnables;
+	}
+
+	/**
+	 * Takes the next task to run, waiting for one if there is none that may run yet.
+	 *
+	 * @return The next task, or {@code null} if this {@link PriorityExecutor} has been shut down
+	 * and every queued task has been taken, in which case the calling thread must stop.
+	 */
+	private synchronized QueuedTask take() {
+		final Deque<QueuedTask> foregroundQueue = this.lanesToQueues.get( Lane.FOREGROUND );
+		final Deque<QueuedTask> backgroundQueue = this.lanesToQueues.get( Lane.BACKGROUND );
+		QueuedTask queuedTask = null;
+
+		while ( queuedTask == null &&
+				!( this.shutdown && foregroundQueue.isEmpty() && backgroundQueue.isEmpty() ) ) {
+			if ( !foregroundQueue.isEmpty() ) {
+				queuedTask = foregroundQueue.poll();
+			} else if ( !backgroundQueue.isEmpty() &&
+					this.numberOfRunningBackgroundTasks < this.maximumBackgroundThreads ) {
+				queuedTask = backgroundQueue.poll();
+
+				this.numberOfRunningBackgroundTasks++;
+			} else {
+				try {
+					this.wait();
+				} catch ( final InterruptedException interruptedException ) {
+					// Interrupts meant for a task that has finished are ignored.
+				}
+			}
+		}
+
+		if ( queuedTask == null ) {
+			this.numberOfLiveThreads--;
+
+			this.notifyAll();
+		} else {
+			final int index = queuedTask.lane.ordinal();
+			final long waitNanos = System.nanoTime() - queuedTask.enqueuedNanos;
+
+			this.numbersOfTasks[ index ]++;
+			this.totalWaitNanos[ index ] += waitNanos;
+			this.maximumWaitNanos[ index ] = Math.max( this.maximumWaitNanos[ index ], waitNanos );
+		}
+
+		return queuedTask;
+	}
+
+	/**
+	 * Runs tasks until this {@link PriorityExecutor} is shut down and its queues are empty.
+	 */
+	private void work() {
+		QueuedTask queuedTask = this.take();
+
+		while ( queuedTask != null ) {
+			// Clears an interrupt meant for the previous task.
+			Thread.interrupted();
+
+			PriorityExecutor.CURRENT_LANE.set( queuedTask.lane );
+
+			try {
+				queuedTask.runnable.run();
+			} catch ( final RuntimeException runtimeException ) {
+				Log.e( PriorityExecutor.class.getSimpleName(), "A task failed.", runtimeException );
+			} finally {
+				PriorityExecutor.CURRENT_LANE.remove();
+
+				if ( queuedTask.lane == Lane.BACKGROUND ) {
+					synchronized ( this ) {
+						this.numberOfRunningBackgroundTasks--;
+
+						this.notifyAll();
+					}
+				}
+			}
+
+			queuedTask = this.take();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.wit.databaselibrary.service.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of how long the tasks of a lane of a {@link PriorityExecutor} waited in its queue
+ * before they started running.
+ */
+public class QueueWaitStatistics {
+	private final long numberOfTasks;
+	private final long totalWaitNanos;
+	private final long maximumWaitNanos;
+
+	/**
+	 * Creates a new {@link QueueWaitStatistics}.
+	 *
+	 * @param numberOfTasks The number of tasks that have started running.
+	 * @param totalWaitNanos The total number of nanoseconds those tasks waited.
+	 * @param maximumWaitNanos The longest number of nanoseconds one of those tasks waited.
+	 */
+	QueueWaitStatistics( final long numberOfTasks, final long totalWaitNanos,
+			final long maximumWaitNanos ) {
+		this.numberOfTasks = numberOfTasks;
+		this.totalWaitNanos = totalWaitNanos;
+		this.maximumWaitNanos = maximumWaitNanos;
+	}
+
+	/**
+	 * Returns the average number of milliseconds a task waited.
+	 *
+	 * @return The average number of milliseconds a task waited, or 0 if no task has started.
+	 */
+	public double getAverageWaitMillis() {
+		final double averageWaitMillis;
+
+		if ( this.numberOfTasks == 0 ) {
+			averageWaitMillis = 0;
+		} else {
+			averageWaitMillis = (double) this.totalWaitNanos / this.numberOfTasks /
+					TimeUnit.MILLISECONDS.toNanos( 1 );
+		}
+
+		return averageWaitMillis;
+	}
+
+	public long getMaximumWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis( this.maximumWaitNanos );
+	}
+
+	public long getNumberOfTasks() {
+		return this.numberOfTasks;
+	}
+
+	public long getTotalWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis( this.totalWaitNanos );
+	}
+}
@@ -0,0 +1,121 @@
+package com.wit.databaselibrary.service.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link Future} whose result is set explicitly by whoever produces it, rather than by running
+ * a task.
+ *
+ * @param <V> The type of the result.
+ */
+public class SettableFuture<V> implements Future<V> {
+	private final CountDownLatch doneLatch = new CountDownLatch( 1 );
+	private boolean cancelled = false;
+	private boolean done = false;
+	private Throwable throwable;
+	private V value;
+
+	@Override
+	public synchronized boolean cancel( final boolean mayInterruptIfRunning ) {
+		final boolean cancelled = this.complete( null, null );
+
+		if ( cancelled ) {
+			this.cancelled = true;
+		}
+
+		return cancelled;
+	}
+
+	/**
+	 * Completes this {@link Future} with the given result or failure, unless it is already done.
+	 *
+	 * @param value The result.
+	 * @param throwable The failure, or {@code null} if the result should be used.
+	 * @return Whether this call completed this {@link Future}.
+	 */
+	private synchronized boolean complete( final V value, final Throwable throwable ) {
+		final boolean completed;
+
+		if ( this.done ) {
+			completed = false;
+		} else {
+			this.value = value;
+			this.throwable = throwable;
+			this.done = true;
+
+			this.doneLatch.countDown();
+
+			completed = true;
+		}
+
+		return completed;
+	}
+
+	@Override
+	public V get() throws InterruptedException, ExecutionException {
+		this.doneLatch.await();
+
+		final V value = this.getResult();
+
+		return value;
+	}
+
+	@Override
+	public V get( final long timeout, final TimeUnit timeUnit )
+			throws InterruptedException, ExecutionException, TimeoutException {
+		if ( !this.doneLatch.await( timeout, timeUnit ) ) {
+			throw new TimeoutException( "The result was not available within " + timeout + " " +
+					timeUnit + "." );
+		}
+
+		final V value = this.getResult();
+
+		return value;
+	}
+
+	private synchronized V getResult() throws ExecutionException {
+		if ( this.cancelled ) {
+			throw new CancellationException();
+		} else if ( this.throwable != null ) {
+			throw new ExecutionException( this.throwable );
+		}
+
+		return this.value;
+	}
+
+	@Override
+	public synchronized boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	@Override
+	public synchronized boolean isDone() {
+		return this.done;
+	}
+
+	/**
+	 * Completes this {@link Future} with the given result, unless it is already done.
+	 *
+	 * @param value The result.
+	 * @return Whether this call completed this {@link Future}.
+	 */
+	public boolean set( final V value ) {
+		return this.complete( value, null );
+	}
+
+	/**
+	 * Completes this {@link Future} with the given failure, unless it is already done.
+	 *
+	 * @param throwable The failure, which {@link #get()} will wrap in an
+	 * {@link ExecutionException}.
+	 * @return Whether this call completed this {@link Future}.
+	 */
+	public boolean setException( final Throwable throwable ) {
+		return this.complete( null, throwable );
+	}
+}
@@ -0,0 +1,23 @@
+package com.wit.databaselibrary.service.exception;
+
+public class ReadThroughException extends RuntimeException {
+	public ReadThroughException() {
+	}
+
+	public ReadThroughException( final Throwable cause ) {
+		super( cause );
+	}
+
+	public ReadThroughException( final String message ) {
+		super( message );
+	}
+
+	public ReadThroughException( final String message, final Throwable cause ) {
+		super( message, cause );
+	}
+
+	public ReadThroughException( final String message, final Throwable cause,
+			final boolean enableSuppression, final boolean writableStackTrace ) {
+		super( message, cause, enableSuppression, writableStackTrace );
+	}
+}
\ No newline at end of file
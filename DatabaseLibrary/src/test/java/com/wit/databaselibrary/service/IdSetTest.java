@@ -0,0 +1,121 @@
+package com.wit.databaselibrary.service;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IdSetTest {
+	@Test
+	public void mightContainEveryIdUntilLoaded() {
+		final IdSet idSet = new IdSet();
+
+		idSet.add( 1 );
+
+		assertTrue( idSet.mightContain( 2 ) );
+
+		idSet.setLoaded();
+
+		assertTrue( idSet.mightContain( 1 ) );
+		assertFalse( idSet.mightContain( 2 ) );
+	}
+
+	@Test
+	public void addingTheSameIdTwiceKeepsOneEntry() {
+		final IdSet idSet = new IdSet();
+
+		idSet.add( 7 );
+		idSet.add( 7 );
+
+		assertEquals( 1, idSet.size() );
+	}
+
+	@Test
+	public void removeKeepsTheFollowingIdsOfTheSameRunReachable() {
+		final IdSet idSet = new IdSet();
+		final List<Long> ids = new ArrayList<Long>();
+
+		idSet.setLoaded();
+
+		// Enough consecutive IDs to resize several times and form runs of occupied slots.
+		for ( long id = 0; id < 1000; id++ ) {
+			idSet.add( id );
+			ids.add( id );
+		}
+
+		for ( long id = 0; id < 1000; id += 3 ) {
+			idSet.remove( id );
+		}
+
+		for ( final long id : ids ) {
+			assertEquals( "Unexpected answer for ID " + id, id % 3 != 0,
+					idSet.mightContain( id ) );
+		}
+
+		assertEquals( 666, idSet.size() );
+	}
+
+	@Test
+	public void matchesAHashSetUnderRandomAddsAndRemoves() {
+		final IdSet idSet = new IdSet();
+		final Set<Long> expectedIds = new HashSet<Long>();
+		final Random random = new Random( 42 );
+
+		idSet.setLoaded();
+
+		for ( int operation = 0; operation < 20000; operation++ ) {
+			// A small range of IDs makes collisions, and removals inside runs, frequent.
+			final long id = random.nextInt( 512 ) * 1024L;
+
+			if ( random.nextBoolean() ) {
+				idSet.add( id );
+				expectedIds.add( id );
+			} else {
+				idSet.remove( id );
+				expectedIds.remove( id );
+			}
+
+			assertEquals( expectedIds.size(), idSet.size() );
+		}
+
+		for ( long index = 0; index < 512; index++ ) {
+			final long id = index * 1024L;
+
+			assertEquals( "Unexpected answer for ID " + id, expectedIds.contains( id ),
+					idSet.mightContain( id ) );
+		}
+	}
+
+	@Test
+	public void removingAnAbsentIdChangesNothing() {
+		final IdSet idSet = new IdSet();
+
+		idSet.setLoaded();
+		idSet.add( 1 );
+		idSet.remove( 2 );
+
+		assertEquals( 1, idSet.size() );
+		assertTrue( idSet.mightContain( 1 ) );
+	}
+
+	@Test
+	public void clearForgetsEveryId() {
+		final IdSet idSet = new IdSet();
+
+		idSet.setLoaded();
+		idSet.add( 1 );
+		idSet.add( 2 );
+		idSet.clear();
+
+		assertEquals( 0, idSet.size() );
+		assertFalse( idSet.mightContain( 1 ) );
+		assertFalse( idSet.mightContain( 2 ) );
+	}
+}
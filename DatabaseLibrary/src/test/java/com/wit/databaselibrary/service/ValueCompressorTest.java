@@ -0,0 +1,94 @@
+package com.wit.databaselibrary.service;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValueCompressorTest {
+	@Test
+	public void roundTripsText() {
+		final StringBuilder text = new StringBuilder();
+
+		for ( int index = 0; index < 1000; index++ ) {
+			text.append( "The quick brown fox jumps over the lazy dog. " );
+		}
+
+		final byte[] value = text.toString().getBytes( Charset.forName( "UTF-8" ) );
+		final byte[] compressedValue = ValueCompressor.compress( value );
+
+		assertTrue( compressedValue.length < value.length );
+		assertArrayEquals( value, ValueCompressor.decompress( compressedValue ) );
+	}
+
+	@Test
+	public void roundTripsAnEmptyValue() {
+		final byte[] compressedValue = ValueCompressor.compress( new byte[ 0 ] );
+
+		assertTrue( ValueCompressor.isCompressed( compressedValue ) );
+		assertArrayEquals( new byte[ 0 ], ValueCompressor.decompress( compressedValue ) );
+	}
+
+	@Test
+	public void roundTripsAValueThatDoesNotCompress() {
+		final byte[] value = new byte[ 100000 ];
+
+		new Random( 42 ).nextBytes( value );
+
+		assertArrayEquals( value,
+				ValueCompressor.decompress( ValueCompressor.compress( value ) ) );
+	}
+
+	@Test
+	public void writesTheMagicNumberAndSizeInTheHeader() {
+		final byte[] value = new byte[ 300 ];
+		final ByteBuffer header = ByteBuffer.wrap( ValueCompressor.compress( value ) );
+
+		assertEquals( 0x00, header.get() );
+		assertEquals( 'D', header.get() );
+		assertEquals( 'L', header.get() );
+		assertEquals( 'Z', header.get() );
+		assertEquals( value.length, header.getInt() );
+	}
+
+	@Test
+	public void tellsCompressedValuesApart() {
+		assertTrue( ValueCompressor.isCompressed( ValueCompressor.compress( new byte[ 10 ] ) ) );
+		assertFalse( ValueCompressor.isCompressed( new byte[ 0 ] ) );
+		assertFalse( ValueCompressor.isCompressed( new byte[] { 0x00, 'D', 'L', 'Z' } ) );
+		assertFalse( ValueCompressor.isCompressed( "plain value".getBytes() ) );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void refusesToDecompressAValueThatIsNotCompressed() {
+		ValueCompressor.decompress( "plain value".getBytes() );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void refusesATruncatedValue() {
+		final byte[] value = new byte[ 10000 ];
+
+		new Random( 7 ).nextBytes( value );
+
+		final byte[] compressedValue = ValueCompressor.compress( value );
+
+		ValueCompressor.decompress(
+				Arrays.copyOf( compressedValue, compressedValue.length / 2 ) );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void refusesANegativeSize() {
+		final byte[] compressedValue = ValueCompressor.compress( new byte[ 10 ] );
+
+		ByteBuffer.wrap( compressedValue ).putInt( 4, -1 );
+
+		ValueCompressor.decompress( compressedValue );
+	}
+}